@@ -0,0 +1,153 @@
+package com.mycom.myapp.sendapp.delivery.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import com.mycom.myapp.sendapp.delivery.dto.ProcessResult;
+import com.mycom.myapp.sendapp.delivery.service.DeliveryProgressTracker;
+
+/**
+ * 워커 1회분(1000건) 결과 반영 비용: 행 단위 batchUpdate(이전 방식) vs 다중 행 INSERT + IN 묶음 UPDATE.
+ *
+ * - 실제 스키마가 적용된 MySQL이 필요하다 (FK 검사는 세션에서 끄고, 벤치 전용 invoice_id 대역을 쓴 뒤 지운다).
+ * - 실행: ./gradlew jmh -Dbench.jdbc.url=jdbc:mysql://localhost:3306/sendapp -Dbench.jdbc.user=... -Dbench.jdbc.password=...
+ *   (rewriteBatchedStatements 없이 측정해야 이전 방식의 왕복 비용이 그대로 드러난다)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DeliveryPersistBenchmark {
+
+    private static final int TICK_SIZE = 1000;
+    private static final long BENCH_INVOICE_BASE = 9_000_000_000L;
+    private static final int BENCH_YYYYMM = 209901;
+
+    @Param({"100", "500", "1000"})
+    int chunkSize;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private DeliveryHistoryRepository historyRepository;
+    private DeliveryStatusRepository statusRepository;
+    private int attemptNo;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource(
+                System.getProperty("bench.jdbc.url"),
+                System.getProperty("bench.jdbc.user"),
+                System.getProperty("bench.jdbc.password"),
+                true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("SET FOREIGN_KEY_CHECKS = 0");
+        historyRepository = new DeliveryHistoryRepository(jdbcTemplate);
+        statusRepository = new DeliveryStatusRepository(jdbcTemplate);
+
+        jdbcTemplate.batchUpdate("""
+                INSERT IGNORE INTO delivery_status
+                (invoice_id, status, delivery_channel, retry_count, last_attempt_at, created_at)
+                VALUES (?, 'READY', 'EMAIL', 0, NOW(), NOW())
+            """, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, BENCH_INVOICE_BASE + i);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return TICK_SIZE;
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM delivery_history WHERE invoice_id BETWEEN ? AND ?", BENCH_INVOICE_BASE, BENCH_INVOICE_BASE + TICK_SIZE);
+        jdbcTemplate.update("DELETE FROM delivery_status WHERE invoice_id BETWEEN ? AND ?", BENCH_INVOICE_BASE, BENCH_INVOICE_BASE + TICK_SIZE);
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public void multiRow() {
+        List<ProcessResult> results = tick();
+        LocalDateTime now = LocalDateTime.now();
+        statusRepository.updateStatusBatch(results, now, chunkSize);
+        historyRepository.saveHistoryBatch(results, now, chunkSize, DeliveryProgressTracker::isTerminal);
+    }
+
+    @Benchmark
+    public void perRowBatch() {
+        List<ProcessResult> results = tick();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        jdbcTemplate.batchUpdate("UPDATE delivery_status SET status = ?, last_attempt_at = ? WHERE invoice_id = ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ProcessResult r = results.get(i);
+                        ps.setString(1, r.getStatus());
+                        ps.setTimestamp(2, now);
+                        ps.setLong(3, r.getInvoiceId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return results.size();
+                    }
+                });
+        jdbcTemplate.batchUpdate("""
+                INSERT IGNORE INTO delivery_history
+                (invoice_id, billing_yyyymm, attempt_no, delivery_channel, status, receiver_info, requested_at, sent_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ProcessResult r = results.get(i);
+                ps.setLong(1, r.getInvoiceId());
+                ps.setInt(2, r.getBillingYyyymm());
+                ps.setInt(3, r.getAttemptNo());
+                ps.setString(4, r.getChannel());
+                ps.setString(5, r.getStatus());
+                ps.setString(6, r.getReceiverInfo());
+                ps.setTimestamp(7, Timestamp.valueOf(r.getRequestedAt()));
+                ps.setTimestamp(8, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return results.size();
+            }
+        });
+    }
+
+    // 매 호출마다 회차를 올려 INSERT IGNORE가 실제로 행을 쓰게 한다 (99% SENT / 1% FAILED)
+    private List<ProcessResult> tick() {
+        int attempt = ++attemptNo;
+        LocalDateTime requestedAt = LocalDateTime.now();
+        List<ProcessResult> results = new ArrayList<>(TICK_SIZE);
+        for (int i = 0; i < TICK_SIZE; i++) {
+            results.add(ProcessResult.attempted(BENCH_INVOICE_BASE + i, "EMAIL", attempt,
+                    i % 100 == 0 ? "FAILED" : "SENT", null, requestedAt, "v1:bench", BENCH_YYYYMM));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,77 @@
+package com.mycom.myapp.sendapp.global.crypto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.crypto.tink.DeterministicAead;
+import com.google.crypto.tink.KeyTemplates;
+import com.google.crypto.tink.KeysetHandle;
+import com.google.crypto.tink.daead.DeterministicAeadConfig;
+
+/**
+ * 건별(maskedEmail) vs 일괄(maskedEmails) 마스킹 처리량 비교.
+ *
+ * - 캐시는 끄고 복호화 비용만 본다 (캐시 적중 시에는 둘 다 조회 비용만 남는다).
+ * - distinct: 목록 안 고유 암호문 수 (batchSize보다 작으면 중복이 섞인 페이지/청크)
+ * - 실행: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ContactProtectorBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final byte[] AD_EMAIL = "users.email".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"1000", "100"})
+    int distinct;
+
+    @Param({"0", "256"})
+    int parallelThreshold;
+
+    private ContactProtector protector;
+    private List<EncryptedString> emails;
+
+    @Setup
+    public void setUp() throws Exception {
+        DeterministicAeadConfig.register();
+        DeterministicAead daead = KeysetHandle.generateNew(KeyTemplates.get("AES256_SIV"))
+                .getPrimitive(DeterministicAead.class);
+        protector = new ContactProtector(daead, 0, 0, 0, parallelThreshold);
+
+        emails = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            String plain = "user" + (i % distinct) + "@example.com";
+            byte[] ct = daead.encryptDeterministically(plain.getBytes(StandardCharsets.UTF_8), AD_EMAIL);
+            emails.add(EncryptedString.of("v1:" + Base64.getEncoder().encodeToString(ct)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void perItem(Blackhole bh) throws Exception {
+        for (EncryptedString email : emails) {
+            bh.consume(protector.maskedEmail(email));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void bulk(Blackhole bh) {
+        bh.consume(protector.maskedEmails(emails, "(decrypt-failed)"));
+    }
+}
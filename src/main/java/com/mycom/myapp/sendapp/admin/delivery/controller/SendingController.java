@@ -51,6 +51,8 @@ public class SendingController {
         // summary 탭
         if ("summary".equalsIgnoreCase(safeTab)) {
             model.addAttribute("deliverySummaries", sendingService.summaries(billingYyyymm));
+            model.addAttribute("deliveryProgress", sendingService.progress(billingYyyymm));
+            model.addAttribute("releaseBacklog", sendingService.releaseBacklog());
             model.addAttribute("deliveryStatuses", List.of());
             model.addAttribute("deliveryHistories", List.of());
             return "admin/sending";
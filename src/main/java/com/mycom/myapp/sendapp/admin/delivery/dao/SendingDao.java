@@ -11,11 +11,14 @@ import org.springframework.stereotype.Repository;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 @Repository
 public class SendingDao {
 
+    private static final String DECRYPT_FAILED = "(decrypt-failed)";
+
     private final JdbcTemplate jdbcTemplate;
     private final ContactProtector protector;
 
@@ -85,7 +88,9 @@ public class SendingDao {
         args.add(size);
         args.add(offset);
 
-        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+        // 수신자 마스킹은 페이지 단위로 모아 한 번에 처리한다 (같은 암호문은 한 번만 복호화)
+        List<ReceiverRef> receivers = new ArrayList<>();
+        List<SendingStatusRowDTO> rows = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
             LocalDateTime lastAt = toLdt(rs.getTimestamp("last_attempt_at"));
             LocalDateTime createdAt = toLdt(rs.getTimestamp("created_at"));
 
@@ -96,12 +101,12 @@ public class SendingDao {
             String userName = protector.maskedName(rs.getString("user_name"));
 
             String channelVal = rs.getString("delivery_channel"); // snapshot 기준
-            String receiverMasked = maskReceiver(
+            receivers.add(pickReceiver(
                     channelVal,
                     rs.getString("last_receiver_info"),   // 우선: 실제 발송 대상(History 최신)
                     rs.getString("email_enc"),            // fallback: users.email
                     rs.getString("phone_enc")             // fallback: users.phone
-            );
+            ));
 
             Long totalAmount = null;
             try {
@@ -118,7 +123,7 @@ public class SendingDao {
                     bym,
                     uid,
                     userName,
-                    receiverMasked,
+                    null, // receiverMasked: 아래에서 일괄 마스킹 후 채움
                     channelVal,
                     rs.getString("status"),
                     rs.getInt("retry_count"),
@@ -127,6 +132,16 @@ public class SendingDao {
                     createdAt
             );
         }, args.toArray());
+
+        List<String> masked = maskReceivers(receivers);
+        List<SendingStatusRowDTO> result = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            SendingStatusRowDTO r = rows.get(i);
+            result.add(new SendingStatusRowDTO(
+                    r.invoiceId(), r.billingYyyymm(), r.usersId(), r.userName(), masked.get(i),
+                    r.deliveryChannel(), r.status(), r.retryCount(), r.totalAmount(), r.lastAttemptAt(), r.createdAt()));
+        }
+        return result;
     }
 
     /** History 탭: invoice_id 기준 이력 */
@@ -147,23 +162,33 @@ public class SendingDao {
             ORDER BY attempt_no ASC
         """;
 
-        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+        List<ReceiverRef> receivers = new ArrayList<>();
+        List<SendingHistoryRowDTO> rows = jdbcTemplate.query(sql, (rs, rowNum) -> {
             String channel = rs.getString("delivery_channel");
-            String receiverInfo = rs.getString("receiver_info");
-            String receiverMasked = maskReceiver(channel, receiverInfo, null, null);
+            receivers.add(pickReceiver(channel, rs.getString("receiver_info"), null, null));
 
             return new SendingHistoryRowDTO(
                     rs.getLong("delivery_history_id"),
                     rs.getLong("invoice_id"),
                     rs.getInt("attempt_no"),
                     channel,
-                    receiverMasked,
+                    null, // receiverMasked: 일괄 마스킹 후 채움
                     rs.getString("status"),
                     rs.getString("error_message"),
                     toLdt(rs.getTimestamp("requested_at")),
                     toLdt(rs.getTimestamp("sent_at"))
             );
         }, invoiceId);
+
+        List<String> masked = maskReceivers(receivers);
+        List<SendingHistoryRowDTO> result = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            SendingHistoryRowDTO r = rows.get(i);
+            result.add(new SendingHistoryRowDTO(
+                    r.deliveryHistoryId(), r.invoiceId(), r.attemptNo(), r.deliveryChannel(), masked.get(i),
+                    r.status(), r.errorMessage(), r.requestedAt(), r.sentAt()));
+        }
+        return result;
     }
 
     /** Summary 탭: 월+채널 집계 */
@@ -201,32 +226,68 @@ public class SendingDao {
         );
     }
 
-    private String maskReceiver(String channel, String receiverInfoEnc, String emailEnc, String phoneEnc) {
+    /**
+     * 행별 마스킹 대상 결정 (복호화는 maskReceivers에서 한 번에)
+     */
+    private ReceiverRef pickReceiver(String channel, String receiverInfoEnc, String emailEnc, String phoneEnc) {
+        boolean email = "EMAIL".equalsIgnoreCase(channel);
         try {
             // 우선: history.receiver_info (실제 발송 대상)
             if (receiverInfoEnc != null && receiverInfoEnc.startsWith("v1:")) {
-                if ("EMAIL".equalsIgnoreCase(channel)) {
-                    return protector.maskedEmail(EncryptedString.of(receiverInfoEnc));
-                }
-                return protector.maskedPhone(EncryptedString.of(receiverInfoEnc));
+                return ReceiverRef.encrypted(email, EncryptedString.of(receiverInfoEnc));
             }
 
             // fallback: users.email/users.phone
-            if ("EMAIL".equalsIgnoreCase(channel) && emailEnc != null) {
-                return protector.maskedEmail(EncryptedString.of(emailEnc));
+            if (email && emailEnc != null) {
+                return ReceiverRef.encrypted(true, EncryptedString.of(emailEnc));
             }
-            if (!"EMAIL".equalsIgnoreCase(channel) && phoneEnc != null) {
-                return protector.maskedPhone(EncryptedString.of(phoneEnc));
+            if (!email && phoneEnc != null) {
+                return ReceiverRef.encrypted(false, EncryptedString.of(phoneEnc));
             }
+        } catch (Exception e) {
+            return ReceiverRef.literal(DECRYPT_FAILED);
+        }
+
+        // ADMIN_REQUEST 같은 값은 그대로(민감정보가 아니어야 함)
+        if (receiverInfoEnc != null && !receiverInfoEnc.isBlank()) {
+            return ReceiverRef.literal(receiverInfoEnc);
+        }
+        return ReceiverRef.literal("-");
+    }
+
+    /**
+     * 페이지 단위 일괄 마스킹: 이메일/전화별로 모아 ContactProtector 일괄 API를 한 번씩 호출한다.
+     */
+    private List<String> maskReceivers(List<ReceiverRef> refs) {
+        List<EncryptedString> emails = new ArrayList<>();
+        List<EncryptedString> phones = new ArrayList<>();
+        for (ReceiverRef ref : refs) {
+            if (ref.enc() == null) continue;
+            (ref.email() ? emails : phones).add(ref.enc());
+        }
+
+        Iterator<String> maskedEmails = protector.maskedEmails(emails, DECRYPT_FAILED).iterator();
+        Iterator<String> maskedPhones = protector.maskedPhones(phones, DECRYPT_FAILED).iterator();
 
-            // ADMIN_REQUEST 같은 값은 그대로(민감정보가 아니어야 함)
-            if (receiverInfoEnc != null && !receiverInfoEnc.isBlank()) {
-                return receiverInfoEnc;
+        List<String> masked = new ArrayList<>(refs.size());
+        for (ReceiverRef ref : refs) {
+            if (ref.enc() == null) {
+                masked.add(ref.literal());
+            } else {
+                String value = (ref.email() ? maskedEmails : maskedPhones).next();
+                masked.add(value == null ? "" : value);
             }
+        }
+        return masked;
+    }
 
-            return "-";
-        } catch (Exception e) {
-            return "(decrypt-failed)";
+    private record ReceiverRef(boolean email, EncryptedString enc, String literal) {
+        static ReceiverRef encrypted(boolean email, EncryptedString enc) {
+            return new ReceiverRef(email, enc, null);
+        }
+
+        static ReceiverRef literal(String value) {
+            return new ReceiverRef(false, null, value);
         }
     }
 
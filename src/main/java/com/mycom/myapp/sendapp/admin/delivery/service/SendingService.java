@@ -4,6 +4,8 @@ import com.mycom.myapp.sendapp.admin.delivery.dao.SendingDao;
 import com.mycom.myapp.sendapp.admin.delivery.dto.DeliverySummaryRowDTO;
 import com.mycom.myapp.sendapp.admin.delivery.dto.SendingHistoryRowDTO;
 import com.mycom.myapp.sendapp.admin.delivery.dto.SendingStatusRowDTO;
+import com.mycom.myapp.sendapp.delivery.scheduler.DelayedTransferer;
+import com.mycom.myapp.sendapp.delivery.service.DeliveryProgressTracker;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -12,9 +14,13 @@ import java.util.List;
 public class SendingService {
 
     private final SendingDao sendingDao;
+    private final DeliveryProgressTracker progressTracker;
+    private final DelayedTransferer delayedTransferer;
 
-    public SendingService(SendingDao sendingDao) {
+    public SendingService(SendingDao sendingDao, DeliveryProgressTracker progressTracker, DelayedTransferer delayedTransferer) {
         this.sendingDao = sendingDao;
+        this.progressTracker = progressTracker;
+        this.delayedTransferer = delayedTransferer;
     }
 
     public int count(Integer billingYyyymm, String status, String deliveryChannel, Long usersId, Long invoiceId) {
@@ -36,4 +42,17 @@ public class SendingService {
     public List<DeliverySummaryRowDTO> summaries(Integer billingYyyymm) {
         return sendingDao.summaries(billingYyyymm);
     }
+
+    // 발송 진행률 (Redis 카운터가 없으면 null -> 화면에서 숨김)
+    public DeliveryProgressTracker.Progress progress(Integer billingYyyymm) {
+        if (billingYyyymm == null) return null;
+        DeliveryProgressTracker.Progress progress = progressTracker.progress(billingYyyymm);
+        return progress.total() == 0 ? null : progress;
+    }
+
+    // 지연 큐 잔량/예상 소요 (대기 건이 없으면 null -> 화면에서 숨김)
+    public DelayedTransferer.ReleaseBacklog releaseBacklog() {
+        DelayedTransferer.ReleaseBacklog backlog = delayedTransferer.backlog();
+        return backlog.due() == 0 && backlog.upcoming() == 0 ? null : backlog;
+    }
 }
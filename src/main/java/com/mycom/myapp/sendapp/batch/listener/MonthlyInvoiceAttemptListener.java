@@ -3,7 +3,9 @@ package com.mycom.myapp.sendapp.batch.listener;
 import com.mycom.myapp.sendapp.batch.repository.attempt.ChunkSettlementResultDto;
 import com.mycom.myapp.sendapp.batch.repository.attempt.MonthlyInvoiceBatchAttemptRepository;
 import com.mycom.myapp.sendapp.batch.support.ChunkHeaderBuffer;
+import com.mycom.myapp.sendapp.batch.tasklet.MonthlyInvoiceAttemptStartTasklet;
 import com.mycom.myapp.sendapp.delivery.service.DeliveryLoaderService;
+import com.mycom.myapp.sendapp.delivery.service.DeliveryProgressTracker;
 import net.ttddyy.dsproxy.QueryCount;
 import net.ttddyy.dsproxy.QueryCountHolder;
 import lombok.RequiredArgsConstructor;
@@ -23,7 +25,7 @@ import java.time.LocalDateTime;
  * attempt_id 기반으로 배치 결과와 청크 단위 성공 건수를 기록하는 리스너.
  *
  * - afterChunk: 이번 청크의 성공 건수(writeCount 증가분)를 누적 기록
- * - afterJob  : 최종 상태/소요 시간을 attempt 테이블에 반영
+ * - afterJob  : 최종 상태/소요 시간을 attempt 테이블에 반영, 정상 종료 시 해당 월 발송 적재 마감(진행률 sealed)
  */
 @Slf4j
 @Component
@@ -32,10 +34,12 @@ public class MonthlyInvoiceAttemptListener extends ChunkListenerSupport implemen
 
     private static final String CTX_ATTEMPT_ID = "monthlyInvoiceAttemptId";
     private static final String CTX_LAST_WRITE_COUNT = "attemptListener.lastWriteCount";
+    private static final String CTX_TARGET_YYYYMM = MonthlyInvoiceAttemptStartTasklet.CTX_KEY_TARGET_YYYYMM;
 
     private final MonthlyInvoiceBatchAttemptRepository attemptRepository;
     private final ChunkHeaderBuffer chunkHeaderBuffer;
     private final DeliveryLoaderService deliveryLoaderService;
+    private final DeliveryProgressTracker deliveryProgressTracker;
 
     @Override
     public void afterChunk(ChunkContext context) {
@@ -58,6 +62,8 @@ public class MonthlyInvoiceAttemptListener extends ChunkListenerSupport implemen
 
     @Override
     public void afterJob(JobExecution jobExecution) {
+        sealDelivery(jobExecution);
+
         Long attemptId = getAttemptId(jobExecution);
         if (attemptId == null) {
             return;
@@ -81,6 +87,22 @@ public class MonthlyInvoiceAttemptListener extends ChunkListenerSupport implemen
         }
     }
 
+    /**
+     * 더 이상 적재할 청구서가 없으므로, 발송 잔량이 0이 되는 순간 통계가 적재되도록 마감한다.
+     */
+    private void sealDelivery(JobExecution jobExecution) {
+        if (jobExecution == null || jobExecution.getStatus() != BatchStatus.COMPLETED) return;
+
+        if (!jobExecution.getExecutionContext().containsKey(CTX_TARGET_YYYYMM)) return;
+
+        int targetYyyymm = jobExecution.getExecutionContext().getInt(CTX_TARGET_YYYYMM);
+        try {
+            deliveryProgressTracker.seal(targetYyyymm);
+        } catch (Exception e) {
+            log.error("Delivery progress seal failed. targetYyyymm={}, err={}", targetYyyymm, e.getMessage());
+        }
+    }
+
     private Long getAttemptId(JobExecution jobExecution) {
         if (jobExecution == null) return null;
         if (jobExecution.getExecutionContext().containsKey(CTX_ATTEMPT_ID)) {
@@ -0,0 +1,431 @@
+package com.mycom.myapp.sendapp.delivery.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycom.myapp.sendapp.delivery.config.DeliveryStreamKeys;
+import com.mycom.myapp.sendapp.delivery.dto.DeliveryPayload;
+import com.mycom.myapp.sendapp.delivery.dto.ProcessResult;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * DeliveryPayload <-> 바이너리 직렬화기 (지연 큐 ZSET 멤버 / 스트림 payload 필드 공용).
+ *
+ * [v1 레이아웃]
+ *   version(1B) | flags(1B)
+ *   invoiceId(varlong) | channel(1B) | retryCount(varint) | requestedAt(varlong, epoch ms, UTC 기준 LocalDateTime)
+ *   totalAmountWon(zigzag varlong)
+ *   [F_YYYYMM]    targetYyyymm(varint)
+ *   [F_DUE_DATE]  paymentDueDate(varlong, epochDay)
+ *   [F_BREAKDOWN] plan/addon/etc/discount(zigzag varlong x4)
+ *   [F_EMAIL]     encEmail(len varint + UTF-8)
+ *   [F_PHONE]     endphone(len varint + UTF-8)
+ *   [F_NAME]      recipientName(len varint + UTF-8)
+ *   [F_REFERENCE] (본문 없음) THIN 모드 참조 메시지 표시. 컨슈머가 DB에서 본문을 채운다.
+ *   [F_EXTENDED]  extFlags(varint) - 레이아웃 맨 끝. flags 1바이트를 다 쓴 뒤의 필드는 여기 비트로 추가한다.
+ *                 X_NO_REQUESTED_AT: requestedAt이 null (본문의 requestedAt 자리는 0)
+ *
+ * [스키마 변경 규칙]
+ * - 필드 추가는 새 flag 비트를 할당하고 레이아웃 "맨 뒤"에 붙인다. 기존 비트/순서는 재사용하거나 바꾸지 않는다.
+ *   flags의 bit 7(F_EXTENDED)은 확장 표시로 예약되어 있다: 새 필드는 extFlags 비트로 추가한다.
+ * - null은 0 같은 값으로 흉내 내지 않고 flag로 명시한다. (extFlags 도입 전 엔트리의 requestedAt 0은 적재 시각 미상 -> 지금으로 읽는다)
+ * - 디코더는 자신이 모르는 flag 비트와 뒤따르는 바이트를 무시한다 (구버전 노드가 신버전 엔트리를 읽을 수 있어야 함).
+ * - 기존 필드의 타입/의미를 바꿔야 할 때만 version을 올리고, 디코더는 이전 version 리더를 계속 유지한다.
+ * - 채널 코드는 append-only (1=EMAIL, 2=SMS, 3=PUSH). 모르는 코드는 0(미상)으로 남기지 않고 예외로 처리한다.
+ * - 첫 바이트가 '{' 인 엔트리는 코덱 도입 이전의 JSON으로 보고 DeliveryPayload.from()으로 읽는다.
+ *
+ * [결과 저널 레이아웃] (WRITE_BEHIND 모드, 워커 1회분 결과를 엔트리 1개로)
+ *   version(1B, 2) | count(varint)
+ *   반복: recordLength(varint) | 레코드
+ *   레코드: invoiceId(varlong) | channel(1B, 0=미상) | attemptNo(varint) | requestedAt(varlong)
+ *         | flags(1B) | [R_STATUS] status | [R_RECEIVER] receiverInfo | [R_ERROR] errorMessage (len varint + UTF-8)
+ *         | [R_YYYYMM] billingYyyymm(varint)
+ *   레코드마다 길이가 앞에 붙으므로, 디코더는 모르는 flag 비트의 필드가 레코드 끝에 붙어 있어도 다음 레코드로 건너뛸 수 있다.
+ *   (v1은 길이 없이 레코드가 이어 붙는다. 배포 전환 중 남은 엔트리를 위해 디코더는 v1도 계속 읽는다.)
+ */
+@Component
+@RequiredArgsConstructor
+public class DeliveryPayloadCodec {
+
+    public static final byte VERSION_1 = 1;
+    public static final byte RESULTS_VERSION_2 = 2;
+
+    private static final int F_EMAIL = 1;
+    private static final int F_PHONE = 1 << 1;
+    private static final int F_NAME = 1 << 2;
+    private static final int F_YYYYMM = 1 << 3;
+    private static final int F_DUE_DATE = 1 << 4;
+    private static final int F_BREAKDOWN = 1 << 5;
+    private static final int F_REFERENCE = 1 << 6;
+    private static final int F_EXTENDED = 1 << 7; // 예약: extFlags(varint)가 레이아웃 맨 끝에 붙는다
+
+    private static final long X_NO_REQUESTED_AT = 1L;
+
+    private static final int R_STATUS = 1;
+    private static final int R_RECEIVER = 1 << 1;
+    private static final int R_ERROR = 1 << 2;
+    private static final int R_YYYYMM = 1 << 3;
+    private static final int R_NO_REQUESTED_AT = 1 << 4; // v2: requestedAt이 null
+    private static final int R_EXTENDED = 1 << 7; // 예약 (레코드 확장 표시)
+
+    private static final byte LEGACY_JSON_PREFIX = '{';
+
+    private static final TypeReference<Map<String, String>> LEGACY_MAP = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper;
+
+    // ===================== encode =====================
+
+    public byte[] encode(DeliveryPayload p) {
+        boolean breakdown = p.getPlanAmountWon() != 0 || p.getAddonAmountWon() != 0
+                || p.getEtcAmountWon() != 0 || p.getDiscountAmountWon() != 0;
+
+        int flags = 0;
+        if (p.getEncEmail() != null) flags |= F_EMAIL;
+        if (p.getEndphone() != null) flags |= F_PHONE;
+        if (p.getRecipientName() != null) flags |= F_NAME;
+        if (p.getTargetYyyymm() > 0) flags |= F_YYYYMM;
+        if (p.getPaymentDueDate() != null) flags |= F_DUE_DATE;
+        if (breakdown) flags |= F_BREAKDOWN;
+        long extFlags = p.getRequestedAt() == null ? X_NO_REQUESTED_AT : 0L;
+        if (extFlags != 0) flags |= F_EXTENDED;
+
+        Writer w = new Writer(128);
+        w.writeByte(VERSION_1);
+        w.writeByte(flags);
+        w.writeVarLong(p.getInvoiceId() == null ? 0L : p.getInvoiceId());
+        w.writeByte(channelCode(p.getChannel()));
+        w.writeVarLong(p.getRetryCount());
+        w.writeVarLong(toEpochMillis(p.getRequestedAt()));
+        w.writeZigZag(p.getTotalAmountWon());
+
+        if ((flags & F_YYYYMM) != 0) w.writeVarLong(p.getTargetYyyymm());
+        if ((flags & F_DUE_DATE) != 0) w.writeVarLong(p.getPaymentDueDate().toEpochDay());
+        if ((flags & F_BREAKDOWN) != 0) {
+            w.writeZigZag(p.getPlanAmountWon());
+            w.writeZigZag(p.getAddonAmountWon());
+            w.writeZigZag(p.getEtcAmountWon());
+            w.writeZigZag(p.getDiscountAmountWon());
+        }
+        if ((flags & F_EMAIL) != 0) w.writeString(p.getEncEmail());
+        if ((flags & F_PHONE) != 0) w.writeString(p.getEndphone());
+        if ((flags & F_NAME) != 0) w.writeString(p.getRecipientName());
+        if ((flags & F_EXTENDED) != 0) w.writeVarLong(extFlags);
+
+        return w.toByteArray();
+    }
+
+    /**
+     * THIN 모드: invoiceId/채널/회차/요청시각만 담은 참조 메시지 (연락처 등 PII는 싣지 않는다)
+     */
+    public byte[] encodeReference(DeliveryPayload p) {
+        boolean noRequestedAt = p.getRequestedAt() == null;
+        Writer w = new Writer(24);
+        w.writeByte(VERSION_1);
+        w.writeByte(noRequestedAt ? F_REFERENCE | F_EXTENDED : F_REFERENCE);
+        w.writeVarLong(p.getInvoiceId() == null ? 0L : p.getInvoiceId());
+        w.writeByte(channelCode(p.getChannel()));
+        w.writeVarLong(p.getRetryCount());
+        w.writeVarLong(toEpochMillis(p.getRequestedAt()));
+        w.writeZigZag(0L);
+        if (noRequestedAt) w.writeVarLong(X_NO_REQUESTED_AT);
+        return w.toByteArray();
+    }
+
+    // ===================== decode =====================
+
+    /**
+     * 스트림 레코드 -> DTO. payload 필드가 없으면 코덱 도입 이전의 필드 맵으로 본다.
+     * 발송 대상이 아닌 레코드(스트림 초기화용 더미 등)는 null.
+     */
+    public DeliveryPayload decode(Map<String, byte[]> fields) {
+        if (fields == null || fields.isEmpty()) return null;
+
+        byte[] bytes = fields.get(DeliveryStreamKeys.PAYLOAD);
+        if (bytes != null) return decode(bytes);
+
+        if (!fields.containsKey(DeliveryStreamKeys.INVOICE_ID)) return null;
+        Map<String, String> legacy = new HashMap<>(fields.size() * 2);
+        fields.forEach((k, v) -> legacy.put(k, v == null ? null : new String(v, StandardCharsets.UTF_8)));
+        return DeliveryPayload.from(legacy);
+    }
+
+    public DeliveryPayload decode(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) return null;
+
+        if (bytes[0] == LEGACY_JSON_PREFIX) {
+            return decodeLegacyJson(bytes);
+        }
+        if (bytes[0] != VERSION_1) {
+            throw new IllegalArgumentException("지원하지 않는 페이로드 버전: " + bytes[0]);
+        }
+
+        Reader r = new Reader(bytes, 1);
+        int flags = r.readByte();
+
+        DeliveryPayload.DeliveryPayloadBuilder b = DeliveryPayload.builder()
+                .invoiceId(r.readVarLong())
+                .channel(channelName(r.readByte()))
+                .retryCount((int) r.readVarLong());
+        long requestedAt = r.readVarLong();
+        b.totalAmountWon(r.readZigZag())
+         .referenceOnly((flags & F_REFERENCE) != 0);
+
+        if ((flags & F_YYYYMM) != 0) b.targetYyyymm((int) r.readVarLong());
+        if ((flags & F_DUE_DATE) != 0) b.paymentDueDate(LocalDate.ofEpochDay(r.readVarLong()));
+        if ((flags & F_BREAKDOWN) != 0) {
+            b.planAmountWon(r.readZigZag())
+             .addonAmountWon(r.readZigZag())
+             .etcAmountWon(r.readZigZag())
+             .discountAmountWon(r.readZigZag());
+        }
+        if ((flags & F_EMAIL) != 0) b.encEmail(r.readString());
+        if ((flags & F_PHONE) != 0) b.endphone(r.readString());
+        if ((flags & F_NAME) != 0) b.recipientName(r.readString());
+        long extFlags = (flags & F_EXTENDED) != 0 ? r.readVarLong() : 0L;
+        // 이후 바이트는 상위 버전이 덧붙인 필드 -> 무시
+
+        if ((extFlags & X_NO_REQUESTED_AT) != 0) {
+            b.requestedAt(null);
+        } else {
+            b.requestedAt(requestedAt == 0L ? LocalDateTime.now() : fromEpochMillis(requestedAt)); // 0: 확장 flag 도입 전 null
+        }
+        return b.build();
+    }
+
+    private DeliveryPayload decodeLegacyJson(byte[] bytes) {
+        try {
+            return DeliveryPayload.from(objectMapper.readValue(bytes, LEGACY_MAP));
+        } catch (java.io.IOException e) {
+            throw new IllegalArgumentException("레거시 JSON 페이로드 해석 실패: " + e.getMessage(), e);
+        }
+    }
+
+    // ===================== 결과 저널 =====================
+
+    /**
+     * DB 반영 대상 결과 묶음 -> 저널 엔트리 1개 (dueAt/skipped/deferred는 반영 대상에 없으므로 싣지 않는다)
+     */
+    public byte[] encodeResults(List<ProcessResult> results) {
+        Writer w = new Writer(16 + results.size() * 48);
+        Writer record = new Writer(64);
+        w.writeByte(RESULTS_VERSION_2);
+        w.writeVarLong(results.size());
+        for (ProcessResult r : results) {
+            int flags = 0;
+            if (r.getStatus() != null) flags |= R_STATUS;
+            if (r.getReceiverInfo() != null) flags |= R_RECEIVER;
+            if (r.getErrorMessage() != null) flags |= R_ERROR;
+            if (r.getBillingYyyymm() > 0) flags |= R_YYYYMM;
+            if (r.getRequestedAt() == null) flags |= R_NO_REQUESTED_AT;
+
+            record.reset();
+            record.writeVarLong(r.getInvoiceId() == null ? 0L : r.getInvoiceId());
+            record.writeByte(r.getChannel() == null ? 0 : channelCode(r.getChannel()));
+            record.writeVarLong(r.getAttemptNo());
+            record.writeVarLong(toEpochMillis(r.getRequestedAt()));
+            record.writeByte(flags);
+            if ((flags & R_STATUS) != 0) record.writeString(r.getStatus());
+            if ((flags & R_RECEIVER) != 0) record.writeString(r.getReceiverInfo());
+            if ((flags & R_ERROR) != 0) record.writeString(r.getErrorMessage());
+            if ((flags & R_YYYYMM) != 0) record.writeVarLong(r.getBillingYyyymm());
+
+            w.writeVarLong(record.size());
+            w.writeBytes(record);
+        }
+        return w.toByteArray();
+    }
+
+    public List<ProcessResult> decodeResults(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) return new ArrayList<>();
+        boolean lengthPrefixed = bytes[0] == RESULTS_VERSION_2;
+        if (!lengthPrefixed && bytes[0] != VERSION_1) {
+            throw new IllegalArgumentException("지원하지 않는 결과 저널 버전: " + bytes[0]);
+        }
+
+        Reader r = new Reader(bytes, 1);
+        int count = (int) r.readVarLong();
+        List<ProcessResult> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int end = lengthPrefixed ? r.limitFromHere((int) r.readVarLong()) : -1;
+
+            long invoiceId = r.readVarLong();
+            int channel = r.readByte();
+            int attemptNo = (int) r.readVarLong();
+            long requestedAt = r.readVarLong();
+            int flags = r.readByte();
+            String status = (flags & R_STATUS) != 0 ? r.readString() : null;
+            String receiverInfo = (flags & R_RECEIVER) != 0 ? r.readString() : null;
+            String errorMessage = (flags & R_ERROR) != 0 ? r.readString() : null;
+            int billingYyyymm = (flags & R_YYYYMM) != 0 ? (int) r.readVarLong() : 0;
+            if (lengthPrefixed) r.seek(end); // 상위 버전이 레코드 끝에 덧붙인 필드 -> 건너뜀
+
+            // v1은 null을 0으로만 표시했다
+            boolean noRequestedAt = lengthPrefixed ? (flags & R_NO_REQUESTED_AT) != 0 : requestedAt == 0L;
+            results.add(ProcessResult.attempted(invoiceId, channel == 0 ? null : channelName(channel), attemptNo,
+                    status, errorMessage, noRequestedAt ? null : fromEpochMillis(requestedAt), receiverInfo, billingYyyymm));
+        }
+        return results;
+    }
+
+    // ===================== 채널 / 시간 =====================
+
+    private static int channelCode(String channel) {
+        if (channel == null) throw new IllegalArgumentException("채널이 비어 있습니다.");
+        switch (channel.toUpperCase()) {
+            case "EMAIL": return 1;
+            case "SMS": return 2;
+            case "PUSH": return 3;
+            default: throw new IllegalArgumentException("알 수 없는 채널: " + channel);
+        }
+    }
+
+    private static String channelName(int code) {
+        switch (code) {
+            case 1: return "EMAIL";
+            case 2: return "SMS";
+            case 3: return "PUSH";
+            default: throw new IllegalArgumentException("알 수 없는 채널 코드: " + code);
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time == null ? 0L : time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromEpochMillis(long millis) {
+        long seconds = Math.floorDiv(millis, 1000L);
+        int nanos = (int) Math.floorMod(millis, 1000L) * 1_000_000;
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    // ===================== 바이트 입출력 =====================
+
+    private static final class Writer {
+        private byte[] buf;
+        private int pos;
+
+        Writer(int initialCapacity) {
+            this.buf = new byte[initialCapacity];
+        }
+
+        void writeByte(int v) {
+            ensure(1);
+            buf[pos++] = (byte) v;
+        }
+
+        void writeVarLong(long v) {
+            ensure(10);
+            while ((v & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[pos++] = (byte) v;
+        }
+
+        void writeZigZag(long v) {
+            writeVarLong((v << 1) ^ (v >> 63));
+        }
+
+        void writeString(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        void writeBytes(Writer other) {
+            ensure(other.pos);
+            System.arraycopy(other.buf, 0, buf, pos, other.pos);
+            pos += other.pos;
+        }
+
+        int size() {
+            return pos;
+        }
+
+        void reset() {
+            pos = 0;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+
+        private void ensure(int n) {
+            if (pos + n > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + n));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buf;
+        private int pos;
+
+        Reader(byte[] buf, int pos) {
+            this.buf = buf;
+            this.pos = pos;
+        }
+
+        int readByte() {
+            require(1);
+            return buf[pos++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                require(1);
+                byte b = buf[pos++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return result;
+            }
+            throw new IllegalArgumentException("잘못된 varint 인코딩");
+        }
+
+        long readZigZag() {
+            long v = readVarLong();
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        /** 현재 위치부터 length 바이트 뒤의 위치 (버퍼를 넘으면 예외) */
+        int limitFromHere(int length) {
+            if (length < 0 || pos + length > buf.length) {
+                throw new IllegalArgumentException("레코드 길이가 버퍼를 넘습니다: " + length);
+            }
+            return pos + length;
+        }
+
+        void seek(int position) {
+            if (position < pos) throw new IllegalArgumentException("레코드 길이보다 많이 읽었습니다.");
+            pos = position;
+        }
+
+        private void require(int n) {
+            if (pos + n > buf.length) throw new IllegalArgumentException("입력이 잘렸습니다 (위치 " + pos + ", 필요 " + n + "B)");
+        }
+
+        String readString() {
+            int len = (int) readVarLong();
+            if (len < 0) throw new IllegalArgumentException("잘못된 문자열 길이: " + len);
+            require(len);
+            String s = new String(buf, pos, len, StandardCharsets.UTF_8);
+            pos += len;
+            return s;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.mycom.myapp.sendapp.delivery.config;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * app.delivery.calendar 의 환경변수 값을 주입받아 제공하는 클래스 (발송 가능 시간 달력)
+ *
+ * - quiet-start-hour / quiet-end-hour: 발송 금지 시간대 [start, end) (자정을 넘는 구간, 기본 21시 ~ 09시)
+ * - holidays   : 발송하지 않는 날짜 (yyyy-MM-dd, 쉼표 구분)
+ * - ramp-minutes: 금지 시간대/휴일에 밀린 건을 개시 시각부터 이 시간 안에 invoiceId 기준으로 흩어 보낸다
+ */
+@Getter
+@RequiredArgsConstructor
+@ConfigurationProperties(prefix = "app.delivery.calendar")
+public class DeliveryCalendarProperties {
+    private final int quietStartHour;
+    private final int quietEndHour;
+    private final List<String> holidays;
+    private final int rampMinutes;
+}
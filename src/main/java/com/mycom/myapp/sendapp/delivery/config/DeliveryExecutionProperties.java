@@ -0,0 +1,34 @@
+package com.mycom.myapp.sendapp.delivery.config;
+
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.mycom.myapp.sendapp.delivery.entity.enums.DeliveryChannelType;
+
+/**
+ * app.delivery.execution 의 환경변수 값을 주입받아 제공하는 클래스 (발송 실행 방식)
+ *
+ * - SHARED: 청크를 applicationTaskExecutor에 올리고 청크 안에서는 순차 발송 (기존 방식)
+ * - PER_CHANNEL: 전용 청크 풀 + 채널별 고정 크기 발송 풀. 청크 안의 건들을 채널 풀에서 동시에 발송한다.
+ */
+@Getter
+@RequiredArgsConstructor
+@ConfigurationProperties(prefix = "app.delivery.execution")
+public class DeliveryExecutionProperties {
+    private final Mode mode;
+    private final int chunkThreads; // PER_CHANNEL 모드의 청크 처리 스레드 수 (consumers x fetch-count / chunk-size 권장)
+    private final int defaultChannelConcurrency; // channel-concurrency에 없는 채널의 동시 발송 수
+    private final Map<DeliveryChannelType, Integer> channelConcurrency; // 채널별 동시 발송 수 (공급자 허용치에 맞춘다)
+
+    public enum Mode {
+        SHARED, PER_CHANNEL
+    }
+
+    public int concurrencyOf(DeliveryChannelType channel) {
+        Integer limit = channelConcurrency == null ? null : channelConcurrency.get(channel);
+        return Math.max(limit != null ? limit : defaultChannelConcurrency, 1);
+    }
+}
@@ -0,0 +1,21 @@
+package com.mycom.myapp.sendapp.delivery.config;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * app.delivery.gateway 의 환경변수 값을 주입받아 제공하는 클래스 (대량 발송 게이트웨이)
+ *
+ * URL이 비어 있는 채널은 게이트웨이를 호출하지 않고 Mock 발송(파일 저장/무작위 실패)으로 동작한다.
+ */
+@Getter
+@RequiredArgsConstructor
+@ConfigurationProperties(prefix = "app.delivery.gateway")
+public class DeliveryGatewayProperties {
+    private final String emailUrl;
+    private final String smsUrl;
+    private final int batchSize; // 게이트웨이 호출 1회당 최대 건수
+    private final long connectTimeoutMillis;
+    private final long requestTimeoutMillis;
+}
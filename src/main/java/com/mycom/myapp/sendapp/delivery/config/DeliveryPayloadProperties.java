@@ -0,0 +1,28 @@
+package com.mycom.myapp.sendapp.delivery.config;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * app.delivery.payload 의 환경변수 값을 주입받아 제공하는 클래스
+ *
+ * - FULL: 연락처(암호문)/이름/금액까지 메시지에 싣는다. (기본값, DB 조회 없음)
+ * - THIN: invoice_id/채널/회차만 싣고, 컨슈머가 읽어온 묶음 단위로 monthly_invoice + users 를 한 번에 조회해 채운다.
+ */
+@Getter
+@RequiredArgsConstructor
+@ConfigurationProperties(prefix = "app.delivery.payload")
+public class DeliveryPayloadProperties {
+    private final Mode mode;
+    private final int hydrationCacheSize; // 컨슈머 측 조회 결과 캐시 최대 건수 (0 이하면 캐시 미사용)
+    private final long hydrationCacheTtlSeconds; // 캐시 유지 시간(초)
+
+    public enum Mode {
+        FULL, THIN
+    }
+
+    public boolean isThin() {
+        return mode == Mode.THIN;
+    }
+}
@@ -0,0 +1,32 @@
+package com.mycom.myapp.sendapp.delivery.config;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * app.delivery.persist 의 환경변수 값을 주입받아 제공하는 클래스 (발송 결과 DB 반영 방식/묶음 크기)
+ *
+ * - history-chunk-size: 다중 행 INSERT 한 문장에 넣는 행 수 (행당 8개 파라미터, MySQL 65,535개 제한 안쪽)
+ * - status-chunk-size : 상태 UPDATE 한 문장의 invoice_id IN (...) 개수
+ * - mode              : SYNC(워커가 DB 커밋 후 ACK) / WRITE_BEHIND(결과 저널 적재 후 ACK, 플러셔가 모아서 커밋)
+ * - flush-*           : WRITE_BEHIND 플러셔가 한 번에 읽는 저널 엔트리 수(엔트리 1개 = 워커 1회분)와 대기 시간
+ */
+@Getter
+@RequiredArgsConstructor
+@ConfigurationProperties(prefix = "app.delivery.persist")
+public class DeliveryPersistProperties {
+    private final int historyChunkSize;
+    private final int statusChunkSize;
+    private final Mode mode;
+    private final int flushEntries;
+    private final long flushBlockMillis;
+
+    public enum Mode {
+        SYNC, WRITE_BEHIND
+    }
+
+    public boolean isWriteBehind() {
+        return mode == Mode.WRITE_BEHIND;
+    }
+}
@@ -0,0 +1,31 @@
+package com.mycom.myapp.sendapp.delivery.config;
+
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.mycom.myapp.sendapp.delivery.entity.enums.DeliveryChannelType;
+
+/**
+ * app.delivery.rate-limit 의 환경변수 값을 주입받아 제공하는 클래스 (채널별 발송 속도 제한)
+ *
+ * - 채널별 토큰 버킷(Redisson RRateLimiter)을 모든 노드가 공유한다. permits-per-second는 공급자 TPS 한도(상한)다.
+ * - AIMD: adjust-interval-millis 마다 실패율이 failure-rate-threshold를 넘으면 속도를 decrease-factor 배로 줄이고,
+ *   아니면 increase-step 만큼씩 상한까지 되돌린다. 실패율은 전체 노드 합계로 보고, 주기마다 한 노드만 조정한다.
+ */
+@Getter
+@RequiredArgsConstructor
+@ConfigurationProperties(prefix = "app.delivery.rate-limit")
+public class DeliveryRateLimitProperties {
+    private final boolean enabled;
+    private final Map<DeliveryChannelType, Integer> permitsPerSecond; // 채널별 상한 (없는 채널은 제한 없음)
+    private final int minPermitsPerSecond; // AIMD로 줄어들 수 있는 하한
+    private final int acquireBatch; // Redis에서 한 번에 받아 로컬에서 나눠 쓰는 토큰 수 (발송 1건당 왕복 방지)
+    private final long adjustIntervalMillis;
+    private final double failureRateThreshold;
+    private final double decreaseFactor;
+    private final int increaseStep;
+    private final int minSamples; // 구간 내 발송 건수가 이보다 적으면 조정하지 않는다
+}
@@ -10,8 +10,36 @@ public class DeliveryRedisKey {
 	public static final String WAITING_STREAM = "billing:delivery:waiting";
 	public static final String FAILED_STREAM = "billing:delivery:failed";
 	
-	// ZSET용 키
+	// 발송 결과 저널 (WRITE_BEHIND 모드: 워커가 적재, DeliveryResultFlusher가 DB로 반영)
+	public static final String RESULT_STREAM = "billing:delivery:results";
+	
+	// 청구월별 발송 진행률 (해시: PROGRESS_PREFIX + yyyymm) / 통계 미적재 청구월 목록 (SET)
+	public static final String PROGRESS_PREFIX = "billing:delivery:progress:";
+	public static final String PROGRESS_MONTHS = "billing:delivery:progress:months";
+	
+	// 지연 큐 (샤드 x 분 단위 버킷). 같은 샤드의 키는 해시 태그 {n}으로 한 슬롯에 모인다.
+	//   버킷 ZSET : billing:delivery:delayed:{n}:<epochMinute>  (score = 만기 epoch ms, member = 페이로드)
+	//   버킷 색인 : billing:delivery:delayed:{n}:buckets         (score/member = epochMinute)
+	public static final String DELAY_PREFIX = "billing:delivery:delayed:";
+	
+	// 지연 큐 이관 속도 제한 (노드 공용 RRateLimiter)
+	public static final String RELEASE_RATE_LIMITER = "billing:delivery:release-rate";
+	
+	// 샤딩 이전 단일 ZSET (배포 전환 시 잔여분만 이관)
 	public static final String DELAY_ZSET = "billing:delivery:delayed";
 	
     public static final String GROUP_NAME = "delivery-group";
+    public static final String RESULT_GROUP_NAME = "delivery-result-group";
+
+    public static String delayBucket(int shard, long epochMinute) {
+        return DELAY_PREFIX + "{" + shard + "}:" + epochMinute;
+    }
+
+    public static String delayBucketIndex(int shard) {
+        return DELAY_PREFIX + "{" + shard + "}:buckets";
+    }
+
+    public static String delayShardLock(int shard) {
+        return DELAY_PREFIX + "{" + shard + "}:lock";
+    }
 }
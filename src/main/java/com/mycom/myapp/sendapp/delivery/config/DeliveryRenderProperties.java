@@ -0,0 +1,17 @@
+package com.mycom.myapp.sendapp.delivery.config;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * app.delivery.render 의 환경변수 값을 주입받아 제공하는 클래스 (청구서 렌더링 버퍼 풀)
+ */
+@Getter
+@RequiredArgsConstructor
+@ConfigurationProperties(prefix = "app.delivery.render")
+public class DeliveryRenderProperties {
+    private final int bufferPoolSize; // 풀에 보관할 버퍼 수 (동시 렌더링 스레드 수 이상 권장)
+    private final int initialBufferBytes; // 버퍼 초기 크기 (청구서 HTML 1통 크기 이상 권장)
+    private final int maxRetainedBufferBytes; // 이 크기를 넘게 자란 버퍼는 풀에 반납하지 않고 버린다
+}
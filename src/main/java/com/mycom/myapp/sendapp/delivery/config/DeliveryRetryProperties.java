@@ -0,0 +1,46 @@
+package com.mycom.myapp.sendapp.delivery.config;
+
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.mycom.myapp.sendapp.delivery.entity.enums.DeliveryChannelType;
+
+/**
+ * app.delivery.retry 의 환경변수 값을 주입받아 제공하는 클래스 (FAILED 건 재발송 / SMS 전환 스캔)
+ *
+ * - page-size         : 한 트랜잭션에서 선점(SELECT ... FOR UPDATE SKIP LOCKED)하고 상태를 바꾸는 최대 건수
+ * - max-pages-per-run : 스케줄 1회에 처리할 최대 페이지 수 (0이면 남은 대상이 없을 때까지)
+ * - backoff           : 채널별 재시도 대기 (RetryBackoffPolicy 입력). 설정이 없는 채널은 1초 뒤 재시도
+ */
+@Getter
+@RequiredArgsConstructor
+@ConfigurationProperties(prefix = "app.delivery.retry")
+public class DeliveryRetryProperties {
+    private final int pageSize;
+    private final int maxPagesPerRun;
+    private final Map<DeliveryChannelType, Backoff> backoff;
+
+    public boolean hasMorePages(int processedPages) {
+        return maxPagesPerRun <= 0 || processedPages < maxPagesPerRun;
+    }
+
+    public Backoff backoffOf(DeliveryChannelType channel) {
+        Backoff configured = (backoff == null || channel == null) ? null : backoff.get(channel);
+        return configured == null ? Backoff.DEFAULT : configured;
+    }
+
+    /**
+     * base-millis: 최소 대기 / cap-millis: 최대 대기
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Backoff {
+        public static final Backoff DEFAULT = new Backoff(1000L, 1000L);
+
+        private final long baseMillis;
+        private final long capMillis;
+    }
+}
@@ -9,7 +9,19 @@ public final class DeliveryStreamKeys {
     public static final String RECIPIENT_NAME = "recipient_name";
     public static final String BILLING_YYYYMM = "billing_yyyymm";
     public static final String TOTAL_AMOUNT = "total_amount";
-    
+
+    // DeliveryPayloadCodec으로 인코딩한 바이너리 페이로드 (엔트리당 필드 1개)
+    public static final String PAYLOAD = "p";
+
+    // RESULT_STREAM 전용: DeliveryPayloadCodec.encodeResults 결과 묶음
+    public static final String RESULTS = "r";
+
+    // FAILED_STREAM(dead-letter) 전용 메타 필드
+    public static final String SOURCE_STREAM = "source_stream";
+    public static final String SOURCE_ID = "source_id";
+    public static final String DEAD_LETTER_REASON = "reason";
+    public static final String DELIVERY_COUNT = "delivery_count";
+    public static final String DEAD_LETTERED_AT = "dead_lettered_at";
 
     private DeliveryStreamKeys() {}
 }
@@ -0,0 +1,34 @@
+package com.mycom.myapp.sendapp.delivery.config;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * app.delivery.transfer 의 환경변수 값을 주입받아 제공하는 클래스 (지연 큐 -> 발송 대기 스트림 이관)
+ *
+ * - shards    : 지연 큐 샤드 수. 샤드마다 해시 태그({n})가 달라 Redis Cluster에서 슬롯/노드가 나뉜다.
+ *               운영 중 변경하면 기존 샤드의 잔여 멤버가 이관되지 않으므로, 늘릴 때는 잔량이 빈 뒤에 바꾼다.
+ * - batch-size: 버킷 1회 이관 최대 건수
+ * - lock-millis: 한 번에 샤드 하나를 이관하는 시간 상한. 남은 건은 다음 회차로 넘긴다
+ *               (잠금 자체는 watchdog으로 이관하는 동안 유지되어 노드 간 같은 샤드 중복 이관을 막는다)
+ * - release-per-second: 지연 큐 -> 스트림 이관 속도 상한 (모든 노드 합산, 0이면 제한 없음).
+ *               09:00 개시처럼 만기 건이 몰려도 이 속도로만 풀어 공급자/Redis/MySQL 부하를 평탄하게 한다.
+ */
+@Getter
+@RequiredArgsConstructor
+@ConfigurationProperties(prefix = "app.delivery.transfer")
+public class DeliveryTransferProperties {
+    private final int batchSize;
+    private final int shards;
+    private final long lockMillis;
+    private final int releasePerSecond;
+
+    public boolean isReleaseLimited() {
+        return releasePerSecond > 0;
+    }
+
+    public int shardOf(Long invoiceId) {
+        return Math.floorMod(Long.hashCode(invoiceId == null ? 0L : invoiceId), Math.max(shards, 1));
+    }
+}
@@ -0,0 +1,25 @@
+package com.mycom.myapp.sendapp.delivery.config;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * app.delivery.worker 의 환경변수 값을 주입받아 제공하는 클래스
+ *
+ * - consumers: 노드(JVM)당 띄울 스트림 컨슈머 스레드 수. 파드를 늘리면 그룹 내 컨슈머 수가 선형으로 늘어난다.
+ * - reclaim*: 죽은 컨슈머의 Pending 엔트리를 회수(XPENDING + XCLAIM)하는 주기/기준.
+ */
+@Getter
+@RequiredArgsConstructor
+@ConfigurationProperties(prefix = "app.delivery.worker")
+public class DeliveryWorkerProperties {
+    private final int consumers; // 노드당 컨슈머 스레드 수
+    private final int fetchCount; // XREADGROUP 1회 최대 읽기 건수
+    private final int chunkSize; // 병렬 처리 단위(건)
+    private final long blockMillis; // XREADGROUP BLOCK 대기 시간(ms)
+    private final long errorBackoffMillis; // 읽기/처리 오류 발생 시 재시도 전 대기 시간(ms)
+    private final long reclaimMinIdleMillis; // 이 시간 이상 ACK되지 않은 Pending 엔트리를 회수 대상으로 본다(ms)
+    private final int reclaimCount; // 1회 회수 시 조회할 최대 Pending 엔트리 수
+    private final int maxDeliveryCount; // 발송 대기 스트림에서 이 횟수 이상 전달된 엔트리는 FAILED_STREAM으로 격리(dead-letter), 결과 저널에는 적용하지 않음
+}
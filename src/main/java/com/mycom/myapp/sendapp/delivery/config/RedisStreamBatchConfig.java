@@ -8,8 +8,10 @@ import org.springframework.boot.ApplicationRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 
 @Slf4j
@@ -41,6 +43,20 @@ public class RedisStreamBatchConfig {
                     log.warn(">>> 소비자 그룹 초기화 중 알 수 없는 상태: {}", message);
                 }
             }
+
+            // 결과 저널: 더미 엔트리 없이 MKSTREAM으로 생성 (XLEN = 미반영 잔량으로 쓰기 위해)
+            try {
+                redisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands().xGroupCreate(
+                        RESULT_STREAM.getBytes(StandardCharsets.UTF_8), RESULT_GROUP_NAME, ReadOffset.from("0-0"), true));
+                log.info(">>> [{}] 소비자 그룹이 생성되었습니다. (Target: {})", RESULT_GROUP_NAME, RESULT_STREAM);
+            } catch (Exception e) {
+                String message = e.getMessage();
+                if (message != null && message.contains("BUSYGROUP")) {
+                    log.info(">>> 결과 저널 소비자 그룹이 이미 존재합니다.");
+                } else {
+                    log.warn(">>> 결과 저널 소비자 그룹 초기화 중 알 수 없는 상태: {}", message);
+                }
+            }
         };
     }
 }
\ No newline at end of file
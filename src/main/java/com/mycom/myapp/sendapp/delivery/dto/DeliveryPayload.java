@@ -1,66 +1,208 @@
 package com.mycom.myapp.sendapp.delivery.dto;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Map;
 
+import com.mycom.myapp.sendapp.batch.dto.MonthlyInvoiceRowDto;
+import com.mycom.myapp.sendapp.delivery.entity.DeliveryUser;
+
 import lombok.Builder;
 import lombok.Getter;
 
+/**
+ * 발송 대기열(지연 큐/스트림)에 실리는 청구서 발송 정보.
+ *
+ * - 원시 값(금액은 원 단위 long, 연월은 yyyyMM int, 납부기한은 LocalDate)으로 보관하고
+ *   템플릿/SMS에서 쓰는 표시용 문자열은 getter에서 필요할 때 만든다.
+ * - 직렬화는 DeliveryPayloadCodec(바이너리)이 담당한다.
+ */
 @Getter
-@Builder
+@Builder(toBuilder = true)
 public class DeliveryPayload {
     private final Long invoiceId;
     private final String channel;
     private final String recipientName;
     private final String encEmail; // 암호화된 상태
     private final String endphone;
-    private final String billingYyyymm;
-    private final String totalAmount; // 총 청구금액
+    private final int retryCount; // 적재 시점의 재시도 횟수 (attemptNo = retryCount + 1)
     private final LocalDateTime requestedAt;
-    private final int attemptNo;
-    
-    /** 요금제 합계 */
-    private final String totalPlanAmount;
 
-    /** 부가서비스 합계 */
-    private final String totalAddonAmount;
+    /** 청구 연월 (yyyyMM, 0 = 미상) */
+    private final int targetYyyymm;
+
+    /** 총 청구금액 (원) */
+    private final long totalAmountWon;
+
+    /** 요금제 합계 (원) */
+    private final long planAmountWon;
+
+    /** 부가서비스 합계 (원) */
+    private final long addonAmountWon;
+
+    /** 기타(단건 결제 등) 합계 (원) */
+    private final long etcAmountWon;
+
+    /** 전체 할인 금액 (원) */
+    private final long discountAmountWon;
+
+    /** 납부 기한 */
+    private final LocalDate paymentDueDate;
+
+    /** THIN 모드 참조 메시지 (invoiceId/채널/회차만 유효, 나머지는 컨슈머가 DB에서 채운다) */
+    private final boolean referenceOnly;
+
+    /** 청크 단위로 미리 읽어 둔 청구서 상세 (직렬화 대상 아님, null이면 렌더러가 단건 조회) */
+    private final InvoiceServiceDetails serviceDetails;
 
-    /** 기타(단건 결제 등) 합계 */
-    private final String totalEtcAmount;
+    /** 청크 단위로 일괄 마스킹해 둔 연락처 (직렬화 대상 아님, null이면 렌더러가 건별 마스킹) */
+    private final String maskedEmail;
+    private final String maskedPhone;
 
-    /** 전체 할인 금액 */
-    private final String totalDiscountAmount;
+    public int getAttemptNo() {
+        return retryCount + 1;
+    }
+
+    // ===== 표시용 (bill_template / SMS) =====
 
-    /** 납부 기한 (표시용 포맷된 문자열) */
-    private final String dueDate;
-    
+    /** 예: "2026년 01월" */
+    public String getBillingYyyymm() {
+        if (targetYyyymm <= 0) return "";
+        String s = String.valueOf(targetYyyymm);
+        return s.length() == 6 ? s.substring(0, 4) + "년 " + s.substring(4, 6) + "월" : s;
+    }
 
-    // Map -> DTO
+    public String getTotalAmount() { return formatMoney(totalAmountWon); }
+    public String getTotalPlanAmount() { return formatMoney(planAmountWon); }
+    public String getTotalAddonAmount() { return formatMoney(addonAmountWon); }
+    public String getTotalEtcAmount() { return formatMoney(etcAmountWon); }
+    public String getTotalDiscountAmount() { return formatMoney(discountAmountWon); }
+
+    /** 예: "2026-02-10" (없으면 "-") */
+    public String getDueDate() {
+        return paymentDueDate == null ? "-" : paymentDueDate.toString();
+    }
+
+    /** 천 단위 콤마 (DecimalFormat("#,###")와 동일한 결과, 인스턴스 생성 없음) */
+    static String formatMoney(long amount) {
+        String digits = Long.toString(Math.abs(amount));
+        int len = digits.length();
+        StringBuilder sb = new StringBuilder(len + len / 3 + 1);
+        if (amount < 0) sb.append('-');
+
+        int head = len % 3 == 0 ? 3 : len % 3;
+        sb.append(digits, 0, head);
+        for (int i = head; i < len; i += 3) {
+            sb.append(',').append(digits, i, i + 3);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 참조 메시지의 발송 정보(채널/회차/요청시각)를 DB에서 조회한 본문에 입힌다.
+     */
+    public DeliveryPayload withDispatchOf(DeliveryPayload reference) {
+        return toBuilder()
+                .channel(reference.getChannel())
+                .retryCount(reference.getRetryCount())
+                .requestedAt(reference.getRequestedAt())
+                .referenceOnly(false)
+                .build();
+    }
+
+    public DeliveryPayload withServiceDetails(InvoiceServiceDetails details) {
+        return toBuilder().serviceDetails(details).build();
+    }
+
+    public DeliveryPayload withMaskedContacts(String maskedEmail, String maskedPhone) {
+        return toBuilder().maskedEmail(maskedEmail).maskedPhone(maskedPhone).build();
+    }
+
+    /**
+     * 정산 결과 + 회원 -> 최초 발송 페이로드
+     */
+    public static DeliveryPayload of(MonthlyInvoiceRowDto item, DeliveryUser user, String channel, LocalDateTime requestedAt) {
+        return DeliveryPayload.builder()
+                .invoiceId(item.getInvoiceId())
+                .channel(channel)
+                .retryCount(0)
+                .encEmail(user.getEmail())
+                .endphone(user.getPhone())
+                .recipientName(user.getName())
+                .targetYyyymm(item.getBillingYyyymm() == null ? 0 : item.getBillingYyyymm())
+                .requestedAt(requestedAt)
+                .totalAmountWon(nullToZero(item.getTotalAmount()))
+                .planAmountWon(nullToZero(item.getTotalPlanAmount()))
+                .addonAmountWon(nullToZero(item.getTotalAddonAmount()))
+                .etcAmountWon(nullToZero(item.getTotalEtcAmount()))
+                .discountAmountWon(nullToZero(item.getTotalDiscountAmount()))
+                .paymentDueDate(item.getDueDate())
+                .build();
+    }
+
+    /**
+     * 재발송/예약/복구 대상 -> 페이로드
+     */
+    public static DeliveryPayload of(DeliveryRetryDto dto, String channel, int retryCount, LocalDateTime requestedAt) {
+        return DeliveryPayload.builder()
+                .invoiceId(dto.getInvoiceId())
+                .channel(channel)
+                .recipientName(dto.getRecipientName())
+                .encEmail(dto.getEmail())
+                .endphone(dto.getPhone())
+                .retryCount(retryCount)
+                .requestedAt(requestedAt)
+                .targetYyyymm(parseIntOrZero(dto.getBillingYyyymm()))
+                .totalAmountWon(nullToZero(dto.getTotalAmount()))
+                .paymentDueDate(dto.getDueDate() == null ? null : dto.getDueDate().toLocalDate())
+                .build();
+    }
+
+    /**
+     * [하위 호환] 바이너리 코덱 도입 이전의 JSON/필드 맵 형식 -> DTO.
+     * 배포 전환 시점에 큐에 남아 있던 엔트리만 이 경로를 탄다.
+     */
     public static DeliveryPayload from(Map<String, String> map) {
         try {
+            String dueDate = map.get("dueDate");
             return DeliveryPayload.builder()
                     .invoiceId(map.get("invoice_id") != null ? Long.valueOf(map.get("invoice_id").trim()) : 0L)
                     .channel(map.get("delivery_channel"))
                     .recipientName(map.get("recipient_name"))
                     .encEmail(map.get("email"))
                     .endphone(map.get("phone"))
-                    .billingYyyymm(map.get("billing_yyyymm"))
-                    .totalAmount(map.get("total_amount"))
+                    .targetYyyymm(parseIntOrZero(map.get("billing_yyyymm")))
+                    .totalAmountWon(parseMoney(map.get("total_amount")))
                     // 날짜 파싱 실패 방지를 위한 방어 로직
-                    .requestedAt(map.get("requested_at") != null ? 
+                    .requestedAt(map.get("requested_at") != null ?
                                  LocalDateTime.parse(map.get("requested_at").trim()) : LocalDateTime.now())
-                    .attemptNo(Integer.parseInt(map.getOrDefault("retry_count", "0").trim()) + 1)
-                    
-                    // 상세 요금 필드 (Redis 키값과 DTO 필드명이 일치하므로 get 사용)
-                    .totalPlanAmount(map.getOrDefault("totalPlanAmount", "0"))
-                    .totalAddonAmount(map.getOrDefault("totalAddonAmount", "0"))
-                    .totalEtcAmount(map.getOrDefault("totalEtcAmount", "0"))
-                    .totalDiscountAmount(map.getOrDefault("totalDiscountAmount", "0"))
-                    .dueDate(map.getOrDefault("dueDate", "-"))
+                    .retryCount(Integer.parseInt(map.getOrDefault("retry_count", "0").trim()))
+                    .planAmountWon(parseMoney(map.get("totalPlanAmount")))
+                    .addonAmountWon(parseMoney(map.get("totalAddonAmount")))
+                    .etcAmountWon(parseMoney(map.get("totalEtcAmount")))
+                    .discountAmountWon(parseMoney(map.get("totalDiscountAmount")))
+                    .paymentDueDate(dueDate == null || dueDate.isBlank() || "-".equals(dueDate) ? null : LocalDate.parse(dueDate.trim()))
                     .build();
         } catch (Exception e) {
             // 여기서 로그를 찍으면 정확히 어떤 데이터의 어떤 필드에서 터졌는지 알 수 있습니다.
             throw new IllegalArgumentException("DTO 변환 실패 - 데이터: " + map + ", 에러: " + e.getMessage());
         }
     }
+
+    private static long nullToZero(Long amount) {
+        return amount == null ? 0L : amount;
+    }
+
+    // "1,234" / "1234" -> 1234
+    private static long parseMoney(String value) {
+        if (value == null || value.isBlank()) return 0L;
+        return Long.parseLong(value.replace(",", "").trim());
+    }
+
+    // "202601" / "2026년 01월" -> 202601
+    private static int parseIntOrZero(String value) {
+        if (value == null) return 0;
+        String digits = value.replaceAll("[^0-9]", "");
+        return digits.isEmpty() ? 0 : Integer.parseInt(digits);
+    }
 }
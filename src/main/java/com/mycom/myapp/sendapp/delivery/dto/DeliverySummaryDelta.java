@@ -0,0 +1,15 @@
+package com.mycom.myapp.sendapp.delivery.dto;
+
+/**
+ * delivery_summary 한 행(청구월 x 채널)에 더할 증가분.
+ * 이력 INSERT IGNORE로 "실제로 들어간" 행만 센다 (재반영/중복 결과는 0).
+ * terminalCount는 그중 최종 결과(더 이상 재발송/전환 없음) 행 수로, 통계가 아니라 진행률(DeliveryProgressTracker)에 쓴다.
+ */
+public record DeliverySummaryDelta(int billingYyyymm, String deliveryChannel,
+                                   int attemptCount, int successCount, int failCount, int terminalCount) {
+
+    public DeliverySummaryDelta plus(int attempts, int success, int fail, int terminal) {
+        return new DeliverySummaryDelta(billingYyyymm, deliveryChannel,
+                attemptCount + attempts, successCount + success, failCount + fail, terminalCount + terminal);
+    }
+}
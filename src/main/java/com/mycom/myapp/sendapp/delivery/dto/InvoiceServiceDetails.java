@@ -0,0 +1,46 @@
+package com.mycom.myapp.sendapp.delivery.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * 청구서 상세(monthly_invoice_detail)의 서비스명 목록을 템플릿 구역별로 묶은 값.
+ * 비어 있는 구역은 null (bill_template이 th:if로 구역 자체를 숨긴다).
+ */
+@Getter
+public class InvoiceServiceDetails {
+
+    public static final int CATEGORY_PLAN = 1;       // 요금제
+    public static final int CATEGORY_ADDON = 2;      // 부가서비스
+    public static final int CATEGORY_ETC_PLAN = 3;   // 기타 요금제
+    public static final int CATEGORY_MICRO = 4;      // 단건 결제
+
+    public static final InvoiceServiceDetails EMPTY = new InvoiceServiceDetails(null, null, null);
+
+    private final List<String> planServices;
+    private final List<String> addonServices;
+    private final List<String> etcServices;
+
+    private InvoiceServiceDetails(List<String> planServices, List<String> addonServices, List<String> etcServices) {
+        this.planServices = planServices;
+        this.addonServices = addonServices;
+        this.etcServices = etcServices;
+    }
+
+    /**
+     * 카테고리별 목록 -> 템플릿 구역 (요금제 구역 = 요금제 + 기타 요금제)
+     */
+    public static InvoiceServiceDetails of(List<String> plan, List<String> etcPlan, List<String> addon, List<String> micro) {
+        List<String> planServices = new ArrayList<>();
+        if (plan != null) planServices.addAll(plan);
+        if (etcPlan != null) planServices.addAll(etcPlan);
+
+        return new InvoiceServiceDetails(
+                planServices.isEmpty() ? null : planServices,
+                (addon == null || addon.isEmpty()) ? null : addon,
+                (micro == null || micro.isEmpty()) ? null : micro
+        );
+    }
+}
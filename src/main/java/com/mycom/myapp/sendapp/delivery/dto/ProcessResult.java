@@ -13,6 +13,7 @@ public class ProcessResult {
     private final String channel;
     private final String status;
     private final LocalDateTime requestedAt;
+    private final int billingYyyymm; // 대상 청구월 (이력 적재/진행률 집계 기준)
 
     // Status Table 전용
     private final LocalDateTime dueAt; // 예약 시간
@@ -22,10 +23,31 @@ public class ProcessResult {
     private final String receiverInfo; 
     private final String errorMessage; // 1% 실패 사유 기록용
     private final boolean skipped;
+
+    // 다른 컨슈머가 발송 중이라 이번에는 처리하지 않은 건 (DB 반영/ACK 제외 -> 재수거 후 다시 판단)
+    private final boolean deferred;
     
     public static ProcessResult skipped(Long id, String ch, LocalDateTime reqAt) {
         return ProcessResult.builder()
                 .invoiceId(id).channel(ch).status("SENT")
                 .requestedAt(reqAt).skipped(true).build();
     }
+
+    /**
+     * 발송 시도 결과 (발송 경로에서 건마다 만들므로 빌더 없이 바로 생성)
+     */
+    public static ProcessResult attempted(Long id, String ch, int attemptNo, String status, String errorMessage,
+                                          LocalDateTime reqAt, String receiverInfo, int billingYyyymm) {
+        return new ProcessResult(id, ch, status, reqAt, billingYyyymm, null, attemptNo, receiverInfo, errorMessage, false, false);
+    }
+
+    public static ProcessResult failed(Long id, int billingYyyymm) {
+        return new ProcessResult(id, null, "FAILED", null, billingYyyymm, null, 0, null, null, false, false);
+    }
+
+    public static ProcessResult deferred(Long id, String ch, LocalDateTime reqAt) {
+        return ProcessResult.builder()
+                .invoiceId(id).channel(ch)
+                .requestedAt(reqAt).skipped(true).deferred(true).build();
+    }
 }
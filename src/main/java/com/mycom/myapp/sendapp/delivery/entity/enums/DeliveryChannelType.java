@@ -1,16 +1,27 @@
 package com.mycom.myapp.sendapp.delivery.entity.enums;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 public enum DeliveryChannelType {
     EMAIL,
     SMS,
     PUSH;
 
+    // 발송 경로에서 건마다 호출되므로 예외/대문자 변환 없이 찾는다 (대소문자가 다를 때만 변환)
+    private static final Map<String, DeliveryChannelType> BY_NAME = new HashMap<>();
+    static {
+        for (DeliveryChannelType type : values()) BY_NAME.put(type.name(), type);
+    }
+
     public static DeliveryChannelType from(String value) {
-        if (value == null || value.trim().isEmpty()) return null;
-        try {
-            return DeliveryChannelType.valueOf(value.toUpperCase());
-        } catch (IllegalArgumentException e) {
-            return null; 
-        }
+        if (value == null) return null;
+        DeliveryChannelType type = BY_NAME.get(value);
+        if (type != null) return type;
+
+        String normalized = value.trim();
+        if (normalized.isEmpty()) return null;
+        return BY_NAME.get(normalized.toUpperCase(Locale.ROOT));
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ public enum DeliveryStatusType {
     READY,      // 준비
     PROCESSING, // 처리중
     SCHEDULED,  // 예약 발송 대상
+    CLAIMED,    // 예약 건 재적재 선점 중 (claim_token 보유 노드가 적재 후 READY로)
     SENT,       // 발송 완료 (최종 성공)
     FAILED;     // 발송 실패 (최종 실패)
 
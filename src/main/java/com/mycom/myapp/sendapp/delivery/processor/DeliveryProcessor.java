@@ -1,81 +1,261 @@
 package com.mycom.myapp.sendapp.delivery.processor;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.springframework.stereotype.Component;
 
 import com.mycom.myapp.sendapp.delivery.dto.DeliveryPayload;
 import com.mycom.myapp.sendapp.delivery.dto.ProcessResult;
 import com.mycom.myapp.sendapp.delivery.dto.SendResponse;
+import com.mycom.myapp.sendapp.delivery.entity.enums.DeliveryChannelType;
+import com.mycom.myapp.sendapp.delivery.sender.BatchDeliverySender;
+import com.mycom.myapp.sendapp.delivery.sender.ChannelRateLimiter;
 import com.mycom.myapp.sendapp.delivery.sender.DeliverySender;
 import com.mycom.myapp.sendapp.delivery.worker.util.IdempotencyGuard;
+import com.mycom.myapp.sendapp.delivery.worker.util.IdempotencyGuard.Lease;
+import com.mycom.myapp.sendapp.delivery.worker.util.IdempotencyGuard.Reservation;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * 청크 단위 발송 처리 (멱등성 선점 -> 채널별 발송 -> 확정/해제).
+ *
+ * 채널 -> 발송기 매핑은 기동 시 DeliveryChannelType별 불변 EnumMap으로 한 번 만들어 두고,
+ * 페이로드의 채널 문자열은 건당 한 번만 enum으로 바꾼다. (채널이 늘어도 건당 비용은 그대로)
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class DeliveryProcessor {
     
-	private final List<DeliverySender> senders;
-    private final IdempotencyGuard idempotencyGuard; // Redis SETNX 가드 (별도 구현)
-   
+	private final Map<DeliveryChannelType, DeliverySender> dispatchTable;
+    private final IdempotencyGuard idempotencyGuard; // Redis SET NX 선점 가드 (청크 단위 파이프라인)
+    private final DeliverySendExecutor sendExecutor; // 청크 안 발송 실행 (순차 / 채널별 동시)
+    private final ChannelRateLimiter rateLimiter; // 채널별 공용 토큰 버킷 + AIMD
+
+    public DeliveryProcessor(
+            List<DeliverySender> senders,
+            IdempotencyGuard idempotencyGuard,
+            DeliverySendExecutor sendExecutor,
+            ChannelRateLimiter rateLimiter
+    ) {
+        this.dispatchTable = buildDispatchTable(senders);
+        this.idempotencyGuard = idempotencyGuard;
+        this.sendExecutor = sendExecutor;
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * 채널마다 supports()가 true인 첫 발송기를 등록한다 (빈 등록 순서 = 기존 stream().findFirst() 순서).
+     */
+    private static Map<DeliveryChannelType, DeliverySender> buildDispatchTable(List<DeliverySender> senders) {
+        Map<DeliveryChannelType, DeliverySender> table = new EnumMap<>(DeliveryChannelType.class);
+        for (DeliveryChannelType channel : DeliveryChannelType.values()) {
+            for (DeliverySender sender : senders) {
+                if (sender.supports(channel.name())) {
+                    table.put(channel, sender);
+                    break;
+                }
+            }
+            if (!table.containsKey(channel)) log.warn("발송기가 없는 채널: {}", channel);
+        }
+        return Collections.unmodifiableMap(table);
+    }
     
-    public ProcessResult execute(Map<String, String> dataMap) {
-    	if (dataMap == null || !dataMap.containsKey("invoice_id")) {
-            log.error("유효하지 않은 페이로드 감지: {}", dataMap);
-            return null; 
+    public ProcessResult execute(DeliveryPayload payload) {
+        List<ProcessResult> results = executeAll(List.of(payload));
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    /**
+     * 청크 단위 발송: 선점(파이프라인 1회) -> 발송(DeliverySendExecutor) -> 성공 확정/실패 해제(각 1회).
+     * 발송(묶음) 직전마다 선점을 확인/연장하고, 그 사이 선점을 잃은 건은 보내지 않고 미룬다.
+     * 유효하지 않은 페이로드는 결과에서 빠진다.
+     */
+    public List<ProcessResult> executeAll(List<DeliveryPayload> payloads) {
+        List<DeliveryPayload> valid = new ArrayList<>(payloads.size());
+        List<Long> invoiceIds = new ArrayList<>(payloads.size());
+        for (DeliveryPayload payload : payloads) {
+            if (payload == null || payload.getInvoiceId() == null) {
+                log.error("유효하지 않은 페이로드 감지");
+                continue;
+            }
+            valid.add(payload);
+            invoiceIds.add(payload.getInvoiceId());
         }
-    	
-    	// DTO로 변환
-    	DeliveryPayload payload = DeliveryPayload.from(dataMap);
-        Long invoiceId = payload.getInvoiceId();
-        String channel = payload.getChannel();
-        LocalDateTime requestedAt = payload.getRequestedAt();
-        
-        // 중복 발송 방지
-        if (idempotencyGuard.isAlreadySent(invoiceId)) {
-        	log.info("이미 발송된 건 - InvoiceId: {}", invoiceId); 
-            return ProcessResult.skipped(invoiceId, channel, requestedAt);
+        if (valid.isEmpty()) return new ArrayList<>();
+
+        // 중복 발송 방지: 조회 + 선점을 한 번에
+        Lease lease = idempotencyGuard.reserveAll(invoiceIds);
+
+        ProcessResult[] results = new ProcessResult[valid.size()];
+        List<DeliveryPayload> toSend = new ArrayList<>(valid.size());
+        List<Integer> sendSlots = new ArrayList<>(valid.size());
+        Set<Long> handled = new HashSet<>();
+        for (int i = 0; i < valid.size(); i++) {
+            DeliveryPayload payload = valid.get(i);
+            Long invoiceId = payload.getInvoiceId();
+            Reservation reservation = lease.get(invoiceId);
+
+            if (reservation == Reservation.ALREADY_SENT) {
+                log.info("이미 발송된 건 - InvoiceId: {}", invoiceId);
+                results[i] = ProcessResult.skipped(invoiceId, payload.getChannel(), payload.getRequestedAt());
+            } else if (reservation != Reservation.RESERVED || !handled.add(invoiceId)) {
+                // 다른 컨슈머가 발송 중이거나, 같은 청크에 같은 청구서가 두 번 실린 경우
+                log.info("발송 중인 건 - InvoiceId: {} (재수거 후 재판단)", invoiceId);
+                results[i] = ProcessResult.deferred(invoiceId, payload.getChannel(), payload.getRequestedAt());
+            } else {
+                toSend.add(payload);
+                sendSlots.add(i);
+            }
         }
+
+        Set<Long> sentIds = new HashSet<>();
+        try {
+            List<ProcessResult> sent = sendGrouped(toSend, lease);
+            for (int i = 0; i < sent.size(); i++) {
+                ProcessResult result = sent.get(i);
+                results[sendSlots.get(i)] = result;
+                if ("SENT".equals(result.getStatus())) sentIds.add(result.getInvoiceId());
+            }
+        } finally {
+            // 발송 성공시 멱등성 저장, 실패 건은 선점을 풀어 재시도 경로가 다시 잡을 수 있게 한다
+            idempotencyGuard.markAllSent(sentIds);
+            handled.removeAll(sentIds);
+            handled.removeAll(lease.lost()); // 선점을 잃은 건은 다른 컨슈머의 선점이다 (해제도 소유자 확인 후에만 지운다)
+            idempotencyGuard.releaseAll(lease, handled);
+        }
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    /** 발송 대상 1건 (채널 enum/발송기는 여기서 한 번만 정한다) */
+    private record Dispatch(DeliveryPayload payload, DeliveryChannelType channel, DeliverySender sender) {}
+
+    /**
+     * 묶음 발송을 지원하는 채널(BatchDeliverySender)은 채널별로 모아 maxBatchSize 단위로 보내고,
+     * 나머지는 건별로 보낸다. 결과는 입력 순서와 같다.
+     */
+    private List<ProcessResult> sendGrouped(List<DeliveryPayload> payloads, Lease lease) {
+        ProcessResult[] results = new ProcessResult[payloads.size()];
+        Map<DeliveryChannelType, List<Integer>> batchSlots = new EnumMap<>(DeliveryChannelType.class);
+        List<Integer> singleSlots = new ArrayList<>();
+        Dispatch[] dispatches = new Dispatch[payloads.size()];
+        for (int i = 0; i < payloads.size(); i++) {
+            DeliveryPayload payload = payloads.get(i);
+            DeliveryChannelType channel = DeliveryChannelType.from(payload.getChannel());
+            DeliverySender sender = channel == null ? null : dispatchTable.get(channel);
+            dispatches[i] = new Dispatch(payload, channel, sender);
+
+            if (sender instanceof BatchDeliverySender batchSender && batchSender.batchAvailable()) {
+                batchSlots.computeIfAbsent(channel, c -> new ArrayList<>()).add(i);
+            } else {
+                singleSlots.add(i);
+            }
+        }
+
+        for (Map.Entry<DeliveryChannelType, List<Integer>> group : batchSlots.entrySet()) {
+            DeliveryChannelType channel = group.getKey();
+            BatchDeliverySender sender = (BatchDeliverySender) dispatchTable.get(channel);
+            List<Integer> slots = group.getValue();
+            int batchSize = Math.max(sender.maxBatchSize(), 1);
+            for (int from = 0; from < slots.size(); from += batchSize) {
+                List<Integer> sliceSlots = slots.subList(from, Math.min(from + batchSize, slots.size()));
+                List<DeliveryPayload> slice = new ArrayList<>(sliceSlots.size());
+                for (int slot : sliceSlots) slice.add(payloads.get(slot));
+
+                List<ProcessResult> sliceResults = sendBatch(channel, sender, slice, lease);
+                for (int k = 0; k < sliceSlots.size(); k++) results[sliceSlots.get(k)] = sliceResults.get(k);
+            }
+        }
+
+        if (!singleSlots.isEmpty()) {
+            List<Dispatch> singles = new ArrayList<>(singleSlots.size());
+            for (int slot : singleSlots) singles.add(dispatches[slot]);
+            List<ProcessResult> singleResults = sendExecutor.sendAll(singles, Dispatch::channel, dispatch -> send(dispatch, lease));
+            for (int k = 0; k < singleSlots.size(); k++) results[singleSlots.get(k)] = singleResults.get(k);
+        }
+        return Arrays.asList(results);
+    }
+
+    private List<ProcessResult> sendBatch(DeliveryChannelType channel, BatchDeliverySender sender, List<DeliveryPayload> slice, Lease lease) {
+        ProcessResult[] results = new ProcessResult[slice.size()];
+        List<DeliveryPayload> live = new ArrayList<>(slice.size());
+        List<Integer> liveSlots = new ArrayList<>(slice.size());
+        List<SendResponse> responses;
+        try {
+            rateLimiter.acquire(channel, slice.size());
+
+            // 속도 제한 대기 뒤에 선점을 확인한다 (잃은 건은 빼고 보낸다)
+            for (int i = 0; i < slice.size(); i++) {
+                DeliveryPayload payload = slice.get(i);
+                if (lease.hold(payload.getInvoiceId())) {
+                    live.add(payload);
+                    liveSlots.add(i);
+                } else {
+                    results[i] = lostReservation(payload);
+                }
+            }
+            if (live.isEmpty()) return Arrays.asList(results);
+
+            responses = sender.sendBatch(live);
+            if (responses == null || responses.size() != live.size()) {
+                throw new IllegalStateException("묶음 발송 결과 건수 불일치: " + (responses == null ? 0 : responses.size()) + "/" + live.size());
+            }
+        } catch (Exception e) {
+            log.error("Processor Batch Error [Channel: {}, Size: {}]: {}", channel, slice.size(), e.getMessage());
+            // 확인 도중 실패했으면 아직 분류되지 않은 건까지 모두 실패로 본다
+            live.clear();
+            liveSlots.clear();
+            for (int i = 0; i < slice.size(); i++) {
+                if (results[i] != null) continue;
+                live.add(slice.get(i));
+                liveSlots.add(i);
+            }
+            responses = new ArrayList<>(Collections.nCopies(live.size(), SendResponse.fail("BATCH_SEND_ERROR")));
+        }
+
+        for (int i = 0; i < live.size(); i++) {
+            rateLimiter.record(channel, responses.get(i));
+            results[liveSlots.get(i)] = toResult(live.get(i), channel, responses.get(i));
+        }
+        return Arrays.asList(results);
+    }
+
+    private ProcessResult send(Dispatch dispatch, Lease lease) {
+        DeliveryPayload payload = dispatch.payload();
+        Long invoiceId = payload.getInvoiceId();
         
         // 발송 채널에 따라 분기 
         try {
-        	DeliverySender targetSender = senders.stream()
-                    .filter(s -> s.supports(channel))
-                    .findFirst()
-                    .orElseThrow(() -> new IllegalArgumentException("지원하지 않는 채널: " + channel));
-        	
+        	if (dispatch.sender() == null) throw new IllegalArgumentException("지원하지 않는 채널: " + payload.getChannel());
             
-        	SendResponse response = targetSender.send(payload);
+        	rateLimiter.acquire(dispatch.channel(), 1);
+        	if (!lease.hold(invoiceId)) return lostReservation(payload);
+        	SendResponse response = dispatch.sender().send(payload);
+        	rateLimiter.record(dispatch.channel(), response);
             
-        	// 발송 성공시 멱등성 저장
-        	if ("SENT".equals(response.getStatus())) {
-                idempotencyGuard.markAsSent(invoiceId);
-            }
-            
-            String finalReceiver = "EMAIL".equals(channel) ? payload.getEncEmail() : payload.getEndphone();
-            
-            return ProcessResult.builder()
-                    .invoiceId(invoiceId)
-                    .channel(channel)
-                    .attemptNo(payload.getAttemptNo())
-                    .status(response.getStatus())
-                    .errorMessage(response.getErrorMessage())
-                    .requestedAt(requestedAt)
-                    .receiverInfo(finalReceiver)
-                    .skipped(false)
-                    .build();
+            return toResult(payload, dispatch.channel(), response);
 
         } catch (Exception e) {
             log.error("Processor Error [Invoice: {}]: {}", invoiceId, e.getMessage());
-            return ProcessResult.builder()
-                    .invoiceId(invoiceId)
-                    .status("FAILED")
-                    .build();
+            return ProcessResult.failed(invoiceId, payload.getTargetYyyymm());
         }
     }
+
+    private ProcessResult lostReservation(DeliveryPayload payload) {
+        log.warn("발송 대기 중 선점을 잃은 건 - InvoiceId: {} (재수거 후 재판단)", payload.getInvoiceId());
+        return ProcessResult.deferred(payload.getInvoiceId(), payload.getChannel(), payload.getRequestedAt());
+    }
+
+    private ProcessResult toResult(DeliveryPayload payload, DeliveryChannelType channel, SendResponse response) {
+        String finalReceiver = channel == DeliveryChannelType.EMAIL ? payload.getEncEmail() : payload.getEndphone();
+        return ProcessResult.attempted(payload.getInvoiceId(), payload.getChannel(), payload.getAttemptNo(),
+                response.getStatus(), response.getErrorMessage(), payload.getRequestedAt(), finalReceiver, payload.getTargetYyyymm());
+    }
 }
@@ -0,0 +1,139 @@
+package com.mycom.myapp.sendapp.delivery.processor;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.mycom.myapp.sendapp.delivery.config.DeliveryExecutionProperties;
+import com.mycom.myapp.sendapp.delivery.config.DeliveryExecutionProperties.Mode;
+import com.mycom.myapp.sendapp.delivery.entity.enums.DeliveryChannelType;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 발송 실행기 (app.delivery.execution.mode).
+ *
+ * - chunkExecutor(): DeliveryBatchWorker가 청크를 올리는 실행기. SHARED 외 모드에서는 @Async 등과 풀을 나눠 쓰지 않는다.
+ * - sendAll(): 청크 안의 발송. SHARED는 호출 스레드에서 순차, 그 외에는 채널별 동시 실행 수 안에서 동시에 보낸다.
+ *   공급자 응답이 느려도 (풀 크기 / 지연)으로 처리량이 묶이지 않고, 채널별 상한이 공급자 보호 역할을 한다.
+ */
+@Slf4j
+@Component
+public class DeliverySendExecutor {
+
+    private final Mode mode;
+    private final Executor chunkExecutor;
+    private final ExecutorService dedicatedChunkPool;           // SHARED가 아닐 때만
+    private final Map<DeliveryChannelType, ExecutorService> channelPools = new EnumMap<>(DeliveryChannelType.class); // PER_CHANNEL일 때만
+    private final AtomicInteger activeChunks = new AtomicInteger();
+
+    public DeliverySendExecutor(
+            @Qualifier("applicationTaskExecutor") Executor sharedExecutor,
+            DeliveryExecutionProperties properties
+    ) {
+        this.mode = properties.getMode() == null ? Mode.SHARED : properties.getMode();
+
+        switch (mode) {
+            case SHARED -> {
+                this.dedicatedChunkPool = null;
+                this.chunkExecutor = sharedExecutor;
+            }
+            default -> {
+                this.dedicatedChunkPool = Executors.newFixedThreadPool(
+                        Math.max(properties.getChunkThreads(), 1), named("delivery-chunk-"));
+                this.chunkExecutor = tracked(dedicatedChunkPool);
+                for (DeliveryChannelType channel : DeliveryChannelType.values()) {
+                    channelPools.put(channel, Executors.newFixedThreadPool(
+                            properties.concurrencyOf(channel), named("delivery-" + channel.name().toLowerCase() + "-")));
+                }
+            }
+        }
+        log.info(">>> 발송 실행 모드: {}", mode);
+    }
+
+    public Executor chunkExecutor() {
+        return chunkExecutor;
+    }
+
+    /**
+     * 전용 실행기에서 처리 중인 청크 수 (SHARED 모드는 applicationTaskExecutor 쪽에서 집계되므로 0)
+     */
+    public int activeChunks() {
+        return activeChunks.get();
+    }
+
+    /**
+     * 청크 안의 건들을 발송한다. 결과는 입력 순서와 같다.
+     * @param channelOf 건의 채널 (호출부에서 이미 enum으로 바꿔 둔 값, null이면 호출 스레드에서 처리)
+     */
+    public <T, R> List<R> sendAll(List<T> payloads, Function<T, DeliveryChannelType> channelOf, Function<T, R> send) {
+        List<R> results = new ArrayList<>(payloads.size());
+        if (mode == Mode.SHARED || payloads.size() <= 1) {
+            for (T payload : payloads) results.add(send.apply(payload));
+            return results;
+        }
+
+        List<CompletableFuture<R>> futures = new ArrayList<>(payloads.size());
+        for (T payload : payloads) {
+            DeliveryChannelType channel = channelOf.apply(payload);
+            if (channel == null) {
+                // 알 수 없는 채널은 호출 스레드에서 처리 (sender 선택 단계에서 실패 처리된다)
+                futures.add(CompletableFuture.completedFuture(send.apply(payload)));
+            } else {
+                futures.add(CompletableFuture.supplyAsync(() -> send.apply(payload), channelPools.get(channel)));
+            }
+        }
+        for (CompletableFuture<R> future : futures) results.add(future.join());
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        List<ExecutorService> services = new ArrayList<>(channelPools.values());
+        if (dedicatedChunkPool != null) services.add(0, dedicatedChunkPool);
+
+        // 청크 풀 먼저 닫고 (진행 중인 청크는 끝까지), 발송 풀은 그 뒤에 닫는다
+        for (ExecutorService service : services) {
+            service.shutdown();
+            try {
+                if (!service.awaitTermination(30, TimeUnit.SECONDS)) service.shutdownNow();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                service.shutdownNow();
+            }
+        }
+    }
+
+    private Executor tracked(Executor delegate) {
+        return command -> delegate.execute(() -> {
+            activeChunks.incrementAndGet();
+            try {
+                command.run();
+            } finally {
+                activeChunks.decrementAndGet();
+            }
+        });
+    }
+
+    private static ThreadFactory named(String prefix) {
+        AtomicInteger seq = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + seq.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
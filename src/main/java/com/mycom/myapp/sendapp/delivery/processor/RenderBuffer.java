@@ -0,0 +1,75 @@
+package com.mycom.myapp.sendapp.delivery.processor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 렌더링 결과를 UTF-8 바이트로 바로 쌓는 재사용 버퍼.
+ *
+ * - Thymeleaf가 writer()에 쓰면 내부 인코더를 거쳐 byte[]에 누적된다 (중간 String 없음).
+ * - RenderBufferPool에서 빌려 쓰고 reset() 후 반납하므로 byte[]/인코더 버퍼가 메일마다 새로 생기지 않는다.
+ * - 스레드 간 공유하지 않는다 (한 번에 한 렌더링만 사용).
+ */
+final class RenderBuffer extends OutputStream {
+
+    private byte[] buf;
+    private int count;
+    private final Writer writer;
+
+    RenderBuffer(int initialCapacity) {
+        this.buf = new byte[initialCapacity];
+        this.writer = new OutputStreamWriter(this, StandardCharsets.UTF_8);
+    }
+
+    Writer writer() {
+        return writer;
+    }
+
+    /** writer에 남아 있는 문자를 바이트로 밀어낸다. 결과를 읽기 전에 반드시 호출. */
+    void complete() throws IOException {
+        writer.flush();
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        out.write(buf, 0, count);
+    }
+
+    String toUtf8String() {
+        return new String(buf, 0, count, StandardCharsets.UTF_8);
+    }
+
+    int size() {
+        return count;
+    }
+
+    int capacity() {
+        return buf.length;
+    }
+
+    void reset() {
+        count = 0;
+    }
+
+    @Override
+    public void write(int b) {
+        ensure(1);
+        buf[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensure(len);
+        System.arraycopy(b, off, buf, count, len);
+        count += len;
+    }
+
+    private void ensure(int n) {
+        if (count + n > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + n));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.mycom.myapp.sendapp.delivery.processor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * RenderBuffer 고정 크기 풀.
+ *
+ * - 발송 스레드 수만큼만 버퍼가 살아 있으면 되므로 ThreadLocal 대신 공용 큐를 쓴다
+ *   (applicationTaskExecutor 스레드가 늘었다 줄어도 버퍼가 스레드에 묶여 남지 않음).
+ * - 풀이 비면 새로 만들고, 가득 차 있거나 비정상적으로 커진 버퍼는 반납하지 않고 버린다.
+ */
+final class RenderBufferPool {
+
+    private final BlockingQueue<RenderBuffer> pool;
+    private final int initialBytes;
+    private final int maxRetainedBytes;
+
+    RenderBufferPool(int poolSize, int initialBytes, int maxRetainedBytes) {
+        this.pool = new ArrayBlockingQueue<>(Math.max(poolSize, 1));
+        this.initialBytes = initialBytes;
+        this.maxRetainedBytes = maxRetainedBytes;
+    }
+
+    RenderBuffer borrow() {
+        RenderBuffer buffer = pool.poll();
+        return buffer != null ? buffer : new RenderBuffer(initialBytes);
+    }
+
+    void release(RenderBuffer buffer) {
+        if (buffer.capacity() > maxRetainedBytes) return;
+        buffer.reset();
+        pool.offer(buffer);
+    }
+}
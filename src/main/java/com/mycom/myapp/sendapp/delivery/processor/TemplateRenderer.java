@@ -1,86 +1,261 @@
 package com.mycom.myapp.sendapp.delivery.processor;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
+import com.mycom.myapp.sendapp.delivery.config.DeliveryRenderProperties;
 import com.mycom.myapp.sendapp.delivery.dto.DeliveryPayload;
+import com.mycom.myapp.sendapp.delivery.dto.InvoiceServiceDetails;
 import com.mycom.myapp.sendapp.delivery.repository.InvoiceDetailRepository;
 import com.mycom.myapp.sendapp.global.crypto.ContactProtector;
 import com.mycom.myapp.sendapp.global.crypto.EncryptedString;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * 청구서(bill_template) 렌더러.
+ *
+ * - 파싱된 템플릿은 Thymeleaf 템플릿 캐시(spring.thymeleaf.cache=true)에 유지되고, 기동 직후 한 번 렌더링해 미리 올려 둔다.
+ * - 렌더링 결과는 풀링된 RenderBuffer(UTF-8 byte[])에 바로 기록하고 renderTo(OutputStream)로 내보낸다.
+ *   메일마다 HTML 전체 String / StringWriter를 새로 만들지 않는다.
+ * - 렌더링 건수/소요 시간을 누적해 코어당 처리량을 확인할 수 있다 (getRenderStats).
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class TemplateRenderer {
 
+    private static final String BILL_TEMPLATE = "bill_template";
+    private static final String EMAIL_UNAVAILABLE = "(이메일 확인 불가)";
+    private static final String PHONE_UNAVAILABLE = "(번호 확인 불가)";
+
     private final TemplateEngine templateEngine; // Thymeleaf 엔진
     private final ContactProtector protector;
     private final InvoiceDetailRepository detailRepo;
-    
+    private final RenderBufferPool bufferPool;
+
+    private final LongAdder renderCount = new LongAdder();
+    private final LongAdder renderNanos = new LongAdder();
+    private final LongAdder renderBytes = new LongAdder();
+
+    public TemplateRenderer(
+            TemplateEngine templateEngine,
+            ContactProtector protector,
+            InvoiceDetailRepository detailRepo,
+            DeliveryRenderProperties renderProperties
+    ) {
+        this.templateEngine = templateEngine;
+        this.protector = protector;
+        this.detailRepo = detailRepo;
+        this.bufferPool = new RenderBufferPool(
+                renderProperties.getBufferPoolSize(),
+                renderProperties.getInitialBufferBytes(),
+                renderProperties.getMaxRetainedBufferBytes());
+    }
+
+    /**
+     * 기동 직후 템플릿을 한 번 처리해 파싱 결과를 캐시에 올려 둔다 (첫 청크의 파싱 지연 제거).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            DeliveryPayload sample = DeliveryPayload.builder()
+                    .invoiceId(0L)
+                    .channel("EMAIL")
+                    .serviceDetails(InvoiceServiceDetails.EMPTY)
+                    .build();
+            templateEngine.process(BILL_TEMPLATE, buildContext(sample, "-", "-", "-"), Writer.nullWriter());
+        } catch (Exception e) {
+            log.warn("청구서 템플릿 예열 실패: {}", e.toString());
+        }
+    }
+
+    /**
+     * 청구서 HTML을 UTF-8 바이트로 out에 기록한다. (발송 게이트웨이 요청 본문/파일 등)
+     */
+    public void renderTo(DeliveryPayload payload, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        RenderBuffer buffer = bufferPool.borrow();
+        boolean completed = false;
+        try {
+            templateEngine.process(BILL_TEMPLATE, buildContext(payload), buffer.writer());
+            buffer.complete();
+            completed = true;
+            buffer.writeTo(out);
+            renderBytes.add(buffer.size());
+        } finally {
+            // 렌더링 도중 실패한 버퍼는 인코더에 잔여 바이트가 남을 수 있으므로 풀에 돌려놓지 않는다.
+            if (completed) bufferPool.release(buffer);
+            renderCount.increment();
+            renderNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * String이 꼭 필요한 호출부용 (발송 경로에서는 renderTo 사용)
+     */
     public String render(DeliveryPayload payload) {
- 	
-        Context context = new Context();
+        long start = System.nanoTime();
+        RenderBuffer buffer = bufferPool.borrow();
+        boolean completed = false;
+        try {
+            templateEngine.process(BILL_TEMPLATE, buildContext(payload), buffer.writer());
+            buffer.complete();
+            completed = true;
+            renderBytes.add(buffer.size());
+            return buffer.toUtf8String();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (completed) bufferPool.release(buffer);
+            renderCount.increment();
+            renderNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 누적 렌더링 통계 (건수, 총 소요 ns, 총 출력 바이트)
+     */
+    public RenderStats getRenderStats() {
+        return new RenderStats(renderCount.sum(), renderNanos.sum(), renderBytes.sum());
+    }
+
+    public record RenderStats(long count, long totalNanos, long totalBytes) {
+        public double averageMicros() {
+            return count == 0 ? 0 : totalNanos / 1_000.0 / count;
+        }
+    }
+
+    private Context buildContext(DeliveryPayload payload) {
         
         String encEmail = payload.getEncEmail();   // 암호문
         String encPhone = payload.getEndphone();   // 암호문
         String maskedEmail;
         String maskedPhone;
         String maskedName = protector.maskedName(payload.getRecipientName());
+
+        if (payload.getMaskedEmail() != null && payload.getMaskedPhone() != null) {
+            // prefetch()에서 청크 단위로 일괄 마스킹된 값
+            return buildContext(payload, maskedName, payload.getMaskedEmail(), payload.getMaskedPhone());
+        }
         
         try {
             maskedEmail = protector.maskedEmail(EncryptedString.of(encEmail));
             maskedPhone = protector.maskedPhone(EncryptedString.of(encPhone));
         } catch (Exception e) {
             log.error("PII 보호 처리 실패 - invoiceId={}, err={}", payload.getInvoiceId(), e.toString());
-            maskedEmail = "(이메일 확인 불가)";
-            maskedPhone = "(번호 확인 불가)";
+            maskedEmail = EMAIL_UNAVAILABLE;
+            maskedPhone = PHONE_UNAVAILABLE;
         }
         
+        return buildContext(payload, maskedName, maskedEmail, maskedPhone);
+    }
+
+    private Context buildContext(DeliveryPayload payload, String maskedName, String maskedEmail, String maskedPhone) {
+        Context context = new Context();
         context.setVariable("resultDto", payload);
         context.setVariable("maskedEmail", maskedEmail);
         context.setVariable("maskedPhone", maskedPhone);
         context.setVariable("maskedName", maskedName);
         
-        Long invoiceId = payload.getInvoiceId();
+        InvoiceServiceDetails details = payload.getServiceDetails() != null
+                ? payload.getServiceDetails()
+                : detailRepo.findServiceDetails(payload.getInvoiceId()); // 프리패치 누락 시 단건 조회
 
-        List<String> c1 = detailRepo.findDetails(invoiceId, 1); // 요금제
-        List<String> c3 = detailRepo.findDetails(invoiceId, 3); // 기타 요금제
-        List<String> c2 = detailRepo.findDetails(invoiceId, 2); // 부가서비스
-        List<String> c4 = detailRepo.findDetails(invoiceId, 4); // 단건 결제
+        context.setVariable("planServices",  details.getPlanServices());
+        context.setVariable("addonServices", details.getAddonServices());
+        context.setVariable("etcServices",   details.getEtcServices());
+        
+        return context;
+    }
 
-        List<String> plan = new ArrayList<>();
-        if (c1 != null) plan.addAll(c1);
-        if (c3 != null) plan.addAll(c3);
+    /**
+     * 청크 단위 프리패치 (EMAIL 건만):
+     * - 청구서 상세를 한 번의 쿼리로 읽어 페이로드에 붙인다.
+     * - 이메일/전화 마스킹을 ContactProtector 일괄 API로 한 번에 처리해 붙인다.
+     * 이후 건별 renderTo()는 DB I/O와 복호화 없이 템플릿만 처리한다.
+     */
+    public List<DeliveryPayload> prefetch(List<DeliveryPayload> payloads) {
+        Set<Long> invoiceIds = new LinkedHashSet<>();
+        List<DeliveryPayload> targets = new ArrayList<>();
+        for (DeliveryPayload payload : payloads) {
+            if (!"EMAIL".equalsIgnoreCase(payload.getChannel())) continue;
+            targets.add(payload);
+            if (payload.getServiceDetails() == null) invoiceIds.add(payload.getInvoiceId());
+        }
+        if (targets.isEmpty()) return payloads;
 
-        context.setVariable("planServices",  plan.isEmpty() ? null : plan);
-        context.setVariable("addonServices", (c2 == null || c2.isEmpty()) ? null : c2);
-        context.setVariable("etcServices",   (c4 == null || c4.isEmpty()) ? null : c4);
-        
-//        log.info("[AMOUNT] invoiceId={} totalAddonAmount={} totalEtcAmount={} totalAmount={}",
-//                payload.getInvoiceId(),
-//                payload.getTotalAddonAmount(),
-//                payload.getTotalEtcAmount(),
-//                payload.getTotalAmount());
+        Map<Long, InvoiceServiceDetails> detailsMap = detailRepo.findServiceDetailsByInvoiceIds(invoiceIds);
+        Map<DeliveryPayload, String[]> masked = maskContacts(targets);
 
-        
-        return templateEngine.process("bill_template", context);
+        List<DeliveryPayload> prefetched = new ArrayList<>(payloads.size());
+        for (DeliveryPayload payload : payloads) {
+            String[] contacts = masked.get(payload);
+            if (contacts == null) {
+                prefetched.add(payload);
+                continue;
+            }
+            InvoiceServiceDetails details = payload.getServiceDetails() == null ? detailsMap.get(payload.getInvoiceId()) : null;
+            DeliveryPayload prepared = details == null ? payload : payload.withServiceDetails(details);
+            prefetched.add(prepared.withMaskedContacts(contacts[0], contacts[1]));
+        }
+        return prefetched;
+    }
+
+    /**
+     * 일괄 마스킹: 형식이 잘못된 암호문은 건별 경로와 같이 "확인 불가"로 표시한다.
+     * @return payload(동일 인스턴스) -> [maskedEmail, maskedPhone]
+     */
+    private Map<DeliveryPayload, String[]> maskContacts(List<DeliveryPayload> targets) {
+        List<EncryptedString> emails = new ArrayList<>(targets.size());
+        List<EncryptedString> phones = new ArrayList<>(targets.size());
+        for (DeliveryPayload payload : targets) {
+            emails.add(parseOrNull(payload.getEncEmail()));
+            phones.add(parseOrNull(payload.getEndphone()));
+        }
+
+        List<String> maskedEmails = protector.maskedEmails(emails, EMAIL_UNAVAILABLE);
+        List<String> maskedPhones = protector.maskedPhones(phones, PHONE_UNAVAILABLE);
+
+        Map<DeliveryPayload, String[]> masked = new IdentityHashMap<>(targets.size() * 2);
+        for (int i = 0; i < targets.size(); i++) {
+            String email = emails.get(i) == null ? EMAIL_UNAVAILABLE : maskedEmails.get(i);
+            String phone = phones.get(i) == null ? PHONE_UNAVAILABLE : maskedPhones.get(i);
+            masked.put(targets.get(i), new String[] { email == null ? "" : email, phone == null ? "" : phone });
+        }
+        return masked;
+    }
+
+    private static EncryptedString parseOrNull(String packed) {
+        try {
+            return EncryptedString.of(packed);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 
-    // 생성된 이메일 HTML을 파일로 저장
-    public String saveToFile(Long invoiceId, String maskedName, String htmlContent) {
+    // 이메일 HTML을 렌더링하면서 바로 파일로 저장
+    public String saveToFile(Long invoiceId, String maskedName, DeliveryPayload payload) {
         try {
             // 규칙: invoiceId_마스킹이름_UUID.html
             String fileName = String.format("%s_%s_%s.html", 
@@ -90,7 +265,9 @@ public class TemplateRenderer {
             Files.createDirectories(Paths.get(directoryPath));
             
             String filePath = directoryPath + fileName;
-            Files.writeString(Paths.get(filePath), htmlContent);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(filePath)))) {
+                renderTo(payload, out);
+            }
             
             return fileName;
         } catch (Exception e) {
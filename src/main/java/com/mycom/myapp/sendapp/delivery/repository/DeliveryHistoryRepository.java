@@ -1,22 +1,26 @@
 package com.mycom.myapp.sendapp.delivery.repository;
 
+import com.mycom.myapp.sendapp.delivery.dto.DeliverySummaryDelta;
 import com.mycom.myapp.sendapp.delivery.dto.ProcessResult;
 import com.mycom.myapp.sendapp.delivery.entity.DeliveryHistory;
 import com.mycom.myapp.sendapp.delivery.entity.enums.DeliveryChannelType;
 import com.mycom.myapp.sendapp.delivery.entity.enums.DeliveryResultType;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 import org.springframework.jdbc.core.RowMapper;
 
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
 @Repository
 @RequiredArgsConstructor
@@ -26,35 +30,69 @@ public class DeliveryHistoryRepository {
     private static final DeliveryHistoryRowMapper ROW_MAPPER = new DeliveryHistoryRowMapper();
 
    
-    // bulk insert를 위한 sql
-    public void saveHistoryBatch(List<ProcessResult> results, LocalDateTime now, int billingYyyymm) {
-        if (results == null || results.isEmpty()) return;
+    private static final String INSERT_HISTORY_PREFIX = """
+            INSERT IGNORE INTO delivery_history 
+            (invoice_id, billing_yyyymm, attempt_no, delivery_channel, status, receiver_info, requested_at, sent_at) 
+            VALUES """;
+    private static final String HISTORY_ROW = "(?, ?, ?, ?, ?, ?, ?, ?)";
 
-        String sql = """
-                INSERT IGNORE INTO delivery_history 
-                (invoice_id, billing_yyyymm, attempt_no, delivery_channel, status, receiver_info, requested_at, sent_at) 
-                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
-            """;
+    /**
+     * 다중 행 INSERT IGNORE: (청구월, 채널, 결과)가 같은 행끼리 chunkSize 행씩 한 문장으로 보낸다 (1000건 기준 2~3문장).
+     * 문장마다 결과 종류가 하나이므로 affected rows가 곧 "새로 기록된 시도 수"가 되어 통계 증가분으로 쓸 수 있다.
+     * 최종 결과 여부(terminal)도 묶음 기준에 넣어, 재반영/재수거로 같은 결과가 다시 와도 진행률이 두 번 늘지 않게 한다.
+     * @return 청구월 x 채널별 통계 증가분 (중복으로 무시된 행은 포함하지 않음)
+     */
+    public List<DeliverySummaryDelta> saveHistoryBatch(List<ProcessResult> results, LocalDateTime now, int chunkSize,
+                                                       Predicate<ProcessResult> terminal) {
+        if (results == null || results.isEmpty()) return List.of();
 
-        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
-            @Override
-            public void setValues(PreparedStatement ps, int i) throws SQLException {
-                ProcessResult r = results.get(i);
-                Timestamp timestamp = Timestamp.valueOf(now);
-                
-                ps.setLong(1, r.getInvoiceId());
-                ps.setInt(2, billingYyyymm);
-                ps.setInt(3, r.getAttemptNo());
-                ps.setString(4, r.getChannel());
-                ps.setString(5, r.getStatus());
-                ps.setString(6, r.getReceiverInfo());
-                ps.setTimestamp(7, Timestamp.valueOf(r.getRequestedAt()));
-                ps.setTimestamp(8, timestamp); // 발송 완료 시간 (모킹 완료 시점)
+        Map<List<Object>, List<ProcessResult>> groups = new LinkedHashMap<>();
+        for (ProcessResult r : results) {
+            groups.computeIfAbsent(Arrays.asList(r.getBillingYyyymm(), r.getChannel(), r.getStatus(), terminal.test(r)),
+                    k -> new ArrayList<>()).add(r);
+        }
+
+        int size = Math.max(chunkSize, 1);
+        Timestamp sentAt = Timestamp.valueOf(now); // 발송 완료 시간 (모킹 완료 시점)
+        Map<List<Object>, DeliverySummaryDelta> deltas = new LinkedHashMap<>();
+        for (Map.Entry<List<Object>, List<ProcessResult>> entry : groups.entrySet()) {
+            List<ProcessResult> group = entry.getValue();
+            int inserted = 0;
+            for (int from = 0; from < group.size(); from += size) {
+                inserted += insertChunk(group.subList(from, Math.min(from + size, group.size())), sentAt);
             }
 
-            @Override
-            public int getBatchSize() {
-                return results.size();
+            ProcessResult head = group.get(0);
+            if (inserted == 0 || head.getChannel() == null) continue;
+            int success = "SENT".equals(head.getStatus()) ? inserted : 0;
+            int fail = "FAILED".equals(head.getStatus()) ? inserted : 0;
+            int terminalRows = Boolean.TRUE.equals(entry.getKey().get(3)) ? inserted : 0;
+            deltas.merge(Arrays.asList(head.getBillingYyyymm(), head.getChannel()),
+                    new DeliverySummaryDelta(head.getBillingYyyymm(), head.getChannel(), inserted, success, fail, terminalRows),
+                    (a, b) -> a.plus(b.attemptCount(), b.successCount(), b.failCount(), b.terminalCount()));
+        }
+        return new ArrayList<>(deltas.values());
+    }
+
+    private int insertChunk(List<ProcessResult> chunk, Timestamp sentAt) {
+        StringBuilder sql = new StringBuilder(INSERT_HISTORY_PREFIX.length() + chunk.size() * (HISTORY_ROW.length() + 1));
+        sql.append(INSERT_HISTORY_PREFIX);
+        for (int i = 0; i < chunk.size(); i++) {
+            if (i > 0) sql.append(',');
+            sql.append(HISTORY_ROW);
+        }
+
+        return jdbcTemplate.update(sql.toString(), ps -> {
+            int idx = 1;
+            for (ProcessResult r : chunk) {
+                ps.setLong(idx++, r.getInvoiceId());
+                ps.setInt(idx++, r.getBillingYyyymm());
+                ps.setInt(idx++, r.getAttemptNo());
+                ps.setString(idx++, r.getChannel());
+                ps.setString(idx++, r.getStatus());
+                ps.setString(idx++, r.getReceiverInfo());
+                ps.setTimestamp(idx++, r.getRequestedAt() == null ? sentAt : Timestamp.valueOf(r.getRequestedAt())); // 요청 시각 미상이면 반영 시각
+                ps.setTimestamp(idx++, sentAt);
             }
         });
     }
@@ -0,0 +1,74 @@
+package com.mycom.myapp.sendapp.delivery.repository;
+
+import com.mycom.myapp.sendapp.batch.dto.MonthlyInvoiceRowDto;
+import com.mycom.myapp.sendapp.delivery.dto.DeliveryPayload;
+import com.mycom.myapp.sendapp.delivery.entity.DeliveryUser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * THIN 모드 참조 메시지 복원용 조회 (monthly_invoice + users)
+ */
+@Repository
+@RequiredArgsConstructor
+public class DeliveryPayloadRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * invoice_id 묶음을 한 번의 IN 조회로 가져와 발송 본문(채널/회차 제외)을 만든다.
+     * @return invoiceId -> 본문 (조회되지 않은 ID는 포함되지 않음)
+     */
+    public Map<Long, DeliveryPayload> findContentsByInvoiceIds(Collection<Long> invoiceIds) {
+        if (invoiceIds == null || invoiceIds.isEmpty()) return Collections.emptyMap();
+
+        String inSql = String.join(",", Collections.nCopies(invoiceIds.size(), "?"));
+
+        String sql = String.format("""
+            SELECT
+                mi.invoice_id, mi.users_id, mi.billing_yyyymm,
+                mi.total_plan_amount, mi.total_addon_amount, mi.total_etc_amount,
+                mi.total_discount_amount, mi.total_amount, mi.due_date,
+                u.name, u.email, u.phone
+            FROM monthly_invoice mi
+            INNER JOIN users u ON mi.users_id = u.users_id
+            WHERE mi.invoice_id IN (%s)
+        """, inSql);
+
+        Map<Long, DeliveryPayload> contents = new HashMap<>(invoiceIds.size() * 2);
+        jdbcTemplate.query(sql, rs -> {
+            Date dueDate = rs.getDate("due_date");
+
+            MonthlyInvoiceRowDto invoice = MonthlyInvoiceRowDto.builder()
+                    .invoiceId(rs.getLong("invoice_id"))
+                    .usersId(rs.getLong("users_id"))
+                    .billingYyyymm(rs.getInt("billing_yyyymm"))
+                    .totalPlanAmount(rs.getLong("total_plan_amount"))
+                    .totalAddonAmount(rs.getLong("total_addon_amount"))
+                    .totalEtcAmount(rs.getLong("total_etc_amount"))
+                    .totalDiscountAmount(rs.getLong("total_discount_amount"))
+                    .totalAmount(rs.getLong("total_amount"))
+                    .dueDate(dueDate == null ? null : dueDate.toLocalDate())
+                    .build();
+
+            DeliveryUser user = DeliveryUser.builder()
+                    .usersId(invoice.getUsersId())
+                    .name(rs.getString("name"))
+                    .email(rs.getString("email"))
+                    .phone(rs.getString("phone"))
+                    .build();
+
+            // 채널/회차/요청시각은 참조 메시지 쪽 값을 withDispatchOf()로 입힌다.
+            contents.put(invoice.getInvoiceId(), DeliveryPayload.of(invoice, user, null, null));
+        }, invoiceIds.toArray());
+
+        return contents;
+    }
+}
@@ -1,13 +1,15 @@
 package com.mycom.myapp.sendapp.delivery.repository;
 
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
-import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
@@ -31,28 +33,42 @@ public class DeliveryStatusRepository {
     // 1️⃣ [Loader용] 데이터 적재 (중복 무시)
     // ==========================================
 
-    public void saveAllIgnore(List<DeliveryStatus> statusList) {
-        String sql = "INSERT IGNORE INTO delivery_status " +
-                     "(invoice_id, status, delivery_channel, retry_count, last_attempt_at, created_at, scheduled_at) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_STATUS_PREFIX = "INSERT IGNORE INTO delivery_status " +
+            "(invoice_id, status, delivery_channel, retry_count, last_attempt_at, created_at, scheduled_at) VALUES ";
+    private static final String STATUS_ROW = "(?, ?, ?, ?, ?, ?, ?)";
+    private static final int INSERT_STATUS_CHUNK = 1000; // 행당 7개 파라미터
 
-        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
-            @Override
-            public void setValues(PreparedStatement ps, int i) throws SQLException {
-                DeliveryStatus status = statusList.get(i);
-                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
-                
-                ps.setLong(1, status.getInvoiceId());
-                ps.setString(2, status.getStatus() != null ? status.getStatus().name() : DeliveryStatusType.READY.name());
-                ps.setString(3, status.getDeliveryChannel().name());
-                ps.setInt(4, 0); 
-                ps.setTimestamp(5, now); 
-                ps.setTimestamp(6, now);
-                ps.setTimestamp(7, status.getScheduledAt() != null ? Timestamp.valueOf(status.getScheduledAt()) : null);
+    /**
+     * 다중 행 INSERT IGNORE.
+     * @return 실제로 새로 들어간 행 수 (이미 있던 청구서 제외 -> 진행률 total 기준)
+     */
+    public int saveAllIgnore(List<DeliveryStatus> statusList) {
+        int inserted = 0;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int from = 0; from < statusList.size(); from += INSERT_STATUS_CHUNK) {
+            List<DeliveryStatus> chunk = statusList.subList(from, Math.min(from + INSERT_STATUS_CHUNK, statusList.size()));
+
+            StringBuilder sql = new StringBuilder(INSERT_STATUS_PREFIX.length() + chunk.size() * (STATUS_ROW.length() + 1));
+            sql.append(INSERT_STATUS_PREFIX);
+            for (int i = 0; i < chunk.size(); i++) {
+                if (i > 0) sql.append(',');
+                sql.append(STATUS_ROW);
             }
-            @Override
-            public int getBatchSize() { return statusList.size(); }
-        });
+
+            inserted += jdbcTemplate.update(sql.toString(), ps -> {
+                int idx = 1;
+                for (DeliveryStatus status : chunk) {
+                    ps.setLong(idx++, status.getInvoiceId());
+                    ps.setString(idx++, status.getStatus() != null ? status.getStatus().name() : DeliveryStatusType.READY.name());
+                    ps.setString(idx++, status.getDeliveryChannel().name());
+                    ps.setInt(idx++, 0);
+                    ps.setTimestamp(idx++, now);
+                    ps.setTimestamp(idx++, now);
+                    ps.setTimestamp(idx++, status.getScheduledAt() != null ? Timestamp.valueOf(status.getScheduledAt()) : null);
+                }
+            });
+        }
+        return inserted;
     }
 
     // ==========================================
@@ -74,45 +90,46 @@ public class DeliveryStatusRepository {
         jdbcTemplate.update(sql, newStatus.name(), invoiceId);
     }
 
-    public void updateStatusBatch(List<ProcessResult> results, LocalDateTime chunkNow) {
+    /**
+     * 결과 상태(SENT/FAILED)별로 묶어 invoice_id IN (...) UPDATE 한 문장씩 보낸다.
+     * 1000건이면 상태 2종 x (1000 / chunkSize) 문장 (UK_delivery_status_invoice 사용).
+     */
+    public void updateStatusBatch(List<ProcessResult> results, LocalDateTime chunkNow, int chunkSize) {
         if (results == null || results.isEmpty()) return;
-        String sql = "UPDATE delivery_status SET status = ?, last_attempt_at = ? WHERE invoice_id = ?";
 
-        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
-            @Override
-            public void setValues(PreparedStatement ps, int i) throws SQLException {
-                ProcessResult r = results.get(i);
-                ps.setString(1, r.getStatus()); 
-                ps.setTimestamp(2, Timestamp.valueOf(chunkNow));
-                ps.setLong(3, r.getInvoiceId());
+        Map<String, List<Long>> idsByStatus = new LinkedHashMap<>();
+        for (ProcessResult r : results) {
+            idsByStatus.computeIfAbsent(r.getStatus(), k -> new ArrayList<>()).add(r.getInvoiceId());
+        }
+
+        int size = Math.max(chunkSize, 1);
+        Timestamp lastAttemptAt = Timestamp.valueOf(chunkNow);
+        for (Map.Entry<String, List<Long>> entry : idsByStatus.entrySet()) {
+            List<Long> ids = entry.getValue();
+            for (int from = 0; from < ids.size(); from += size) {
+                List<Long> chunk = ids.subList(from, Math.min(from + size, ids.size()));
+                String inSql = String.join(",", Collections.nCopies(chunk.size(), "?"));
+                String sql = "UPDATE delivery_status SET status = ?, last_attempt_at = ? WHERE invoice_id IN (" + inSql + ")";
+
+                jdbcTemplate.update(sql, ps -> {
+                    int idx = 1;
+                    ps.setString(idx++, entry.getKey());
+                    ps.setTimestamp(idx++, lastAttemptAt);
+                    for (Long id : chunk) ps.setLong(idx++, id);
+                });
             }
-            @Override
-            public int getBatchSize() { return results.size(); }
-        });
+        }
     }
 
     // ==========================================
     // 3️⃣ [Scheduler/Night Ban/Sync용] 조회 및 예약 로직
     // ==========================================
 
-    public void postponeDelivery(List<Long> invoiceIds, LocalDateTime newScheduledAt) {
-        if (invoiceIds == null || invoiceIds.isEmpty()) return;
-        String sql = "UPDATE delivery_status SET status = 'SCHEDULED', scheduled_at = ?, last_attempt_at = NOW() WHERE invoice_id = ?";
-        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
-            @Override
-            public void setValues(PreparedStatement ps, int i) throws SQLException {
-                ps.setTimestamp(1, Timestamp.valueOf(newScheduledAt));
-                ps.setLong(2, invoiceIds.get(i));
-            }
-            @Override
-            public int getBatchSize() { return invoiceIds.size(); }
-        });
-    }
-
     /**
-     * [재발송용] FAILED 상태 건 조회
+     * [재발송용] FAILED 상태 건 페이지 조회 (invoice_id 키셋, 트랜잭션 안에서 호출해 선점)
+     * INDX_delivery_status_status_retry_channel로 FAILED 구간만 읽고, 다른 노드가 잠근 행은 건너뛴다.
      */
-    public List<DeliveryRetryDto> findRetryTargets(int maxRetry) {
+    public List<DeliveryRetryDto> findRetryTargetsPage(int maxRetry, long afterInvoiceId, int limit) {
         String sql = """
             SELECT ds.invoice_id, ds.delivery_channel, ds.retry_count,
                    mi.billing_yyyymm, mi.total_amount, mi.due_date,
@@ -120,7 +137,10 @@ public class DeliveryStatusRepository {
             FROM delivery_status ds
             INNER JOIN monthly_invoice mi ON ds.invoice_id = mi.invoice_id
             INNER JOIN users u ON mi.users_id = u.users_id
-            WHERE ds.status = 'FAILED' AND ds.retry_count < ?
+            WHERE ds.status = 'FAILED' AND ds.retry_count < ? AND ds.invoice_id > ?
+            ORDER BY ds.invoice_id
+            LIMIT ?
+            FOR UPDATE OF ds SKIP LOCKED
         """;
         return jdbcTemplate.query(sql, (rs, rowNum) -> DeliveryRetryDto.builder()
                 .invoiceId(rs.getLong("invoice_id"))
@@ -134,25 +154,34 @@ public class DeliveryStatusRepository {
                 .receiverInfo(rs.getString("email_info"))
                 .dueDate(getLocalDateTime(rs, "due_date")) // 매핑 추가
                 .build()
-        , maxRetry);
+        , maxRetry, afterInvoiceId, limit);
     }
-    
-    public void resetStatusToReady(Long invoiceId, int currentRetryCount) {
-        String sql = "UPDATE delivery_status SET status = 'READY', retry_count = ?, last_attempt_at = NOW() WHERE invoice_id = ?";
-        jdbcTemplate.update(sql, currentRetryCount + 1, invoiceId);
+
+    /**
+     * 선점한 페이지를 한 문장으로 READY 전이 (retry_count + 1)
+     */
+    public int resetStatusToReadyBatch(List<Long> invoiceIds) {
+        if (invoiceIds == null || invoiceIds.isEmpty()) return 0;
+        String inSql = String.join(",", Collections.nCopies(invoiceIds.size(), "?"));
+        String sql = "UPDATE delivery_status SET status = 'READY', retry_count = retry_count + 1, last_attempt_at = NOW() " +
+                     "WHERE invoice_id IN (" + inSql + ") AND status = 'FAILED'";
+        return jdbcTemplate.update(sql, invoiceIds.toArray());
     }
 
     /**
-     * [Fallback용] 이메일 실패 -> SMS 전환 조회
+     * [Fallback용] 이메일 실패 -> SMS 전환 대상 페이지 조회 (invoice_id 키셋, 트랜잭션 안에서 호출해 선점)
      */
-    public List<DeliveryRetryDto> findFallbackTargets(int maxRetry) {
+    public List<DeliveryRetryDto> findFallbackTargetsPage(int maxRetry, long afterInvoiceId, int limit) {
         String sql = """
             SELECT ds.invoice_id, mi.billing_yyyymm, mi.total_amount, mi.due_date,
                    u.name AS recipient_name, u.email AS email_info, u.phone AS phone_info
             FROM delivery_status ds
             INNER JOIN monthly_invoice mi ON ds.invoice_id = mi.invoice_id
             INNER JOIN users u ON mi.users_id = u.users_id
-            WHERE ds.status = 'FAILED' AND ds.retry_count >= ? AND ds.delivery_channel = 'EMAIL'
+            WHERE ds.status = 'FAILED' AND ds.retry_count >= ? AND ds.delivery_channel = 'EMAIL' AND ds.invoice_id > ?
+            ORDER BY ds.invoice_id
+            LIMIT ?
+            FOR UPDATE OF ds SKIP LOCKED
         """;
         return jdbcTemplate.query(sql, (rs, rowNum) -> DeliveryRetryDto.builder()
                 .invoiceId(rs.getLong("invoice_id"))
@@ -166,56 +195,103 @@ public class DeliveryStatusRepository {
                 .receiverInfo(rs.getString("phone_info"))
                 .dueDate(getLocalDateTime(rs, "due_date")) // 매핑 추가
                 .build()
-        , maxRetry);
+        , maxRetry, afterInvoiceId, limit);
+    }
+
+    /**
+     * 선점한 페이지를 한 문장으로 SMS 전환 (retry_count 0)
+     */
+    public int switchToSmsBatch(List<Long> invoiceIds) {
+        if (invoiceIds == null || invoiceIds.isEmpty()) return 0;
+        String inSql = String.join(",", Collections.nCopies(invoiceIds.size(), "?"));
+        String sql = "UPDATE delivery_status SET status = 'READY', delivery_channel = 'SMS', retry_count = 0, last_attempt_at = NOW() " +
+                     "WHERE invoice_id IN (" + inSql + ") AND status = 'FAILED' AND delivery_channel = 'EMAIL'";
+        return jdbcTemplate.update(sql, invoiceIds.toArray());
     }
 
-    public void switchToSms(Long invoiceId) {
-        String sql = "UPDATE delivery_status SET status = 'READY', delivery_channel = 'SMS', retry_count = 0, last_attempt_at = NOW() WHERE invoice_id = ?";
-        jdbcTemplate.update(sql, invoiceId);
+    /**
+     * [재발송/Fallback용] 선점 직후 지연 큐로 미뤄 적재할 건 -> SCHEDULED (scheduled_at = 이관 시각).
+     * 버킷에 머무는 동안 Sync(READY) 스캔에 잡혀 다시 적재되지 않고, 이관 시각이 지나도 남아 있으면 예약 안전망이 싣는다.
+     */
+    public int deferToScheduledBatch(Map<Long, LocalDateTime> releaseAtById) {
+        if (releaseAtById == null || releaseAtById.isEmpty()) return 0;
+        String sql = "UPDATE delivery_status SET status = 'SCHEDULED', scheduled_at = ? WHERE invoice_id = ? AND status = 'READY'";
+        List<Object[]> args = new ArrayList<>(releaseAtById.size());
+        releaseAtById.forEach((id, releaseAt) -> args.add(new Object[] { Timestamp.valueOf(releaseAt), id }));
+        int updated = 0;
+        for (int count : jdbcTemplate.batchUpdate(sql, args)) updated += Math.max(count, 0);
+        return updated;
     }
 
     /**
-     * [예약 발송용] SCHEDULED 시간 도래 건 조회
+     * [예약 복구용] 발송 시각이 dueBefore 이전인데 아직 SCHEDULED인 건을 발송 시각 순으로 limit 건 선점
+     * (idx_delivery_status_schedule 사용). 여러 노드가 동시에 실행해도 한 행은 한 토큰에만 잡힌다.
+     * @return 선점한 건수
      */
-    public List<DeliveryRetryDto> findScheduledTargets(LocalDateTime now) {
+    public int claimScheduledTargets(LocalDateTime dueBefore, String claimToken, int limit) {
+        String sql = "UPDATE delivery_status SET status = 'CLAIMED', claim_token = ?, claimed_at = NOW(6) " +
+                     "WHERE status = 'SCHEDULED' AND scheduled_at <= ? ORDER BY scheduled_at LIMIT ?";
+        return jdbcTemplate.update(sql, claimToken, Timestamp.valueOf(dueBefore), limit);
+    }
+
+    /**
+     * [예약 복구용] 토큰으로 선점한 건 조회 (INDX_delivery_status_claim_token 사용)
+     * 예약 건 외에 미뤄진 재발송/SMS 전환 건도 섞여 있으므로 채널/회차는 행 값을 쓴다.
+     */
+    public List<DeliveryRetryDto> findClaimedTargets(String claimToken) {
         String sql = """
-            SELECT ds.invoice_id, mi.billing_yyyymm, mi.total_amount, mi.due_date,
+            SELECT ds.invoice_id, ds.delivery_channel, ds.retry_count,
+                   mi.billing_yyyymm, mi.total_amount, mi.due_date,
                    u.name AS recipient_name, u.email AS email_info, u.phone AS phone_info
             FROM delivery_status ds
             INNER JOIN monthly_invoice mi ON ds.invoice_id = mi.invoice_id
             INNER JOIN users u ON mi.users_id = u.users_id
-            WHERE ds.status = 'SCHEDULED' AND ds.scheduled_at <= ?
+            WHERE ds.claim_token = ? AND ds.status = 'CLAIMED'
         """;
         return jdbcTemplate.query(sql, (rs, rowNum) -> DeliveryRetryDto.builder()
                 .invoiceId(rs.getLong("invoice_id"))
-                .deliveryChannel("EMAIL")
-                .retryCount(0)
+                .deliveryChannel(rs.getString("delivery_channel"))
+                .retryCount(rs.getInt("retry_count"))
                 .billingYyyymm(String.valueOf(rs.getInt("billing_yyyymm")))
                 .totalAmount(rs.getLong("total_amount"))
                 .recipientName(rs.getString("recipient_name"))
                 .email(rs.getString("email_info"))
                 .phone(rs.getString("phone_info"))
-                .receiverInfo(rs.getString("email_info"))
+                .receiverInfo("SMS".equals(rs.getString("delivery_channel")) ? rs.getString("phone_info") : rs.getString("email_info"))
                 .dueDate(getLocalDateTime(rs, "due_date")) // 매핑 추가
                 .build()
-        , Timestamp.valueOf(now));
+        , claimToken);
     }
 
-    public void updateStatusToReadyBatch(List<Long> invoiceIds) {
-        if (invoiceIds == null || invoiceIds.isEmpty()) return;
-        String sql = "UPDATE delivery_status SET status = 'READY', last_attempt_at = NOW() WHERE invoice_id = ?";
-        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
-            @Override
-            public void setValues(PreparedStatement ps, int i) throws SQLException {
-                ps.setLong(1, invoiceIds.get(i));
-            }
-            @Override
-            public int getBatchSize() { return invoiceIds.size(); }
-        });
+    /**
+     * [예약 복구용] 지연 큐에 다시 실은 선점 건 -> SCHEDULED (scheduled_at = 새 발송 시각, 건별)
+     * 이관을 기다리는 동안 Sync(READY) 스캔에 잡히지 않고, 새 발송 시각 + grace가 지나야 다시 선점된다.
+     * 적재하지 못한 건은 CLAIMED로 남아 claim-timeout 뒤 되돌려진다. (그 사이 발송 결과가 먼저 반영된 건은 건드리지 않는다)
+     */
+    public int rescheduleClaimed(String claimToken, Map<Long, LocalDateTime> releaseAtById) {
+        if (releaseAtById == null || releaseAtById.isEmpty()) return 0;
+        String sql = "UPDATE delivery_status SET status = 'SCHEDULED', scheduled_at = ?, claim_token = NULL, claimed_at = NULL " +
+                     "WHERE invoice_id = ? AND claim_token = ? AND status = 'CLAIMED'";
+        List<Object[]> args = new ArrayList<>(releaseAtById.size());
+        releaseAtById.forEach((id, releaseAt) -> args.add(new Object[] { Timestamp.valueOf(releaseAt), id, claimToken }));
+        int updated = 0;
+        for (int count : jdbcTemplate.batchUpdate(sql, args)) updated += Math.max(count, 0);
+        return updated;
+    }
+
+    /**
+     * [예약 복구용] claimedBefore 이전에 선점된 채 남은 건(선점 후 적재 전에 노드가 죽음) -> SCHEDULED로 되돌림
+     */
+    public int recoverStaleClaims(LocalDateTime claimedBefore) {
+        String sql = "UPDATE delivery_status SET status = 'SCHEDULED', claim_token = NULL, claimed_at = NULL " +
+                     "WHERE status = 'CLAIMED' AND claimed_at <= ?";
+        return jdbcTemplate.update(sql, Timestamp.valueOf(claimedBefore));
     }
 
     /**
      * [Sync용] 미아(Zombie) 상태 상세 조회
+     * READY는 마지막 전이 시각(적재/재발송 선점 때 갱신) 기준: 재발송으로 READY가 된 건은 created_at이 오래돼도 새로 적재된 건이다.
+     * 지연 큐에서 이관을 기다리는 건은 SCHEDULED라 여기서 잡히지 않는다 (예약 안전망 담당).
      */
     public List<DeliveryRetryDto> findZombieTargets(LocalDateTime thresholdTime) {
         String sql = """
@@ -225,8 +301,7 @@ public class DeliveryStatusRepository {
             FROM delivery_status ds
             INNER JOIN monthly_invoice mi ON ds.invoice_id = mi.invoice_id
             INNER JOIN users u ON mi.users_id = u.users_id
-            WHERE (ds.status = 'READY' AND ds.created_at <= ?)
-               OR (ds.status = 'PROCESSING' AND ds.last_attempt_at <= ?)
+            WHERE ds.status IN ('READY', 'PROCESSING') AND ds.last_attempt_at <= ?
         """;
 
         return jdbcTemplate.query(sql, (rs, rowNum) -> DeliveryRetryDto.builder()
@@ -241,7 +316,7 @@ public class DeliveryStatusRepository {
                 .receiverInfo(rs.getString("email_info"))
                 .dueDate(getLocalDateTime(rs, "due_date"))
                 .build()
-        , Timestamp.valueOf(thresholdTime), Timestamp.valueOf(thresholdTime));
+        , Timestamp.valueOf(thresholdTime));
     }
 
     // ==========================================
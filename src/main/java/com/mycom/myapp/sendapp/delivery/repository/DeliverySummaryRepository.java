@@ -1,5 +1,6 @@
 package com.mycom.myapp.sendapp.delivery.repository;
 
+import com.mycom.myapp.sendapp.delivery.dto.DeliverySummaryDelta;
 import com.mycom.myapp.sendapp.delivery.entity.DeliverySummary;
 import com.mycom.myapp.sendapp.delivery.entity.enums.DeliveryChannelType;
 import lombok.RequiredArgsConstructor;
@@ -11,6 +12,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 @Repository
 @RequiredArgsConstructor
@@ -19,7 +23,62 @@ public class DeliverySummaryRepository {
     private final JdbcTemplate jdbcTemplate;
     private static final DeliverySummaryRowMapper ROW_MAPPER = new DeliverySummaryRowMapper();
 
-    public void insertSummary(int billingYyyymm) {
+    private static final String UPSERT_DELTA_PREFIX = """
+            INSERT INTO delivery_summary (
+                billing_yyyymm, delivery_channel, total_attempt_count,
+                success_count, fail_count, success_rate, created_at, updated_at
+            ) VALUES """;
+    private static final String DELTA_ROW = "(?, ?, ?, ?, ?, ROUND(? / NULLIF(?, 0) * 100, 2), NOW(6), NOW(6))";
+    // MySQL은 ON DUPLICATE KEY UPDATE 대입을 왼쪽부터 평가하므로 success_rate는 갱신된 카운트로 계산된다
+    private static final String UPSERT_DELTA_SUFFIX = """
+             ON DUPLICATE KEY UPDATE
+                total_attempt_count = total_attempt_count + VALUES(total_attempt_count),
+                success_count = success_count + VALUES(success_count),
+                fail_count = fail_count + VALUES(fail_count),
+                success_rate = ROUND(success_count / NULLIF(total_attempt_count, 0) * 100, 2),
+                updated_at = NOW(6)
+            """;
+
+    /**
+     * 결과 반영 트랜잭션 안에서 통계 증가분을 더한다 (발송 중에도 Summary가 실시간으로 보인다).
+     * 같은 행을 여러 워커가 갱신하므로 (청구월, 채널) 순으로 정렬해 잠금 순서를 고정한다 (교착 방지).
+     */
+    public void applyDeltas(List<DeliverySummaryDelta> deltas) {
+        if (deltas == null || deltas.isEmpty()) return;
+
+        List<DeliverySummaryDelta> sorted = new ArrayList<>(deltas);
+        sorted.sort(Comparator.comparingInt(DeliverySummaryDelta::billingYyyymm)
+                .thenComparing(DeliverySummaryDelta::deliveryChannel));
+
+        StringBuilder sql = new StringBuilder(UPSERT_DELTA_PREFIX);
+        for (int i = 0; i < sorted.size(); i++) {
+            if (i > 0) sql.append(',');
+            sql.append(DELTA_ROW);
+        }
+        sql.append(UPSERT_DELTA_SUFFIX);
+
+        jdbcTemplate.update(sql.toString(), ps -> {
+            int idx = 1;
+            for (DeliverySummaryDelta d : sorted) {
+                ps.setInt(idx++, d.billingYyyymm());
+                ps.setString(idx++, d.deliveryChannel());
+                ps.setInt(idx++, d.attemptCount());
+                ps.setInt(idx++, d.successCount());
+                ps.setInt(idx++, d.failCount());
+                ps.setInt(idx++, d.successCount());
+                ps.setInt(idx++, d.attemptCount());
+            }
+        });
+    }
+
+    /**
+     * [대사용] 해당 월 이력 전체를 다시 집계해 덮어쓴다.
+     * 평시에는 applyDeltas로 유지되므로 완료 시점 1회 / 정기 대사 작업에서만 호출한다.
+     * (INDX_delivery_history_yyyymm_channel_status 인덱스만으로 집계된다)
+     * 카운트가 그대로면 updated_at을 건드리지 않는다: 대사 대상은 updated_at으로 고르므로,
+     * 맞는 월까지 갱신 시각을 올리면 다음 날 다시 뽑혀 매일 재집계되기 때문이다.
+     */
+    public void rebuildSummary(int billingYyyymm) {
         String sql = """
             INSERT INTO delivery_summary (
                 billing_yyyymm, delivery_channel, total_attempt_count, 
@@ -40,15 +99,26 @@ public class DeliverySummaryRepository {
             WHERE billing_yyyymm = ? 
             GROUP BY delivery_channel 
             ON DUPLICATE KEY UPDATE 
+                -- 대입은 왼쪽부터 평가되므로 카운트를 덮어쓰기 전에 기존 값과 비교한다
+                updated_at = IF(total_attempt_count <> VALUES(total_attempt_count)
+                                OR success_count <> VALUES(success_count)
+                                OR fail_count <> VALUES(fail_count), NOW(6), updated_at), 
                 total_attempt_count = VALUES(total_attempt_count), 
                 success_count = VALUES(success_count), 
                 fail_count = VALUES(fail_count), 
-                success_rate = VALUES(success_rate), 
-                updated_at = NOW(6)
+                success_rate = VALUES(success_rate)
         """;
 
-        int affectedRows = jdbcTemplate.update(sql, billingYyyymm);
-        
+        jdbcTemplate.update(sql, billingYyyymm);
+    }
+
+    /**
+     * since 이후 통계가 갱신된 청구월 (정기 대사 대상)
+     */
+    public List<Integer> findMonthsUpdatedSince(LocalDateTime since) {
+        return jdbcTemplate.queryForList(
+                "SELECT DISTINCT billing_yyyymm FROM delivery_summary WHERE updated_at >= ?",
+                Integer.class, Timestamp.valueOf(since));
     }
     
     /**
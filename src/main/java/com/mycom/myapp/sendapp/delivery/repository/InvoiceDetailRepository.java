@@ -1,25 +1,76 @@
 package com.mycom.myapp.sendapp.delivery.repository;
 
+import static com.mycom.myapp.sendapp.delivery.dto.InvoiceServiceDetails.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import com.mycom.myapp.sendapp.delivery.dto.InvoiceServiceDetails;
+
 import lombok.RequiredArgsConstructor;
 
 @Repository
 @RequiredArgsConstructor
 public class InvoiceDetailRepository {
 	private final JdbcTemplate jdbcTemplate;
-	
-	public List<String> findDetails(Long invoiceId, int categoryId) {
-		String sql = """
-	            SELECT service_name
+
+	/**
+	 * 단건 조회 (프리패치되지 않은 경우의 폴백). 4개 카테고리를 한 번에 읽는다.
+	 */
+	public InvoiceServiceDetails findServiceDetails(Long invoiceId) {
+		InvoiceServiceDetails details = findServiceDetailsByInvoiceIds(List.of(invoiceId)).get(invoiceId);
+		return details == null ? InvoiceServiceDetails.EMPTY : details;
+	}
+
+	/**
+	 * 청크 단위 일괄 조회: invoice_id IN (...) 한 번으로 읽어 청구서/카테고리별로 메모리에서 묶는다.
+	 * (invoice_id 선두의 UK_monthly_invoice_category_billing 인덱스를 탄다)
+	 * @return invoiceId -> 상세 (상세가 없는 청구서는 EMPTY)
+	 */
+	public Map<Long, InvoiceServiceDetails> findServiceDetailsByInvoiceIds(Collection<Long> invoiceIds) {
+		if (invoiceIds == null || invoiceIds.isEmpty()) return Collections.emptyMap();
+
+		String inSql = String.join(",", Collections.nCopies(invoiceIds.size(), "?"));
+		String sql = String.format("""
+	            SELECT invoice_id, invoice_category_id, service_name
 	            FROM monthly_invoice_detail
-	            WHERE invoice_id = ?
-	              AND invoice_category_id = ?
-	            ORDER BY detail_id
-	        """;
-	        return jdbcTemplate.queryForList(sql, String.class, invoiceId, categoryId);
-	    }
+	            WHERE invoice_id IN (%s)
+	            ORDER BY invoice_id, detail_id
+	        """, inSql);
+
+		// invoiceId -> [카테고리 1..4] 서비스명 목록
+		Map<Long, List<String>[]> grouped = new HashMap<>(invoiceIds.size() * 2);
+		jdbcTemplate.query(sql, rs -> {
+			int category = rs.getInt("invoice_category_id");
+			if (category < CATEGORY_PLAN || category > CATEGORY_MICRO) return;
+
+			List<String>[] byCategory = grouped.computeIfAbsent(rs.getLong("invoice_id"), id -> newCategoryLists());
+			byCategory[category - 1].add(rs.getString("service_name"));
+		}, invoiceIds.toArray());
+
+		Map<Long, InvoiceServiceDetails> result = new HashMap<>(invoiceIds.size() * 2);
+		for (Long invoiceId : invoiceIds) {
+			List<String>[] byCategory = grouped.get(invoiceId);
+			result.put(invoiceId, byCategory == null ? InvoiceServiceDetails.EMPTY : InvoiceServiceDetails.of(
+					byCategory[CATEGORY_PLAN - 1],
+					byCategory[CATEGORY_ETC_PLAN - 1],
+					byCategory[CATEGORY_ADDON - 1],
+					byCategory[CATEGORY_MICRO - 1]));
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<String>[] newCategoryLists() {
+		List<String>[] lists = new List[CATEGORY_MICRO];
+		for (int i = 0; i < lists.length; i++) lists[i] = new ArrayList<>();
+		return lists;
+	}
 }
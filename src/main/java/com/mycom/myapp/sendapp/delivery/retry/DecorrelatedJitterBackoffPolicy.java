@@ -0,0 +1,49 @@
+package com.mycom.myapp.sendapp.delivery.retry;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.mycom.myapp.sendapp.delivery.config.DeliveryRetryProperties;
+import com.mycom.myapp.sendapp.delivery.entity.enums.DeliveryChannelType;
+
+/**
+ * Decorrelated jitter: sleep = min(cap, random(base, 직전 sleep x 3)), 첫 sleep = base.
+ *
+ * 직전 대기 시간을 저장하지 않고 retryCount 만큼 수열을 다시 뽑는다 (회차가 MAX_RETRY_COUNT 이하라 비용 무시).
+ * 같은 시각에 실패한 건들도 회차마다 서로 다른 시각으로 흩어져, 장애 복구 직후 공급자에 한꺼번에 몰리지 않는다.
+ */
+@Component
+public class DecorrelatedJitterBackoffPolicy implements RetryBackoffPolicy {
+
+    private final DeliveryRetryProperties properties;
+    private final Supplier<RandomGenerator> randomSource;
+
+    @Autowired
+    public DecorrelatedJitterBackoffPolicy(DeliveryRetryProperties properties) {
+        this(properties, ThreadLocalRandom::current);
+    }
+
+    DecorrelatedJitterBackoffPolicy(DeliveryRetryProperties properties, Supplier<RandomGenerator> randomSource) {
+        this.properties = properties;
+        this.randomSource = randomSource;
+    }
+
+    @Override
+    public long delayMillis(DeliveryChannelType channel, int retryCount) {
+        DeliveryRetryProperties.Backoff backoff = properties.backoffOf(channel);
+        long base = Math.max(backoff.getBaseMillis(), 1L);
+        long cap = Math.max(backoff.getCapMillis(), base);
+
+        RandomGenerator random = randomSource.get();
+        long sleep = base;
+        for (int i = 0; i < Math.max(retryCount, 1); i++) {
+            long upper = sleep > cap / 3 ? cap : sleep * 3; // 상한은 어차피 cap에서 잘리므로 넘침 방지만
+            sleep = upper <= base ? base : Math.min(cap, random.nextLong(base, upper + 1));
+        }
+        return sleep;
+    }
+}
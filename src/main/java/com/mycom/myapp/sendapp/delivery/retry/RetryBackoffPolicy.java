@@ -0,0 +1,16 @@
+package com.mycom.myapp.sendapp.delivery.retry;
+
+import com.mycom.myapp.sendapp.delivery.entity.enums.DeliveryChannelType;
+
+/**
+ * 재발송 대기 시간 정책. 재발송 스케줄러가 결과를 지연 큐 스코어(now + 대기)로 쓴다.
+ */
+public interface RetryBackoffPolicy {
+
+    /**
+     * @param channel    재발송 채널
+     * @param retryCount 이번 재발송의 회차 (1부터, 직전까지 실패한 횟수)
+     * @return 지금부터 다음 시도까지 대기할 시간(ms)
+     */
+    long delayMillis(DeliveryChannelType channel, int retryCount);
+}
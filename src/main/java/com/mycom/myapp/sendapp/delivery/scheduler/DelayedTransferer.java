@@ -2,67 +2,309 @@ package com.mycom.myapp.sendapp.delivery.scheduler;
 
 import static com.mycom.myapp.sendapp.delivery.config.DeliveryRedisKey.*;
 
-import java.util.Collection;
-import java.util.Collections;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
-import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RLock;
+import org.redisson.api.RRateLimiter;
+import org.redisson.api.RateType;
 import org.redisson.api.RedissonClient;
-import org.redisson.client.codec.StringCodec;
-import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.connection.stream.StreamRecords;
-import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scripting.support.ResourceScriptSource;
 import org.springframework.stereotype.Component;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycom.myapp.sendapp.delivery.config.DeliveryStreamKeys;
+import com.mycom.myapp.sendapp.delivery.config.DeliveryTransferProperties;
 
-
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * 지연 큐(샤드 x 분 버킷 ZSET) -> 발송 대기 스트림 이관기.
+ *
+ * - 샤드마다 버킷 색인(ZSET)에서 만기가 지난 분(minute) 버킷만 골라 비운다. 아직 먼 버킷은 건드리지 않는다.
+ * - 버킷과 스트림은 슬롯이 달라(클러스터) 한 스크립트로 묶을 수 없으므로 "읽기 -> XADD(파이프라인) -> 읽은 멤버만 ZREM" 순서로 옮긴다.
+ * - 보장: at-least-once, 유실 없음. 중복은 "XADD 후 ZREM 전에 잠금을 쥔 노드가 죽은 경우"의 한 묶음(batch-size 이하)으로 한정된다.
+ *   - 노드 간 같은 샤드를 동시에 옮기지 않도록 샤드 단위 잠금(tryLock, 대기 없음)을 잡은 노드만 이관한다.
+ *   - 잠금은 watchdog(보유 시간 미지정)으로 노드가 살아 있는 동안 연장되므로, 이관이 길어져도 다른 노드가 중간에 끼어들지 않는다.
+ *     노드가 죽으면 watchdog이 멈춰 lockWatchdogTimeout 뒤에 풀린다.
+ *   - 묶음마다 XADD 전에 잠금 보유를 다시 확인하고(Redis 장애 조치로 잃었을 때 대비), 한 번에 lock-millis 이상 붙잡지 않는다.
+ *   - 중복 이관분은 수 초 안에 다시 들어오므로 SENT(1일)/발송 중 선점에 걸려 IdempotencyGuard가 재발송을 막는다.
+ * - release-per-second가 있으면 노드 공용 토큰 버킷(RRateLimiter) 만큼만 옮긴다. 토큰이 떨어지면 이번 회차를 멈추고
+ *   다음 회차는 다음 샤드부터 시작해 특정 샤드만 먼저 풀리지 않게 한다. 남은 만기 건/예상 소요 시간은 backlog()로 본다.
+ * - 샤딩 이전 단일 ZSET(DELAY_ZSET)의 잔여분은 기존 Lua 스크립트로 계속 비운다.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class DelayedTransferer {
-	
-	private final RedissonClient redissonClient;
+
+    private static final long MINUTE_MILLIS = 60_000L;
+    private static final int UPCOMING_MINUTES = 60; // backlog(): 앞으로 이 시간 안에 만기될 건까지 집계
+    private static final long BACKLOG_LOG_INTERVAL_MILLIS = 10_000L;
+
+    private static final DefaultRedisScript<List> LEGACY_TRANSFER_SCRIPT = createLegacyTransferScript();
+    private static final DefaultRedisScript<Long> BUCKET_CLEANUP_SCRIPT = createBucketCleanupScript();
+
     private final StringRedisTemplate stringRedisTemplate;
-    private final ObjectMapper objectMapper;
-    
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final RedissonClient redissonClient;
+    private final DeliveryTransferProperties properties;
+
+    private RRateLimiter releaseLimiter; // release-per-second 미설정이면 null
+    private int startShard;              // 스케줄 스레드에서만 접근
+    private boolean throttled;           // 이번 회차에 속도 상한에 걸렸는지
+    private long backlogLoggedAt;
+
+    public DelayedTransferer(
+            StringRedisTemplate stringRedisTemplate,
+            @Qualifier("deliveryStreamTemplate") RedisTemplate<String, byte[]> redisTemplate,
+            RedissonClient redissonClient,
+            DeliveryTransferProperties properties
+    ) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisTemplate = redisTemplate;
+        this.redissonClient = redissonClient;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!properties.isReleaseLimited()) return;
+        releaseLimiter = redissonClient.getRateLimiter(RELEASE_RATE_LIMITER);
+        releaseLimiter.setRate(RateType.OVERALL, properties.getReleasePerSecond(), Duration.ofSeconds(1)); // 기동 시 설정값으로 덮어쓴다
+        log.info(">>> 지연 큐 이관 속도 제한: {}/s", properties.getReleasePerSecond());
+    }
+
+    /**
+     * 지연 큐 -> 스트림 데이터 전이.
+     * 컨슈머 스레드가 여러 개이므로 읽기 루프와 분리해 노드당 한 번만 실행한다.
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void run() {
+    	try {
+            transfer();
+        } catch (Exception e) {
+            log.error("[Transfer Error] 지연 메시지 인계 중 오류 발생: {}", e.getMessage());
+        }
+    }
+
     public void transfer() {
-        RScoredSortedSet<String> zset = redissonClient.getScoredSortedSet(DELAY_ZSET, StringCodec.INSTANCE);
         long now = System.currentTimeMillis();
-        Collection<String> expiredMessages = zset.valueRange(0, true, now, true);
-        
-        if (expiredMessages.isEmpty()) return;
-
-        log.info("지연 큐에서 {}건 발견, Stream으로 이동 시작", expiredMessages.size());
-
-        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
-            for (Object msg : expiredMessages) { // String 대신 Object로 받아 확인
-                try {
-                    String jsonPayload = String.valueOf(msg); // 명시적 변환
-                    
-                    // 만약 데이터 자체가 "text"라는 문자열로 들어온다면 skip
-                    if ("text".equals(jsonPayload)) continue;
-
-                    Map<String, String> dataMap = objectMapper.readValue(jsonPayload, new TypeReference<Map<String, String>>() {});
-                    
-                    MapRecord<String, String, String> record = StreamRecords.newRecord()
-                            .in(WAITING_STREAM)
-                            .ofMap(dataMap);
+        long currentMinute = Math.floorDiv(now, MINUTE_MILLIS);
+        long totalMoved = transferLegacy(now);
+
+        int shards = Math.max(properties.getShards(), 1);
+        int first = Math.floorMod(startShard++, shards);
+        throttled = false;
+        for (int i = 0; i < shards && !throttled; i++) {
+            int shard = (first + i) % shards;
+            RLock lock = redissonClient.getLock(delayShardLock(shard));
+            boolean locked = false;
+            try {
+                locked = lock.tryLock(0, -1, TimeUnit.MILLISECONDS); // watchdog: 이관하는 동안 잠금 유지
+                if (!locked) continue; // 다른 노드가 이관 중
+
+                totalMoved += transferShard(lock, shard, now, currentMinute);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("[Transfer Error] 샤드 {} 이관 실패: {}", shard, e.getMessage());
+            } finally {
+                if (locked && lock.isHeldByCurrentThread()) lock.unlock();
+            }
+        }
+
+        if (totalMoved > 0) {
+            log.info("지연 큐 -> Stream {}건 이관 완료", totalMoved);
+        }
+        if (throttled && now - backlogLoggedAt >= BACKLOG_LOG_INTERVAL_MILLIS) {
+            backlogLoggedAt = now;
+            ReleaseBacklog backlog = backlog();
+            log.info("[Transfer] 이관 속도 상한 {}/s 도달 - 만기 대기 {}건, 예상 소요 {}초", properties.getReleasePerSecond(), backlog.due(), backlog.etaSeconds());
+        }
+    }
+
+    private long transferShard(RLock lock, int shard, long now, long currentMinute) {
+        String index = delayBucketIndex(shard);
+        Set<String> dueBuckets = stringRedisTemplate.opsForZSet().rangeByScore(index, Double.NEGATIVE_INFINITY, currentMinute);
+        if (dueBuckets == null || dueBuckets.isEmpty()) return 0L;
+
+        int batchSize = Math.max(properties.getBatchSize(), 1);
+        long deadline = System.currentTimeMillis() + properties.getLockMillis(); // 한 샤드를 붙잡는 시간 상한 (남은 건은 다음 회차)
+        long moved = 0;
+        for (String bucketMember : dueBuckets) {
+            String bucket = delayBucket(shard, Long.parseLong(bucketMember));
+
+            // 만기 멤버가 한 번에 읽는 양보다 적게 남을 때까지 반복 (속도 상한이면 남은 토큰만큼만)
+            while (true) {
+                int limit = releasable(batchSize);
+                if (limit <= 0) {
+                    throttled = true;
+                    return moved;
+                }
+
+                if (System.currentTimeMillis() >= deadline) return moved;
+
+                Set<byte[]> due = redisTemplate.opsForZSet().rangeByScore(bucket, Double.NEGATIVE_INFINITY, now, 0, limit);
+                if (due == null || due.isEmpty()) break;
+                if (!lock.isHeldByCurrentThread()) {
+                    log.warn("[Transfer] 샤드 {} 잠금을 잃어 이관 중단 (다른 노드가 이어받는다)", shard);
+                    return moved;
+                }
+                if (releaseLimiter != null && !releaseLimiter.tryAcquire(due.size())) {
+                    throttled = true; // 사이에 다른 노드가 토큰을 가져감
+                    return moved;
+                }
+
+                appendToStream(due);
+                redisTemplate.opsForZSet().remove(bucket, due.toArray());
+                moved += due.size();
 
-                    stringRedisTemplate.opsForStream().add(record);
-                } catch (Exception e) {
-                    log.error("Transfer 실패 - Record: {}, Error: {}", msg, e.getMessage());
+                if (due.size() < limit) break;
+            }
+
+            // 지난 분의 버킷은 비었으면 색인에서 뺀다 (현재 분 버킷은 아직 적재가 올 수 있으므로 다음 분에)
+            if (Long.parseLong(bucketMember) < currentMinute) {
+                stringRedisTemplate.execute(BUCKET_CLEANUP_SCRIPT, List.of(bucket, index), bucketMember);
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * 이번에 읽어도 되는 최대 건수 (토큰은 실제로 읽은 건수만큼 tryAcquire로 가져간다)
+     */
+    private int releasable(int batchSize) {
+        if (releaseLimiter == null) return batchSize;
+        return (int) Math.min(batchSize, releaseLimiter.availablePermits());
+    }
+
+    /**
+     * 지연 큐 잔량: 이미 만기됐지만 아직 스트림으로 못 나간 건(due)과 앞으로 UPCOMING_MINUTES 안에 만기될 건(upcoming).
+     * 샤드마다 버킷 색인 1회 + 버킷 ZCOUNT/ZCARD 파이프라인 1회.
+     */
+    public ReleaseBacklog backlog() {
+        long now = System.currentTimeMillis();
+        long currentMinute = Math.floorDiv(now, MINUTE_MILLIS);
+        long due = 0;
+        long upcoming = 0;
+
+        for (int shard = 0; shard < Math.max(properties.getShards(), 1); shard++) {
+            Set<String> buckets = stringRedisTemplate.opsForZSet()
+                    .rangeByScore(delayBucketIndex(shard), Double.NEGATIVE_INFINITY, currentMinute + UPCOMING_MINUTES);
+            if (buckets == null || buckets.isEmpty()) continue;
+
+            List<String> bucketMembers = List.copyOf(buckets);
+            int s = shard;
+            List<Object> counts = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    for (String member : bucketMembers) {
+                        String bucket = delayBucket(s, Long.parseLong(member));
+                        if (Long.parseLong(member) <= currentMinute) {
+                            ops.opsForZSet().count(bucket, Double.NEGATIVE_INFINITY, now);
+                        } else {
+                            ops.opsForZSet().zCard(bucket);
+                        }
+                    }
+                    return null;
                 }
+            });
+
+            for (int i = 0; i < bucketMembers.size(); i++) {
+                long count = counts.get(i) instanceof Long value ? value : 0L;
+                if (Long.parseLong(bucketMembers.get(i)) <= currentMinute) due += count;
+                else upcoming += count;
+            }
+        }
+        return new ReleaseBacklog(due, upcoming, properties.getReleasePerSecond());
+    }
+
+    /**
+     * @param due              만기됐지만 아직 이관되지 않은 건수
+     * @param upcoming         앞으로 1시간 안에 만기될 건수
+     * @param releasePerSecond 이관 속도 상한 (0이면 제한 없음)
+     */
+    public record ReleaseBacklog(long due, long upcoming, int releasePerSecond) {
+        /** due를 모두 내보내는 데 걸릴 예상 시간(초). 속도 제한이 없으면 0 */
+        public long etaSeconds() {
+            if (releasePerSecond <= 0 || due == 0) return 0L;
+            return (due + releasePerSecond - 1) / releasePerSecond;
+        }
+    }
+
+    /**
+     * 멤버(DeliveryPayloadCodec 바이너리)를 해석 없이 payload 필드로 옮긴다 (파이프라인 1 왕복)
+     */
+    private void appendToStream(Set<byte[]> members) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, byte[]> ops = (RedisOperations<String, byte[]>) operations;
+                for (byte[] member : members) {
+                    ops.<String, byte[]>opsForStream().add(StreamRecords.newRecord()
+                            .in(WAITING_STREAM)
+                            .ofMap(Map.of(DeliveryStreamKeys.PAYLOAD, member)));
+                }
+                return null;
             }
-            return null;
         });
+    }
+
+    /**
+     * 샤딩 이전 단일 ZSET 잔여분 (비어 있으면 왕복 1회로 끝난다)
+     */
+    private long transferLegacy(long now) {
+        String nowArg = String.valueOf(now);
+        String limit = String.valueOf(properties.getBatchSize());
+        long totalMoved = 0;
+        long totalDropped = 0;
+
+        while (true) {
+            @SuppressWarnings("unchecked")
+            List<Long> result = stringRedisTemplate.execute(LEGACY_TRANSFER_SCRIPT, List.of(DELAY_ZSET, WAITING_STREAM), nowArg, limit, DeliveryStreamKeys.PAYLOAD);
+            if (result == null || result.size() < 2) break;
+
+            long moved = result.get(0);
+            long dropped = result.get(1);
+            totalMoved += moved;
+            totalDropped += dropped;
+
+            if (moved + dropped < properties.getBatchSize()) break;
+        }
+
+        if (totalDropped > 0) {
+            log.error("지연 큐에서 해석 불가 멤버 {}건 폐기", totalDropped);
+        }
+        return totalMoved;
+    }
+
+    private static DefaultRedisScript<List> createLegacyTransferScript() {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/delay_transfer.lua")));
+        script.setResultType(List.class);
+        return script;
+    }
 
-        zset.removeRangeByScore(0, true, now, true);
-        log.info("{}건 이동 및 지연 큐 청소 완료", expiredMessages.size());
+    private static DefaultRedisScript<Long> createBucketCleanupScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/delay_bucket_cleanup.lua")));
+        script.setResultType(Long.class);
+        return script;
     }
 }
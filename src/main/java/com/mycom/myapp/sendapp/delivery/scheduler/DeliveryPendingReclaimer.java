@@ -0,0 +1,153 @@
+package com.mycom.myapp.sendapp.delivery.scheduler;
+
+import static com.mycom.myapp.sendapp.delivery.config.DeliveryRedisKey.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.mycom.myapp.sendapp.batch.support.HostIdentifier;
+import com.mycom.myapp.sendapp.delivery.config.DeliveryWorkerProperties;
+import com.mycom.myapp.sendapp.delivery.service.DeliveryBatchWorker;
+import com.mycom.myapp.sendapp.delivery.service.DeliveryDeadLetterQueue;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 죽은(또는 처리 중 실패한) 컨슈머의 Pending 엔트리 회수기.
+ *
+ * - ReadOffset.lastConsumed()는 새 엔트리만 돌려주므로, ACK되지 않은 엔트리는 누군가 다시 꺼내야 한다.
+ * - reclaim-min-idle-millis 이상 방치된 엔트리를 XCLAIM으로 가져와 워커와 같은 경로로 재처리한다.
+ * - max-delivery-count 이상 전달된 엔트리는 재처리하지 않고 FAILED_STREAM으로 격리(dead-letter)한다.
+ *
+ * XCLAIM은 min-idle 조건을 서버에서 다시 검사하므로 여러 노드가 동시에 돌아도 한 노드만 가져간다.
+ *
+ * 재처리(발송 + DB 반영)는 전용 스레드 하나에서 돌린다. 스케줄러 기본 풀은 스레드가 하나라,
+ * 여기서 발송까지 하면 속도 제한 대기 동안 다른 @Scheduled 작업(이관/재발송 등)이 모두 멈춘다.
+ * 이전 재처리가 끝나지 않았으면 이번 주기에는 회수하지 않는다 (가져와 놓고 기다리게 하면 idle만 초기화된다).
+ */
+@Slf4j
+@Component
+public class DeliveryPendingReclaimer {
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final DeliveryBatchWorker deliveryBatchWorker;
+    private final DeliveryWorkerProperties properties;
+    private final HostIdentifier hostIdentifier;
+    private final DeliveryDeadLetterQueue deadLetterQueue;
+    private final ExecutorService reprocessExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "delivery-reclaimer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean reprocessing = new AtomicBoolean();
+
+    public DeliveryPendingReclaimer(
+            @Qualifier("deliveryStreamTemplate") RedisTemplate<String, byte[]> redisTemplate,
+            DeliveryBatchWorker deliveryBatchWorker,
+            DeliveryWorkerProperties properties,
+            HostIdentifier hostIdentifier,
+            DeliveryDeadLetterQueue deadLetterQueue
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.deliveryBatchWorker = deliveryBatchWorker;
+        this.properties = properties;
+        this.hostIdentifier = hostIdentifier;
+        this.deadLetterQueue = deadLetterQueue;
+    }
+
+    @Scheduled(fixedDelayString = "${app.delivery.worker.reclaim-interval-millis}")
+    public void reclaim() {
+        try {
+            reclaimOnce();
+        } catch (Exception e) {
+            log.error("[Reclaim Error] Pending 엔트리 회수 중 오류 발생: {}", e.getMessage());
+        }
+    }
+
+    private void reclaimOnce() {
+        PendingMessages pending = redisTemplate.opsForStream()
+                .pending(WAITING_STREAM, GROUP_NAME, Range.unbounded(), properties.getReclaimCount());
+        if (pending == null || pending.isEmpty()) return;
+
+        Duration minIdle = Duration.ofMillis(properties.getReclaimMinIdleMillis());
+        List<RecordId> retryIds = new ArrayList<>();
+        List<RecordId> deadIds = new ArrayList<>();
+        Map<RecordId, Long> deliveryCounts = new HashMap<>();
+
+        for (PendingMessage message : pending) {
+            if (message.getElapsedTimeSinceLastDelivery().compareTo(minIdle) < 0) continue;
+
+            if (message.getTotalDeliveryCount() >= properties.getMaxDeliveryCount()) {
+                deadIds.add(message.getId());
+                deliveryCounts.put(message.getId(), message.getTotalDeliveryCount());
+            } else {
+                retryIds.add(message.getId());
+            }
+        }
+
+        String owner = hostIdentifier.get() + ":reclaimer";
+
+        if (!deadIds.isEmpty()) {
+            deadLetterQueue.deadLetter(WAITING_STREAM, GROUP_NAME, claim(owner, minIdle, deadIds), deliveryCounts, "전달 횟수 초과");
+        }
+
+        if (!retryIds.isEmpty() && reprocessing.compareAndSet(false, true)) {
+            try {
+                List<MapRecord<String, String, byte[]>> claimed = claim(owner, minIdle, retryIds);
+                if (claimed.isEmpty()) {
+                    reprocessing.set(false);
+                    return;
+                }
+                log.warn("♻️ [Reclaim] 방치된 Pending {}건 회수 후 재처리", claimed.size());
+                reprocessExecutor.execute(() -> {
+                    try {
+                        deliveryBatchWorker.processRecords(claimed);
+                    } finally {
+                        reprocessing.set(false);
+                    }
+                });
+            } catch (RuntimeException e) {
+                reprocessing.set(false);
+                throw e;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reprocessExecutor.shutdown();
+        try {
+            if (!reprocessExecutor.awaitTermination(30, TimeUnit.SECONDS)) reprocessExecutor.shutdownNow();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reprocessExecutor.shutdownNow();
+        }
+    }
+
+    private List<MapRecord<String, String, byte[]>> claim(String owner, Duration minIdle, List<RecordId> ids) {
+        StreamOperations<String, String, byte[]> ops = redisTemplate.opsForStream();
+        List<MapRecord<String, String, byte[]>> claimed = ops
+                .claim(WAITING_STREAM, GROUP_NAME, owner, minIdle, ids.toArray(new RecordId[0]));
+        return claimed == null ? new ArrayList<>() : claimed;
+    }
+
+}
@@ -1,23 +1,23 @@
 package com.mycom.myapp.sendapp.delivery.scheduler;
 
-import static com.mycom.myapp.sendapp.delivery.config.DeliveryRedisKey.DELAY_ZSET;
-
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
-import org.redisson.api.RBatch;
-import org.redisson.api.RScoredSortedSetAsync;
-import org.redisson.api.RedissonClient;
-import org.redisson.client.codec.StringCodec;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycom.myapp.sendapp.delivery.config.DeliveryRetryProperties;
+import com.mycom.myapp.sendapp.delivery.dto.DeliveryPayload;
 import com.mycom.myapp.sendapp.delivery.dto.DeliveryRetryDto;
-import com.mycom.myapp.sendapp.delivery.repository.DeliveryStatusRepository;
+import com.mycom.myapp.sendapp.delivery.entity.enums.DeliveryChannelType;
+import com.mycom.myapp.sendapp.delivery.retry.RetryBackoffPolicy;
+import com.mycom.myapp.sendapp.delivery.service.DeliveryEnqueuer;
+import com.mycom.myapp.sendapp.delivery.service.DeliveryRetryClaimService;
+import com.mycom.myapp.sendapp.delivery.service.DeliveryRetryClaimService.Claimed;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,112 +27,86 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class DeliveryRetryScheduler {
 
-    private final DeliveryStatusRepository statusRepository;
-    private final RedissonClient redissonClient;
-    private final ObjectMapper objectMapper;
+    private final DeliveryRetryClaimService claimService;
+    private final DeliveryEnqueuer deliveryEnqueuer;
+    private final DeliveryRetryProperties retryProperties;
+    private final RetryBackoffPolicy backoffPolicy;
 
-    private static final int MAX_RETRY_COUNT = 2;
-    private static final int BAN_START_HOUR = 21; 
-    private static final int BAN_END_HOUR = 9;    
+    public static final int MAX_RETRY_COUNT = 2; // 채널별 재발송 한도 (초과 시 EMAIL -> SMS 전환, SMS는 최종 실패)
 
     // ♻️ [재발송] 10초마다
     @Scheduled(cron = "*/10 * * * * *") 
-    @Transactional
     public void retryFailedDeliveries() {
-        List<DeliveryRetryDto> failedList = statusRepository.findRetryTargets(MAX_RETRY_COUNT);
-        if (failedList.isEmpty()) return;
-
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime targetTime = adjustForBusinessHours(now);
-        boolean isNightBan = targetTime.isAfter(now);
-
-        // [CASE 1] 야간 금지 -> 내일 아침으로 연기
-        if (isNightBan) {
-            List<Long> ids = failedList.stream().map(DeliveryRetryDto::getInvoiceId).toList();
-            statusRepository.postponeDelivery(ids, targetTime);
-            log.info("🌙 [재발송 제한] 야간이라 {}건을 내일 아침({})으로 연기", ids.size(), targetTime);
-            return;
-        }
-
-        // [CASE 2] 업무 시간 -> Redis Batch 적재
-        RBatch batch = redissonClient.createBatch();
-        RScoredSortedSetAsync<String> batchZset = batch.getScoredSortedSet(DELAY_ZSET, StringCodec.INSTANCE);
-        long delayUntil = System.currentTimeMillis() + 1000;
 
-        for (DeliveryRetryDto dto : failedList) {
-            try {
-                Map<String, String> payload = new HashMap<>();
-                payload.put("invoice_id", String.valueOf(dto.getInvoiceId()));
-                payload.put("delivery_channel", dto.getDeliveryChannel());
-                payload.put("retry_count", String.valueOf(dto.getRetryCount() + 1));
-                payload.put("email", dto.getEmail());
-                payload.put("phone", dto.getPhone());
-                payload.put("recipient_name", dto.getRecipientName());
-                payload.put("total_amount", String.valueOf(dto.getTotalAmount()));
-                payload.put("requested_at", now.toString());
-
-                batchZset.addAsync(delayUntil, objectMapper.writeValueAsString(payload));
-                statusRepository.resetStatusToReady(dto.getInvoiceId(), dto.getRetryCount());
-            } catch (Exception e) {
-                log.error("❌ 재발송 실패 (ID: {})", dto.getInvoiceId());
+        // 페이지 선점(짧은 트랜잭션) 후 건별 백오프 시각으로 지연 큐 적재
+        // (야간/휴일이면 달력 기준 다음 개시 시각으로 미루고, 미룬 건은 선점 때 SCHEDULED로 남긴다)
+        int total = 0;
+        long cursor = 0L;
+        int pageSize = pageSize();
+        try {
+            for (int page = 0; retryProperties.hasMorePages(page); page++) {
+                long nowMillis = System.currentTimeMillis();
+                List<Claimed> claimed = claimService.claimRetryPage(MAX_RETRY_COUNT, cursor, pageSize, dto -> nowMillis
+                        + backoffPolicy.delayMillis(DeliveryChannelType.from(dto.getDeliveryChannel()), dto.getRetryCount() + 1));
+                if (claimed.isEmpty()) break;
+                cursor = claimed.get(claimed.size() - 1).target().getInvoiceId();
+
+                total += enqueueClaimed(claimed, dto -> DeliveryPayload.of(dto, dto.getDeliveryChannel(), dto.getRetryCount() + 1, now), "재발송");
+                if (claimed.size() < pageSize) break;
             }
+        } catch (Exception e) {
+            // 커밋된 READY 건은 Sync(유실 복구)가, SCHEDULED 건은 예약 안전망이 다시 싣는다
+            log.error("🚨 [재발송] 처리 중단 ({}건 적재 후): {}", total, e.getMessage());
+        }
+        if (total > 0) {
+            log.info("✅ [재발송] {}건 Redis 적재 완료", total);
         }
-        batch.execute();
-        log.info("✅ [재발송] {}건 Redis 적재 완료", failedList.size());
     }
 
-    // 🚨 [Fallback] 이메일 실패 -> SMS 전환
+    // 🚨 [Fallback] 이메일 실패 -> SMS 전환 (야간/휴일 보정은 DeliveryEnqueuer)
     @Scheduled(cron = "*/10 * * * * *") 
-    @Transactional
     public void fallbackToSms() {
-        List<DeliveryRetryDto> fallbackList = statusRepository.findFallbackTargets(MAX_RETRY_COUNT);
-        if (fallbackList.isEmpty()) return;
-
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime targetTime = adjustForBusinessHours(now);
-        boolean isNightBan = targetTime.isAfter(now);
 
-        if (isNightBan) {
-            List<Long> ids = fallbackList.stream().map(DeliveryRetryDto::getInvoiceId).toList();
-            statusRepository.postponeDelivery(ids, targetTime);
-            log.info("🌙 [SMS전환 제한] 야간이라 {}건을 내일 아침으로 연기", ids.size());
-            return;
+        int total = 0;
+        long cursor = 0L;
+        int pageSize = pageSize();
+        try {
+            for (int page = 0; retryProperties.hasMorePages(page); page++) {
+                List<Claimed> claimed = claimService.claimFallbackPage(MAX_RETRY_COUNT, cursor, pageSize);
+                if (claimed.isEmpty()) break;
+                cursor = claimed.get(claimed.size() - 1).target().getInvoiceId();
+
+                total += enqueueClaimed(claimed, dto -> DeliveryPayload.of(dto, "SMS", 0, now), "SMS 전환");
+                if (claimed.size() < pageSize) break;
+            }
+        } catch (Exception e) {
+            log.error("🚨 [SMS 전환] 처리 중단 ({}건 적재 후): {}", total, e.getMessage());
         }
+        if (total > 0) {
+            log.info("✅ [SMS 전환] {}건 Redis 적재 완료", total);
+        }
+    }
 
-        RBatch batch = redissonClient.createBatch();
-        RScoredSortedSetAsync<String> batchZset = batch.getScoredSortedSet(DELAY_ZSET, StringCodec.INSTANCE);
-        long delayUntil = System.currentTimeMillis() + 1000;
-
-        for (DeliveryRetryDto dto : fallbackList) {
+    /**
+     * 선점 때 정한 발송 시각 그대로 적재한다 (지난 시각은 스트림에 바로, 나머지는 지연 큐 버킷에).
+     */
+    private int enqueueClaimed(List<Claimed> claimed, Function<DeliveryRetryDto, DeliveryPayload> toPayload, String label) {
+        List<DeliveryPayload> payloads = new ArrayList<>(claimed.size());
+        Map<Long, Long> releaseAtMillis = new HashMap<>(claimed.size() * 2);
+        for (Claimed c : claimed) {
             try {
-                Map<String, String> payload = new HashMap<>();
-                payload.put("invoice_id", String.valueOf(dto.getInvoiceId()));
-                payload.put("delivery_channel", "SMS");
-                payload.put("retry_count", "0");
-                payload.put("email", dto.getEmail());
-                payload.put("phone", dto.getPhone());
-                payload.put("recipient_name", dto.getRecipientName());
-                payload.put("total_amount", String.valueOf(dto.getTotalAmount()));
-                payload.put("requested_at", now.toString());
-
-                batchZset.addAsync(delayUntil, objectMapper.writeValueAsString(payload));
-                statusRepository.switchToSms(dto.getInvoiceId());
+                payloads.add(toPayload.apply(c.target()));
+                releaseAtMillis.put(c.target().getInvoiceId(), c.releaseAtMillis());
             } catch (Exception e) {
-                log.error("❌ SMS 전환 실패 (ID: {})", dto.getInvoiceId());
+                log.error("❌ {} 실패 (ID: {})", label, c.target().getInvoiceId());
             }
         }
-        batch.execute();
-        log.info("✅ [SMS 전환] {}건 Redis 적재 완료", fallbackList.size());
+        return deliveryEnqueuer.enqueue(payloads, payload -> releaseAtMillis.get(payload.getInvoiceId()));
     }
 
-    private LocalDateTime adjustForBusinessHours(LocalDateTime targetTime) {
-        int hour = targetTime.getHour();
-        if (hour >= BAN_START_HOUR) {
-            return targetTime.plusDays(1).withHour(BAN_END_HOUR).withMinute(0).withSecond(0);
-        }
-        if (hour < BAN_END_HOUR) {
-            return targetTime.withHour(BAN_END_HOUR).withMinute(0).withSecond(0);
-        }
-        return targetTime;
+    private int pageSize() {
+        return Math.max(retryProperties.getPageSize(), 1);
     }
 }
\ No newline at end of file
@@ -1,97 +1,118 @@
 package com.mycom.myapp.sendapp.delivery.scheduler;
 
-import static com.mycom.myapp.sendapp.delivery.config.DeliveryRedisKey.DELAY_ZSET;
-
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
-import org.redisson.api.RBatch;
-import org.redisson.api.RScoredSortedSetAsync;
-import org.redisson.api.RedissonClient;
-import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycom.myapp.sendapp.delivery.config.DeliveryTransferProperties;
+import com.mycom.myapp.sendapp.delivery.dto.DeliveryPayload;
 import com.mycom.myapp.sendapp.delivery.dto.DeliveryRetryDto;
 import com.mycom.myapp.sendapp.delivery.repository.DeliveryStatusRepository;
+import com.mycom.myapp.sendapp.delivery.service.DeliveryCalendar;
+import com.mycom.myapp.sendapp.delivery.service.DeliveryEnqueuer;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * 예약(SCHEDULED) 건 안전망.
+ *
+ * 예약 건은 로더가 적재 시점에 발송 시각(DeliveryCalendar)을 정해 지연 큐 버킷에 바로 싣고, 그 시각에 DelayedTransferer가 내보낸다.
+ * 백오프/야간으로 미뤄진 재발송·SMS 전환 건도 SCHEDULED로 기다리므로 채널/회차는 행 값을 그대로 쓴다.
+ * 여기서는 발송 시각이 grace-minutes 넘게 지났는데도 SCHEDULED로 남은 건(Redis 유실, 배포 전 09:00 정각으로 연기된 건 등)만 드물게 다시 싣는다.
+ * 한꺼번에 몰리지 않도록 recovery-page-size 건씩 나눠 읽고, 건마다 이관 속도(release-per-second) 간격의 발송 시각을 배정한다.
+ *
+ * 페이지마다 UPDATE ... LIMIT 으로 CLAIMED + 토큰을 먼저 찍고(선점), 그 토큰으로 읽어 적재한 뒤 실제로 실은 건만 건별 배정 시각으로 SCHEDULED에 되돌린다.
+ * 여러 노드가 같은 cron으로 돌아도 한 건은 한 노드만 싣고, 선점한 채 죽은 노드의 건과 싣지 못한 건은 claim-timeout 뒤 SCHEDULED로 돌아간다.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class DeliveryScheduledWorker {
 
     private final DeliveryStatusRepository statusRepository;
-    private final RedissonClient redissonClient;
-    private final ObjectMapper objectMapper;
+    private final DeliveryEnqueuer deliveryEnqueuer;
+    private final DeliveryTransferProperties transferProperties;
+    private final DeliveryCalendar calendar;
+
+    @Value("${app.delivery.schedule.recovery-grace-minutes}")
+    private long graceMinutes;
 
-    private static final int BAN_START_HOUR = 21; 
-    private static final int BAN_END_HOUR = 9;  
+    @Value("${app.delivery.schedule.recovery-page-size}")
+    private int pageSize;
 
-    // ⏰ 1분마다 실행
-    @Scheduled(cron = "0 * * * * *")
-    @Transactional
+    @Value("${app.delivery.schedule.claim-timeout-minutes}")
+    private long claimTimeoutMinutes;
+
+    @Scheduled(cron = "${app.delivery.schedule.recovery-cron}")
     public void processScheduled() {
         LocalDateTime now = LocalDateTime.now();
-        List<DeliveryRetryDto> targets = statusRepository.findScheduledTargets(now);
-        if (targets.isEmpty()) return;
-
-        // ★ 안전장치: 혹시라도 지금이 금지 시간대라면 다시 미뤄야 함
-        LocalDateTime adjustedTime = adjustForBusinessHours(now);
-        if (adjustedTime.isAfter(now)) {
-            List<Long> ids = targets.stream().map(DeliveryRetryDto::getInvoiceId).toList();
-            statusRepository.postponeDelivery(ids, adjustedTime);
-            log.warn("⏰ [예약 보호] 야간({})이라 {}건을 다시 내일 아침으로 연기", now, ids.size());
-            return;
+        LocalDateTime dueBefore = now.minusMinutes(graceMinutes);
+        int size = Math.max(pageSize, 1);
+
+        int recovered = statusRepository.recoverStaleClaims(now.minusMinutes(claimTimeoutMinutes));
+        if (recovered > 0) {
+            log.warn("⏰ [예약 복구] {}분 넘게 선점된 채 남은 {}건을 SCHEDULED로 되돌림", claimTimeoutMinutes, recovered);
         }
 
-        RBatch batch = redissonClient.createBatch();
-        RScoredSortedSetAsync<String> batchZset = batch.getScoredSortedSet(DELAY_ZSET, StringCodec.INSTANCE);
-        long delayUntil = System.currentTimeMillis() + 1000;
-        
-        List<Long> processedIds = new ArrayList<>();
-
-        for (DeliveryRetryDto target : targets) {
-            try {
-                Map<String, String> payload = new HashMap<>();
-                payload.put("invoice_id", String.valueOf(target.getInvoiceId()));
-                payload.put("delivery_channel", "EMAIL");
-                payload.put("retry_count", "0");
-                payload.put("email", target.getEmail());
-                payload.put("phone", target.getPhone());
-                payload.put("recipient_name", target.getRecipientName());
-                payload.put("total_amount", String.valueOf(target.getTotalAmount()));
-                payload.put("requested_at", now.toString());
-
-                batchZset.addAsync(delayUntil, objectMapper.writeValueAsString(payload));
-                processedIds.add(target.getInvoiceId());
-            } catch (Exception e) {
-                log.error("❌ 예약 건 처리 실패 (ID: {})", target.getInvoiceId());
+        long firstSlotMillis = System.currentTimeMillis() + 1000; // 스트림 직행 대신 지연 큐 버킷을 거쳐 속도 상한을 따르게
+        long slot = 0;
+        int total = 0;
+        while (true) {
+            String claimToken = UUID.randomUUID().toString();
+            int claimed = statusRepository.claimScheduledTargets(dueBefore, claimToken, size);
+            if (claimed == 0) break;
+
+            List<DeliveryRetryDto> targets = statusRepository.findClaimedTargets(claimToken);
+
+            List<DeliveryPayload> payloads = new ArrayList<>(targets.size());
+            Map<Long, Long> releaseAtMillis = new HashMap<>(targets.size() * 2);
+
+            for (DeliveryRetryDto target : targets) {
+                try {
+                    payloads.add(DeliveryPayload.of(target, target.getDeliveryChannel(), target.getRetryCount(), now));
+                    // 배정 시각이 금지 시간대/휴일이면 다음 개시 시각으로 (DB의 scheduled_at도 같은 시각으로 남긴다)
+                    long releaseAt = calendar.releaseAtMillis(slotMillis(firstSlotMillis, slot++), target.getInvoiceId());
+                    releaseAtMillis.put(target.getInvoiceId(), releaseAt);
+                } catch (Exception e) {
+                    // CLAIMED로 남겨 claim-timeout 뒤 되돌린다 (READY로 바꾸면 아무도 싣지 않는다)
+                    log.error("❌ 예약 건 처리 실패 (ID: {})", target.getInvoiceId());
+                }
             }
+            if (payloads.isEmpty()) {
+                if (claimed < size) break;
+                continue;
+            }
+
+            // 적재 실패 시 예외로 중단 -> 이번 페이지는 CLAIMED로 남고 claim-timeout 뒤 다시 선점된다
+            deliveryEnqueuer.enqueue(payloads, payload -> releaseAtMillis.get(payload.getInvoiceId()));
+
+            Map<Long, LocalDateTime> scheduledAt = new HashMap<>(releaseAtMillis.size() * 2);
+            releaseAtMillis.forEach((id, millis) -> scheduledAt.put(id, LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault())));
+            statusRepository.rescheduleClaimed(claimToken, scheduledAt);
+            total += payloads.size();
+
+            if (claimed < size) break;
         }
 
-        if (!processedIds.isEmpty()) {
-            batch.execute();
-            statusRepository.updateStatusToReadyBatch(processedIds);
-            log.info("✅ 예약 발송 {}건 Redis 이관 완료", processedIds.size());
+        if (total > 0) {
+            log.warn("⏰ [예약 복구] 발송 시각이 {}분 넘게 지난 예약 {}건 재적재 (약 {}초에 걸쳐 발송)",
+                    graceMinutes, total, (slotMillis(firstSlotMillis, slot) - firstSlotMillis) / 1000);
         }
     }
 
-    private LocalDateTime adjustForBusinessHours(LocalDateTime targetTime) {
-        int hour = targetTime.getHour();
-        if (hour >= BAN_START_HOUR) {
-            return targetTime.plusDays(1).withHour(BAN_END_HOUR).withMinute(0).withSecond(0);
-        }
-        if (hour < BAN_END_HOUR) {
-            return targetTime.withHour(BAN_END_HOUR).withMinute(0).withSecond(0);
-        }
-        return targetTime;
+    // n번째 건의 발송 시각: 이관 속도 간격으로 차례대로 (속도 제한이 없으면 모두 같은 시각)
+    private long slotMillis(long firstSlotMillis, long slot) {
+        int perSecond = transferProperties.getReleasePerSecond();
+        return perSecond <= 0 ? firstSlotMillis : firstSlotMillis + slot * 1000L / perSecond;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package com.mycom.myapp.sendapp.delivery.scheduler;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.mycom.myapp.sendapp.delivery.repository.DeliverySummaryRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DeliverySummaryReconciler {
+
+    private final DeliverySummaryRepository summaryRepository;
+
+    @Value("${app.delivery.summary.reconcile-lookback-hours}")
+    private long lookbackHours;
+
+    // delivery_summary는 결과 반영 트랜잭션에서 증가분으로 유지되므로,
+    // 이력 전체 재집계는 최근 갱신된 월만 대상으로 하루 한 번 대사(reconciliation)할 때만 실행
+    // (재집계 결과가 기존과 같으면 updated_at이 그대로라, 발송이 끝난 월은 대사 한 번 뒤로 다시 뽑히지 않는다)
+    @Scheduled(cron = "${app.delivery.summary.reconcile-cron}")
+    public void reconcile() {
+        List<Integer> months = summaryRepository.findMonthsUpdatedSince(LocalDateTime.now().minusHours(lookbackHours));
+        if (months.isEmpty()) return;
+
+        for (Integer billingYyyymm : months) {
+            try {
+                summaryRepository.rebuildSummary(billingYyyymm);
+                log.info("📊 [Summary] {}월분 통계 대사 완료", billingYyyymm);
+            } catch (Exception e) {
+                log.error("🚨 [Summary] {}월분 통계 대사 실패: {}", billingYyyymm, e.getMessage());
+            }
+        }
+    }
+}
@@ -3,11 +3,13 @@ package com.mycom.myapp.sendapp.delivery.scheduler;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import com.mycom.myapp.sendapp.delivery.dto.DeliveryRetryDto;
 import com.mycom.myapp.sendapp.delivery.repository.DeliveryStatusRepository;
+import com.mycom.myapp.sendapp.delivery.service.DeliveryCalendar;
 import com.mycom.myapp.sendapp.delivery.service.DeliveryLoaderService;
 
 import lombok.RequiredArgsConstructor;
@@ -20,13 +22,26 @@ public class DeliverySyncWorker {
 
     private final DeliveryStatusRepository statusRepository;
     private final DeliveryLoaderService loaderService;
+    private final DeliveryCalendar calendar;
+
+    @Value("${app.delivery.sync.threshold-minutes}")
+    private long thresholdMinutes;
     
-    @Scheduled(cron = "0 0/30 * * * *") // 30분 주기
+    // 스트림 Pending 회수는 DeliveryPendingReclaimer가 수 초 단위로 처리하므로,
+    // 조인 기반 전체 스캔은 Redis 자체 유실(재시작/flush 등) 대비 최후 안전망으로만 드물게 실행
+    @Scheduled(cron = "${app.delivery.sync.cron}")
     public void syncLostDeliveries() {
-        // 1. 1시간 전을 기준으로 그보다 오래된 READY/PROCESSING 데이터 조회
-        LocalDateTime threshold = LocalDateTime.now().minusMinutes(30);
+        // 1. threshold-minutes 전을 기준으로 그보다 오래된 READY/PROCESSING 데이터 조회
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime threshold = now.minusMinutes(thresholdMinutes);
+
+        // 발송 금지 시간대/휴일에 다시 실어도 개시 시각까지 지연 큐에 머물 뿐이고, 그 사이 실행마다 사본만 쌓인다
+        if (!calendar.isSendable(now)) {
+            log.info("🔍 [Sync] 발송 금지 시간대라 유실 스캔을 건너뜁니다.");
+            return;
+        }
         
-        log.info("🔍 [Sync] 유실 데이터 스캔 시작 (기준: 1시간 전)");
+        log.info("🔍 [Sync] 유실 데이터 스캔 시작 (기준: {}분 전)", thresholdMinutes);
         
         // 상세 조인 정보를 포함한 DTO 리스트 가져오기
         List<DeliveryRetryDto> lostTargets = statusRepository.findZombieTargets(threshold);
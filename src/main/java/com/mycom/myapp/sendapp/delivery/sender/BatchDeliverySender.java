@@ -0,0 +1,27 @@
+package com.mycom.myapp.sendapp.delivery.sender;
+
+import java.util.List;
+
+import com.mycom.myapp.sendapp.delivery.dto.DeliveryPayload;
+import com.mycom.myapp.sendapp.delivery.dto.SendResponse;
+
+/**
+ * 여러 건을 한 번의 공급자 호출로 보낼 수 있는 발송기.
+ * DeliveryProcessor는 청크를 채널별로 묶어 maxBatchSize 단위로 sendBatch를 호출하고,
+ * 이 인터페이스를 구현하지 않은 발송기는 건별 send로 보낸다.
+ */
+public interface BatchDeliverySender extends DeliverySender {
+
+	/**
+	 * @return payloads와 같은 순서/크기의 건별 결과
+	 */
+	List<SendResponse> sendBatch(List<DeliveryPayload> payloads);
+
+	/** 공급자가 한 번에 받는 최대 건수 */
+	int maxBatchSize();
+
+	/** false면 (예: 게이트웨이 미설정) 건별 send 경로로 보낸다 */
+	default boolean batchAvailable() {
+		return true;
+	}
+}
@@ -0,0 +1,264 @@
+package com.mycom.myapp.sendapp.delivery.sender;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycom.myapp.sendapp.delivery.config.DeliveryGatewayProperties;
+import com.mycom.myapp.sendapp.delivery.dto.SendResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 대량 발송 게이트웨이 HTTP 클라이언트 (JSON, 호출 1회 = 메시지 N건).
+ *
+ * 요청: POST {url}  {"channel":"EMAIL","messages":[{"id":1,"to":"...","subject":"...","body":"..."}]}
+ * 응답: 200        {"results":[{"id":1,"status":"SENT","error":null}]}
+ *
+ * - 응답에 없는 건은 GATEWAY_NO_RESULT, HTTP 오류/통신 실패는 묶음 전체를 실패로 돌려준다 (재발송 경로가 처리).
+ * - 요청 본문은 버퍼 하나에 직접 기록한다. BodyWriter 메시지(이메일 HTML)는 렌더러가 JSON 문자열 이스케이프 스트림에 바로 쓰므로
+ *   건별 String/중간 byte[]를 만들지 않는다. 본문 기록에 실패한 건은 요청에서 빼고 RENDER_ERROR로 돌려준다.
+ */
+@Slf4j
+@Component
+public class BulkGatewayClient {
+
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+
+    public BulkGatewayClient(ObjectMapper objectMapper, DeliveryGatewayProperties properties) {
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(properties.getConnectTimeoutMillis()))
+                .build();
+        this.requestTimeout = Duration.ofMillis(properties.getRequestTimeoutMillis());
+    }
+
+    /**
+     * 메시지 본문을 요청 본문(out)에 UTF-8로 직접 기록한다.
+     */
+    @FunctionalInterface
+    public interface BodyWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * @param body       본문 문자열 (bodyWriter가 있으면 무시)
+     * @param bodyWriter 본문을 직접 기록하는 쪽 (없으면 body 사용)
+     */
+    public record Message(long id, String to, String subject, String body, BodyWriter bodyWriter) {
+        public Message(long id, String to, String subject, String body) {
+            this(id, to, subject, body, null);
+        }
+
+        public static Message streamed(long id, String to, String subject, BodyWriter bodyWriter) {
+            return new Message(id, to, subject, null, bodyWriter);
+        }
+    }
+
+    record Result(long id, String status, String error) {}
+
+    record Response(List<Result> results) {}
+
+    /**
+     * @return messages와 같은 순서/크기의 건별 결과
+     */
+    public List<SendResponse> submit(String url, String channel, List<Message> messages) {
+        if (messages.isEmpty()) return new ArrayList<>();
+
+        SendResponse[] responses = new SendResponse[messages.size()]; // 본문 기록 실패 건은 미리 채워진다
+        RequestBuffer body = new RequestBuffer(messages.size() * 256);
+        int written = writeRequest(body, channel, messages, responses);
+        if (written == 0) return new ArrayList<>(Arrays.asList(responses));
+
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body.buffer(), 0, body.size()))
+                    .build();
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+            if (response.statusCode() / 100 != 2) {
+                log.error("[Gateway] {} 호출 실패 - HTTP {} ({}건)", channel, response.statusCode(), written);
+                return failRemaining(responses, "GATEWAY_HTTP_" + response.statusCode());
+            }
+
+            Response parsed = objectMapper.readValue(response.body(), Response.class);
+            Map<Long, Result> byId = new HashMap<>(messages.size() * 2);
+            if (parsed != null && parsed.results() != null) {
+                for (Result result : parsed.results()) byId.put(result.id(), result);
+            }
+
+            for (int i = 0; i < messages.size(); i++) {
+                if (responses[i] != null) continue;
+                Result result = byId.get(messages.get(i).id());
+                if (result == null) {
+                    responses[i] = SendResponse.fail("GATEWAY_NO_RESULT");
+                } else if ("SENT".equals(result.status())) {
+                    responses[i] = SendResponse.success();
+                } else {
+                    responses[i] = SendResponse.fail(result.error() == null ? "GATEWAY_REJECTED" : result.error());
+                }
+            }
+            return new ArrayList<>(Arrays.asList(responses));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failRemaining(responses, "GATEWAY_INTERRUPTED");
+        } catch (IOException | RuntimeException e) {
+            log.error("[Gateway] {} 통신 실패 ({}건): {}", channel, written, e.toString());
+            return failRemaining(responses, "GATEWAY_IO_ERROR");
+        }
+    }
+
+    /**
+     * {"channel":..,"messages":[{"id":..,"to":..,"subject":..,"body":..}, ..]}
+     * @return 요청에 실은 건수
+     */
+    private int writeRequest(RequestBuffer out, String channel, List<Message> messages, SendResponse[] responses) {
+        out.writeAscii("{\"channel\":");
+        out.writeJsonString(channel);
+        out.writeAscii(",\"messages\":[");
+
+        int written = 0;
+        for (int i = 0; i < messages.size(); i++) {
+            Message message = messages.get(i);
+            int mark = out.size();
+            if (written > 0) out.write(',');
+            out.writeAscii("{\"id\":" + message.id() + ",\"to\":");
+            out.writeJsonString(message.to());
+            out.writeAscii(",\"subject\":");
+            out.writeJsonString(message.subject());
+            out.writeAscii(",\"body\":");
+            if (message.bodyWriter() == null) {
+                out.writeJsonString(message.body());
+            } else {
+                out.write('"');
+                try {
+                    message.bodyWriter().writeTo(out.jsonStringStream());
+                } catch (Exception e) {
+                    out.truncate(mark); // 이 건만 요청에서 뺀다
+                    log.error("[Gateway] {} 본문 기록 실패 - id={}, err={}", channel, message.id(), e.toString());
+                    responses[i] = SendResponse.fail("RENDER_ERROR");
+                    continue;
+                }
+                out.write('"');
+            }
+            out.write('}');
+            written++;
+        }
+        out.writeAscii("]}");
+        return written;
+    }
+
+    private static List<SendResponse> failRemaining(SendResponse[] responses, String reason) {
+        SendResponse failure = SendResponse.fail(reason);
+        for (int i = 0; i < responses.length; i++) {
+            if (responses[i] == null) responses[i] = failure;
+        }
+        return new ArrayList<>(Arrays.asList(responses));
+    }
+
+    /**
+     * 요청 본문 버퍼. 내부 배열을 그대로 BodyPublisher에 넘기고(복사 없음), 실패한 건은 truncate로 되돌린다.
+     */
+    private static final class RequestBuffer extends ByteArrayOutputStream {
+        private final OutputStream jsonString = new JsonStringOutputStream(this);
+
+        RequestBuffer(int initialCapacity) {
+            super(initialCapacity);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+
+        void truncate(int size) {
+            count = size;
+        }
+
+        void writeAscii(String text) {
+            writeBytes(text.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        void writeJsonString(String value) {
+            if (value == null) {
+                writeAscii("null");
+                return;
+            }
+            write('"');
+            writeBytes(JsonStringEncoder.getInstance().quoteAsUTF8(value));
+            write('"');
+        }
+
+        /** 따옴표 안쪽: 기록되는 UTF-8 바이트를 JSON 문자열로 이스케이프한다 */
+        OutputStream jsonStringStream() {
+            return jsonString;
+        }
+    }
+
+    /**
+     * UTF-8 바이트 -> JSON 문자열 내용. 멀티바이트 문자의 바이트는 모두 0x80 이상이라 바이트 단위로 이스케이프해도 안전하다.
+     */
+    private static final class JsonStringOutputStream extends OutputStream {
+        private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+        private final ByteArrayOutputStream out;
+
+        JsonStringOutputStream(ByteArrayOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) {
+            escape(b & 0xFF);
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) {
+            int run = off;
+            int end = off + len;
+            for (int i = off; i < end; i++) {
+                int b = bytes[i] & 0xFF;
+                if (b >= 0x20 && b != '"' && b != '\\') continue;
+                out.write(bytes, run, i - run); // 이스케이프가 필요 없는 구간은 한 번에 복사
+                escape(b);
+                run = i + 1;
+            }
+            out.write(bytes, run, end - run);
+        }
+
+        private void escape(int b) {
+            switch (b) {
+                case '"' -> { out.write('\\'); out.write('"'); }
+                case '\\' -> { out.write('\\'); out.write('\\'); }
+                case '\n' -> { out.write('\\'); out.write('n'); }
+                case '\r' -> { out.write('\\'); out.write('r'); }
+                case '\t' -> { out.write('\\'); out.write('t'); }
+                default -> {
+                    if (b >= 0x20) {
+                        out.write(b);
+                    } else {
+                        out.write('\\'); out.write('u'); out.write('0'); out.write('0');
+                        out.write(HEX[b >> 4]); out.write(HEX[b & 0xF]);
+                    }
+                }
+            }
+        }
+    }
+}
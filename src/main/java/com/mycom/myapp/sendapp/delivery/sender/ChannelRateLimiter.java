@@ -0,0 +1,220 @@
+package com.mycom.myapp.sendapp.delivery.sender;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.redisson.api.RAtomicLong;
+import org.redisson.api.RLock;
+import org.redisson.api.RRateLimiter;
+import org.redisson.api.RateType;
+import org.redisson.api.RedissonClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.mycom.myapp.sendapp.delivery.config.DeliveryRateLimitProperties;
+import com.mycom.myapp.sendapp.delivery.dto.SendResponse;
+import com.mycom.myapp.sendapp.delivery.entity.enums.DeliveryChannelType;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * DeliverySender 앞단의 채널별 속도 제한 (노드 공용 토큰 버킷 + AIMD).
+ *
+ * - 토큰은 Redis(RRateLimiter: billing:delivery:rate:{채널})에서 acquire-batch 단위로 받아 로컬에서 나눠 쓴다.
+ *   Redis 대기는 로컬 잠금 밖에서 한다 (한 스레드가 토큰을 기다리는 동안 남은 로컬 토큰을 다른 스레드가 쓸 수 있다).
+ * - 발송 건수/실패 건수는 노드별로 모았다가 주기마다 공용 카운터(:total / :failed)에 더한다.
+ *   속도 조정은 주기마다 조정 잠금(:adjust)을 잡은 한 노드만 공용 카운터로 판단해 setRate 한다. 잠금은 주기 길이만큼 유지해
+ *   같은 주기에 다른 노드가 다시 판단하지 않게 하고, 나머지 노드는 공용 버킷의 속도를 읽어 로컬 배치 크기만 맞춘다.
+ * - Redis 오류 시에는 제한 없이 통과시킨다 (속도 제한 때문에 발송 자체가 실패로 기록되지 않도록, 경고 로그만 남긴다).
+ * - 설정이 없는 채널이나 enabled=false 이면 아무것도 하지 않는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChannelRateLimiter {
+
+    private static final String KEY_PREFIX = "billing:delivery:rate:";
+    private static final long FAIL_OPEN_LOG_INTERVAL_MILLIS = 10_000L;
+
+    private final RedissonClient redissonClient;
+    private final DeliveryRateLimitProperties properties;
+
+    private final Map<DeliveryChannelType, Bucket> buckets = new EnumMap<>(DeliveryChannelType.class);
+
+    // 컨슈머가 시작되기 전에(빈 초기화 시점) 버킷을 모두 만들어 두고 이후에는 읽기만 한다
+    @PostConstruct
+    public void init() {
+        if (!properties.isEnabled() || properties.getPermitsPerSecond() == null) return;
+
+        properties.getPermitsPerSecond().forEach((channel, ceiling) -> {
+            if (ceiling == null || ceiling <= 0) return;
+            String key = KEY_PREFIX + channel.name();
+            Bucket bucket = new Bucket(channel, redissonClient.getRateLimiter(key), ceiling,
+                    redissonClient.getAtomicLong(key + ":total"), redissonClient.getAtomicLong(key + ":failed"),
+                    redissonClient.getLock(key + ":adjust"));
+            bucket.initRate();
+            buckets.put(channel, bucket);
+            log.info(">>> 발송 속도 제한: {} {}/s (상한 {}/s)", channel, bucket.rate, ceiling);
+        });
+    }
+
+    /**
+     * 발송 1건분 토큰을 받을 때까지 대기한다.
+     */
+    public void acquire(DeliveryChannelType channel) {
+        acquire(channel, 1);
+    }
+
+    /**
+     * 묶음 발송(BatchDeliverySender)분 토큰을 한꺼번에 받는다.
+     */
+    public void acquire(DeliveryChannelType channel, int permits) {
+        Bucket bucket = bucketOf(channel);
+        if (bucket != null) bucket.take(permits, Math.max(properties.getAcquireBatch(), 1));
+    }
+
+    /**
+     * 발송 결과를 AIMD 집계에 반영한다.
+     */
+    public void record(DeliveryChannelType channel, SendResponse response) {
+        Bucket bucket = bucketOf(channel);
+        if (bucket == null) return;
+        bucket.total.increment();
+        if (response == null || !"SENT".equals(response.getStatus())) bucket.failed.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${app.delivery.rate-limit.adjust-interval-millis:5000}")
+    public void adjust() {
+        buckets.forEach((channel, bucket) -> {
+            try {
+                bucket.publishSamples();
+                if (!bucket.adjustLock.tryLock(0, properties.getAdjustIntervalMillis(), TimeUnit.MILLISECONDS)) {
+                    bucket.syncRate(); // 다른 노드가 판단 -> 조정된 속도만 따른다
+                    return;
+                }
+                // 잠금은 풀지 않는다: 주기 길이만큼 유지되어 이번 주기의 판단은 이 노드 한 번뿐이다
+                decide(channel, bucket);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("[RateLimit] {} 속도 조정 실패: {}", channel, e.getMessage());
+            }
+        });
+    }
+
+    private void decide(DeliveryChannelType channel, Bucket bucket) {
+        long total = bucket.sharedTotal.get();
+        if (total < properties.getMinSamples()) return; // 표본이 쌓일 때까지 카운터를 유지한다
+        long failed = Math.min(bucket.sharedFailed.get(), total);
+        // 읽은 만큼만 뺀다 (읽는 사이 다른 노드가 더한 건은 다음 주기로 넘어간다)
+        bucket.sharedTotal.addAndGet(-total);
+        bucket.sharedFailed.addAndGet(-failed);
+
+        double failureRate = (double) failed / total;
+        bucket.syncRate();
+        int current = bucket.rate;
+        int next = failureRate > properties.getFailureRateThreshold()
+                ? Math.max((int) (current * properties.getDecreaseFactor()), properties.getMinPermitsPerSecond())
+                : Math.min(current + properties.getIncreaseStep(), bucket.ceiling);
+        if (next == current) return;
+
+        bucket.applyRate(next);
+        log.info("[RateLimit] {} {}/s -> {}/s (실패율 {}%, 표본 {})",
+                channel, current, next, String.format("%.1f", failureRate * 100), total);
+    }
+
+    private Bucket bucketOf(DeliveryChannelType channel) {
+        return channel == null || buckets.isEmpty() ? null : buckets.get(channel);
+    }
+
+    private static final class Bucket {
+        private final DeliveryChannelType channel;
+        private final RRateLimiter limiter;
+        private final int ceiling;
+        private final RAtomicLong sharedTotal;
+        private final RAtomicLong sharedFailed;
+        private final RLock adjustLock;
+        private final LongAdder total = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private volatile int rate;
+        private volatile long failOpenLoggedAt;
+        private int localPermits; // guarded by this
+
+        Bucket(DeliveryChannelType channel, RRateLimiter limiter, int ceiling,
+               RAtomicLong sharedTotal, RAtomicLong sharedFailed, RLock adjustLock) {
+            this.channel = channel;
+            this.limiter = limiter;
+            this.ceiling = ceiling;
+            this.sharedTotal = sharedTotal;
+            this.sharedFailed = sharedFailed;
+            this.adjustLock = adjustLock;
+            this.rate = ceiling;
+        }
+
+        /**
+         * 처음 뜨는 노드만 상한으로 설정한다. 이미 있으면 다른 노드가 조정 중인 속도를 이어받고,
+         * 상한이 그보다 낮아졌을 때(설정 변경)만 덮어쓴다.
+         */
+        void initRate() {
+            if (limiter.trySetRate(RateType.OVERALL, ceiling, Duration.ofSeconds(1))) return;
+            syncRate();
+            if (rate > ceiling) applyRate(ceiling);
+        }
+
+        void applyRate(int permitsPerSecond) {
+            limiter.setRate(RateType.OVERALL, permitsPerSecond, Duration.ofSeconds(1));
+            rate = permitsPerSecond;
+        }
+
+        void syncRate() {
+            Long shared = limiter.getConfig().getRate();
+            if (shared != null && shared > 0) rate = (int) Math.min(shared, Integer.MAX_VALUE);
+        }
+
+        void publishSamples() {
+            long sent = total.sumThenReset();
+            long failures = failed.sumThenReset();
+            if (sent > 0) sharedTotal.addAndGet(sent);
+            if (failures > 0) sharedFailed.addAndGet(failures);
+        }
+
+        void take(int needed, int batch) {
+            int remaining = takeLocal(needed);
+            while (remaining > 0) {
+                // 한 번에 받는 토큰 수는 초당 속도를 넘을 수 없다 (속도가 낮아지면 배치도 줄어든다)
+                int permits = Math.max(Math.min(Math.max(batch, remaining), rate), 1);
+                try {
+                    limiter.acquire(permits); // 로컬 잠금 밖에서 대기
+                } catch (RuntimeException e) {
+                    failOpen(e);
+                    return;
+                }
+                int used = Math.min(permits, remaining);
+                remaining -= used;
+                if (permits > used) returnLocal(permits - used);
+            }
+        }
+
+        private synchronized int takeLocal(int needed) {
+            int used = Math.min(localPermits, needed);
+            localPermits -= used;
+            return needed - used;
+        }
+
+        private synchronized void returnLocal(int permits) {
+            localPermits += permits;
+        }
+
+        private void failOpen(RuntimeException e) {
+            long now = System.currentTimeMillis();
+            if (now - failOpenLoggedAt < FAIL_OPEN_LOG_INTERVAL_MILLIS) return;
+            failOpenLoggedAt = now;
+            log.warn("[RateLimit] {} 토큰 버킷 사용 불가 - 제한 없이 발송합니다: {}", channel, e.getMessage());
+        }
+    }
+}
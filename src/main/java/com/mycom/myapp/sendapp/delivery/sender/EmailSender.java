@@ -1,14 +1,19 @@
 package com.mycom.myapp.sendapp.delivery.sender;
 
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.springframework.stereotype.Component;
 
+import com.mycom.myapp.sendapp.delivery.config.DeliveryGatewayProperties;
 import com.mycom.myapp.sendapp.delivery.dto.DeliveryPayload;
 import com.mycom.myapp.sendapp.delivery.dto.SendResponse;
 import com.mycom.myapp.sendapp.delivery.processor.TemplateRenderer;
 import com.mycom.myapp.sendapp.global.crypto.ContactProtector;
+import com.mycom.myapp.sendapp.global.crypto.EncryptedString;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,53 +21,114 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class EmailSender implements DeliverySender {
-	
+public class EmailSender implements BatchDeliverySender {
+
 	private final TemplateRenderer templateRenderer;
 	private final ContactProtector protector;
+	private final BulkGatewayClient gatewayClient;
+	private final DeliveryGatewayProperties gatewayProperties;
 	private final AtomicInteger saved = new AtomicInteger(0);
-	
+
 	@Override
     public boolean supports(String channel) {
         return "EMAIL".equalsIgnoreCase(channel);
     }
-	
+
+	@Override
+	public int maxBatchSize() {
+		return Math.max(gatewayProperties.getBatchSize(), 1);
+	}
+
+	@Override
+	public boolean batchAvailable() {
+		return gatewayEnabled();
+	}
+
 	@Override
     public SendResponse send(DeliveryPayload payload) {
-		
-		try {
-            // HTML 템플릿 렌더링
-			String htmlContent = templateRenderer.render(payload);
-			
-			try {
-			    htmlContent = templateRenderer.render(payload);
-			} catch (Exception e) {
-			    log.error("템플릿 렌더 실패 - invoiceId={}, err={}", payload.getInvoiceId(), e.toString(), e);
-			    
+		if (!gatewayEnabled()) return mockSend(payload);
+		return sendBatch(List.of(payload)).get(0);
+	}
+
+	/**
+	 * 게이트웨이 1회 호출로 묶음 발송: 수신 주소 일괄 복호화 -> 건별 HTML을 요청 본문에 바로 렌더링 -> 한 요청으로 전송
+	 * (renderTo가 풀링 버퍼에서 요청 본문으로 옮기므로 건별 HTML String을 만들지 않는다. 렌더링 실패 건은 RENDER_ERROR)
+	 */
+	@Override
+	public List<SendResponse> sendBatch(List<DeliveryPayload> payloads) {
+		List<SendResponse> responses = new ArrayList<>(payloads.size());
+		if (!gatewayEnabled()) {
+			for (DeliveryPayload payload : payloads) responses.add(mockSend(payload));
+			return responses;
+		}
+
+		List<EncryptedString> encs = new ArrayList<>(payloads.size());
+		for (DeliveryPayload payload : payloads) encs.add(parseOrNull(payload.getEncEmail()));
+		List<String> receivers = protector.plainEmails(encs, null);
+
+		List<BulkGatewayClient.Message> messages = new ArrayList<>(payloads.size());
+		List<Integer> slots = new ArrayList<>(payloads.size());
+		for (int i = 0; i < payloads.size(); i++) {
+			DeliveryPayload payload = payloads.get(i);
+			String to = encs.get(i) == null ? null : receivers.get(i);
+			if (to == null || to.isBlank()) {
+				responses.add(SendResponse.fail("INVALID_RECEIVER"));
+				continue;
 			}
+			messages.add(BulkGatewayClient.Message.streamed(payload.getInvoiceId(), to,
+					payload.getBillingYyyymm() + " 청구서", out -> templateRenderer.renderTo(payload, out)));
+			slots.add(i);
+			responses.add(null); // 게이트웨이 결과로 채움
+		}
+
+		List<SendResponse> submitted = gatewayClient.submit(gatewayProperties.getEmailUrl(), "EMAIL", messages);
+		for (int i = 0; i < slots.size(); i++) {
+			responses.set(slots.get(i), submitted.get(i));
+		}
+		return responses;
+	}
+
+	// Mock 발송 (게이트웨이 URL 미설정)
+    private SendResponse mockSend(DeliveryPayload payload) {
 
-//			log.info("렌더 성공 - invoiceId={}, len={}", payload.getInvoiceId(), htmlContent.length());
-			
-            // 테스트용 파일 저장 
+		try {
+            // HTML 템플릿 렌더링 (1회) -> 요청 본문 스트림으로 바로 기록
+            // 테스트용 파일 저장: 처음 10건은 본문 대신 파일로 기록
 			if (saved.get() < 10 && saved.getAndIncrement() < 10) {
 			    templateRenderer.saveToFile(
 			        payload.getInvoiceId(),
 			        protector.maskedName(payload.getRecipientName()),
-			        htmlContent
+			        payload
 			    );
+			} else {
+			    // Mock 게이트웨이: 실제 연동 시 HTTP 요청 본문 OutputStream을 넘긴다.
+			    templateRenderer.renderTo(payload, OutputStream.nullOutputStream());
 			}
-			
-            // 1% 실패 확률 
+
+            // 1% 실패 확률
             if (ThreadLocalRandom.current().nextInt(100) == 0) {
             	return SendResponse.fail("MOCK_API_SERVER_ERROR");
             }
 
             return SendResponse.success();
         } catch (Exception e) {
-            log.error("Email Render Error: {}", e.getMessage());
+            log.error("Email Render Error - invoiceId={}, err={}", payload.getInvoiceId(), e.toString());
             return SendResponse.fail("RENDER_ERROR");
         }
-   
-		
+
+
+	}
+
+	private boolean gatewayEnabled() {
+		String url = gatewayProperties.getEmailUrl();
+		return url != null && !url.isBlank();
+	}
+
+	private static EncryptedString parseOrNull(String packed) {
+		try {
+			return EncryptedString.of(packed);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
 	}
 }
@@ -1,13 +1,17 @@
 package com.mycom.myapp.sendapp.delivery.sender;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.springframework.stereotype.Component;
 
+import com.mycom.myapp.sendapp.delivery.config.DeliveryGatewayProperties;
 import com.mycom.myapp.sendapp.delivery.dto.DeliveryPayload;
 import com.mycom.myapp.sendapp.delivery.dto.SendResponse;
 import com.mycom.myapp.sendapp.delivery.processor.TemplateRenderer;
 import com.mycom.myapp.sendapp.global.crypto.ContactProtector;
+import com.mycom.myapp.sendapp.global.crypto.EncryptedString;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,24 +19,75 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class SMSSender implements DeliverySender {
+public class SMSSender implements BatchDeliverySender {
 	
 	private final TemplateRenderer templateRenderer;
 	private final ContactProtector protector;
+	private final BulkGatewayClient gatewayClient;
+	private final DeliveryGatewayProperties gatewayProperties;
 	private final AtomicInteger saved = new AtomicInteger(0);
 	
 	@Override
     public boolean supports(String channel) {
         return "SMS".equalsIgnoreCase(channel);
     }
+
+	@Override
+	public int maxBatchSize() {
+		return Math.max(gatewayProperties.getBatchSize(), 1);
+	}
+
+	@Override
+	public boolean batchAvailable() {
+		return gatewayEnabled();
+	}
 	
 	@Override
     public SendResponse send(DeliveryPayload payload) {
+		if (!gatewayEnabled()) return mockSend(payload);
+		return sendBatch(List.of(payload)).get(0);
+	}
+
+	/**
+	 * 게이트웨이 1회 호출로 묶음 발송: 수신 번호 일괄 복호화 -> 한 요청으로 전송
+	 */
+	@Override
+	public List<SendResponse> sendBatch(List<DeliveryPayload> payloads) {
+		List<SendResponse> responses = new ArrayList<>(payloads.size());
+		if (!gatewayEnabled()) {
+			for (DeliveryPayload payload : payloads) responses.add(mockSend(payload));
+			return responses;
+		}
+
+		List<EncryptedString> encs = new ArrayList<>(payloads.size());
+		for (DeliveryPayload payload : payloads) encs.add(parseOrNull(payload.getEndphone()));
+		List<String> receivers = protector.plainPhones(encs, null);
+
+		List<BulkGatewayClient.Message> messages = new ArrayList<>(payloads.size());
+		List<Integer> slots = new ArrayList<>(payloads.size());
+		for (int i = 0; i < payloads.size(); i++) {
+			DeliveryPayload payload = payloads.get(i);
+			String to = encs.get(i) == null ? null : receivers.get(i);
+			if (to == null || to.isBlank()) {
+				responses.add(SendResponse.fail("INVALID_RECEIVER"));
+				continue;
+			}
+			messages.add(new BulkGatewayClient.Message(payload.getInvoiceId(), to, null, smsText(payload)));
+			slots.add(i);
+			responses.add(null); // 게이트웨이 결과로 채움
+		}
+
+		List<SendResponse> submitted = gatewayClient.submit(gatewayProperties.getSmsUrl(), "SMS", messages);
+		for (int i = 0; i < slots.size(); i++) {
+			responses.set(slots.get(i), submitted.get(i));
+		}
+		return responses;
+	}
+
+	// Mock 발송 (게이트웨이 URL 미설정)
+    private SendResponse mockSend(DeliveryPayload payload) {
         
-        String smsText = String.format("[LGU+ 알림] %s님,\n%s 청구금액 %s원 납부예정\n상세: 자세한 내용은 앱을 확인하세요.",
-        		protector.maskedName(payload.getRecipientName()), 
-                payload.getBillingYyyymm(), 
-                payload.getTotalAmount());
+        String smsText = smsText(payload);
 
         if (saved.get() < 10 && saved.getAndIncrement() < 10) {
             templateRenderer.saveSMS(
@@ -45,4 +100,24 @@ public class SMSSender implements DeliverySender {
         
         return SendResponse.success();
     }
+
+	private String smsText(DeliveryPayload payload) {
+		return String.format("[LGU+ 알림] %s님,\n%s 청구금액 %s원 납부예정\n상세: 자세한 내용은 앱을 확인하세요.",
+        		protector.maskedName(payload.getRecipientName()), 
+                payload.getBillingYyyymm(), 
+                payload.getTotalAmount());
+	}
+
+	private boolean gatewayEnabled() {
+		String url = gatewayProperties.getSmsUrl();
+		return url != null && !url.isBlank();
+	}
+
+	private static EncryptedString parseOrNull(String packed) {
+		try {
+			return EncryptedString.of(packed);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
 }
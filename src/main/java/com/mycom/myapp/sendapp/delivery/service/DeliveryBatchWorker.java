@@ -1,24 +1,34 @@
 package com.mycom.myapp.sendapp.delivery.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycom.myapp.sendapp.batch.support.HostIdentifier;
+import com.mycom.myapp.sendapp.delivery.codec.DeliveryPayloadCodec;
+import com.mycom.myapp.sendapp.delivery.config.DeliveryPersistProperties;
 import com.mycom.myapp.sendapp.delivery.config.DeliveryRedisKey;
+import com.mycom.myapp.sendapp.delivery.config.DeliveryWorkerProperties;
+import com.mycom.myapp.sendapp.delivery.dto.DeliveryPayload;
 import com.mycom.myapp.sendapp.delivery.dto.ProcessResult;
 import com.mycom.myapp.sendapp.delivery.processor.DeliveryProcessor;
-import com.mycom.myapp.sendapp.delivery.scheduler.DelayedTransferer;
+import com.mycom.myapp.sendapp.delivery.processor.DeliverySendExecutor;
+import com.mycom.myapp.sendapp.delivery.processor.TemplateRenderer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.redis.connection.stream.*;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StreamOperations;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
@@ -26,83 +36,154 @@ import java.util.stream.Collectors;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+/**
+ * 발송 대기 스트림(WAITING_STREAM)의 컨슈머 풀.
+ *
+ * - 노드당 app.delivery.worker.consumers 개의 스레드가 각자 블로킹 XREADGROUP 루프를 돈다.
+ * - 컨슈머 이름은 hostname:pid:index 로, 같은 delivery-group 안에서 노드/스레드마다 고유하다.
+ * - 파드를 늘리면 그룹 내 컨슈머도 함께 늘어나 읽기 처리량이 선형으로 증가한다.
+ */
 @Slf4j
 @Component
 public class DeliveryBatchWorker {
 
-    private final StringRedisTemplate redisTemplate;
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final DeliveryPayloadCodec payloadCodec;
+    private final DeliveryPayloadHydrator payloadHydrator;
+    private final TemplateRenderer templateRenderer;
     private final DeliveryProcessor deliveryProcessor;
     private final DeliveryPersistService deliveryPersistService;
+    private final DeliveryResultJournal resultJournal;
+    private final DeliveryDeadLetterQueue deadLetterQueue;
+    private final DeliveryPersistProperties persistProperties;
     private final Executor deliveryExecutor;
-    private final DelayedTransferer transferer;
-    
+    private final DeliveryWorkerProperties properties;
+    private final HostIdentifier hostIdentifier;
+
+    private final List<Thread> consumerThreads = new ArrayList<>();
+    private volatile boolean running = false;
+
     public DeliveryBatchWorker(
-            StringRedisTemplate redisTemplate,
+            @Qualifier("deliveryStreamTemplate") RedisTemplate<String, byte[]> redisTemplate,
+            DeliveryPayloadCodec payloadCodec,
+            DeliveryPayloadHydrator payloadHydrator,
+            TemplateRenderer templateRenderer,
             DeliveryProcessor deliveryProcessor,
             DeliveryPersistService deliveryResultService,
-            @Qualifier("applicationTaskExecutor") Executor deliveryExecutor,
-            DelayedTransferer transferer,
-            ObjectMapper objectMapper
+            DeliveryResultJournal resultJournal,
+            DeliveryDeadLetterQueue deadLetterQueue,
+            DeliveryPersistProperties persistProperties,
+            DeliverySendExecutor sendExecutor,
+            DeliveryWorkerProperties properties,
+            HostIdentifier hostIdentifier
     ) {
         this.redisTemplate = redisTemplate;
+        this.payloadCodec = payloadCodec;
+        this.payloadHydrator = payloadHydrator;
+        this.templateRenderer = templateRenderer;
         this.deliveryProcessor = deliveryProcessor;
         this.deliveryPersistService = deliveryResultService;
-        this.deliveryExecutor = deliveryExecutor;
-        this.transferer = transferer;
+        this.resultJournal = resultJournal;
+        this.deadLetterQueue = deadLetterQueue;
+        this.persistProperties = persistProperties;
+        this.deliveryExecutor = sendExecutor.chunkExecutor(); // 모드에 따라 applicationTaskExecutor 또는 전용 실행기
+        this.properties = properties;
+        this.hostIdentifier = hostIdentifier;
     }
-    
-    private static final int FETCH_COUNT = 1000;
-    private static final int CHUNK_SIZE = 100;
-
-    @Scheduled(fixedDelay = 1000)
-    public void run() {
-    	
-    	// 지연 큐(ZSET) -> 스트림 데이터 전이 실행
-    	try {
-            transferer.transfer();
-        } catch (Exception e) {
-            log.error("[Transfer Error] 지연 메시지 인계 중 오류 발생: {}", e.getMessage());
-            // 전이 실패 시에도 일단 스트림에 있는 건 처리하도록 진행
+
+    /**
+     * 컨슈머 그룹 생성(ApplicationRunner)이 끝난 뒤에 읽기 루프를 시작한다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+
+        String nodeId = hostIdentifier.get();
+        int consumers = Math.max(properties.getConsumers(), 1);
+
+        for (int i = 0; i < consumers; i++) {
+            final Consumer consumer = Consumer.from(DeliveryRedisKey.GROUP_NAME, nodeId + ":" + i);
+            Thread thread = new Thread(() -> consume(consumer), "delivery-consumer-" + i);
+            consumerThreads.add(thread);
+            thread.start();
+        }
+        log.info(">>> 발송 컨슈머 {}개 가동 (Node: {}, Group: {})", consumers, nodeId, DeliveryRedisKey.GROUP_NAME);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        for (Thread thread : consumerThreads) {
+            try {
+                // 진행 중인 블로킹 읽기(block-millis)와 현재 배치 처리가 끝날 때까지 대기
+                thread.join(properties.getBlockMillis() + 30_000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
         }
-    	
-        // 1. Redis Stream Read (Type Safety 보완)
-        @SuppressWarnings("unchecked")
-        List<MapRecord<String, String, String>> records = (List) redisTemplate.opsForStream().read(
-            Consumer.from(DeliveryRedisKey.GROUP_NAME, "worker-1"),
-            StreamReadOptions.empty().count(FETCH_COUNT).block(Duration.ofMillis(1000)),
+        consumerThreads.clear();
+        log.info(">>> 발송 컨슈머 종료 완료");
+    }
+
+    private void consume(Consumer consumer) {
+        while (running) {
+            try {
+                List<MapRecord<String, String, byte[]>> records = read(consumer);
+                if (records == null || records.isEmpty()) continue;
+
+                processRecords(records);
+            } catch (Exception e) {
+                if (!running) break;
+                log.error("[Consumer Error] {} 읽기 실패: {}", consumer.getName(), e.getMessage());
+                sleepQuietly(properties.getErrorBackoffMillis());
+            }
+        }
+    }
+
+    private List<MapRecord<String, String, byte[]>> read(Consumer consumer) {
+        StreamOperations<String, String, byte[]> ops = redisTemplate.opsForStream();
+        return ops.read(
+            consumer,
+            StreamReadOptions.empty().count(properties.getFetchCount()).block(Duration.ofMillis(properties.getBlockMillis())),
             StreamOffset.create(DeliveryRedisKey.WAITING_STREAM, ReadOffset.lastConsumed())
         );
+    }
 
-        if (records == null || records.isEmpty()) return;
-
+    /**
+     * 읽어온 레코드를 청크 단위로 병렬 발송 -> DB 반영 -> ACK 한다.
+     */
+    public void processRecords(List<MapRecord<String, String, byte[]>> records) {
         long startTime = System.currentTimeMillis();
-        
+        int chunkSize = Math.max(properties.getChunkSize(), 1);
+
         try {
-            // 1. 1,000건을 100건씩 수동으로 분할하여 Future 리스트 생성
+            // 1. 디코딩 + (THIN 모드) 읽어온 묶음 단위 일괄 조회 + 이메일 상세/마스킹 일괄 프리패치
+            Map<RecordId, Long> recordInvoiceIds = new HashMap<>(records.size() * 2);
+            Set<Long> notFound = new HashSet<>();
+            List<DeliveryPayload> payloads = payloadHydrator.hydrate(decodeAll(records, recordInvoiceIds), notFound);
+            payloads = templateRenderer.prefetch(payloads);
+
+            // 청구서가 없는 참조는 발송할 수 없으므로 FAILED_STREAM으로 격리한다 (격리 경로가 ACK까지 한다)
+            List<MapRecord<String, String, byte[]>> orphans = notFound.isEmpty() ? List.of() : records.stream()
+                .filter(r -> notFound.contains(recordInvoiceIds.get(r.getId())))
+                .collect(Collectors.toList());
+            deadLetterQueue.deadLetter(DeliveryRedisKey.WAITING_STREAM, DeliveryRedisKey.GROUP_NAME, orphans, Map.of(), "청구서 없음");
+
+            // 2. chunkSize 단위로 수동 분할하여 Future 리스트 생성
             List<CompletableFuture<List<ProcessResult>>> futures = new ArrayList<>();
-            
-            for (int i = 0; i < records.size(); i += CHUNK_SIZE) {
-                int end = Math.min(i + CHUNK_SIZE, records.size());
-                final List<MapRecord<String, String, String>> chunk = records.subList(i, end);
+
+            for (int i = 0; i < payloads.size(); i += chunkSize) {
+                int end = Math.min(i + chunkSize, payloads.size());
+                final List<DeliveryPayload> chunk = payloads.subList(i, end);
 
                 // 익명 클래스로 작업 정의 (람다 X)
                 CompletableFuture<List<ProcessResult>> future = CompletableFuture.supplyAsync(new Supplier<List<ProcessResult>>() {
                     @Override
                     public List<ProcessResult> get() {
-                        List<ProcessResult> results = new ArrayList<>();
-                        
-                        for (MapRecord<String, String, String> record : chunk) {
-                        	Map<String, String> streamValue = record.getValue();
-                      
-                            try {
-                            	
-                                results.add(deliveryProcessor.execute(streamValue));
-                            } catch(Exception e) {
-                            	log.error("[Execution Error] JSON 복구 실패 - RecordId: {}, Error: {}", record.getId(), e.getMessage());
-                            }
-                            
-                        }
-                        return results;
+                        // 청크 단위 멱등성 선점/확정 (Redis 왕복은 청크당 2~3회)
+                        return deliveryProcessor.executeAll(chunk);
                     }
                 }, deliveryExecutor).exceptionally(new Function<Throwable, List<ProcessResult>>() {
                     @Override
@@ -118,42 +199,85 @@ public class DeliveryBatchWorker {
             // 3. 결과 집합 및 정제
             List<ProcessResult> allResults = futures.stream()
                 .map(CompletableFuture::join)
-                .filter(Objects::nonNull) // exceptionally에서 넘어온 null 필터링
                 .flatMap(List::stream)
+                .filter(Objects::nonNull) // 유효하지 않은 페이로드(null 결과) 필터링
                 .collect(Collectors.toList());
 
-            // 4. DB 반영 (Skipped 제외)
+            // 4. DB 반영 대상 (Skipped/Deferred 제외)
             List<ProcessResult> dbTargets = allResults.stream()
                 .filter(r -> !r.isSkipped())
                 .collect(Collectors.toList());
 
-            if (!dbTargets.isEmpty()) {
-                // 트랜잭션 보장 (Update + History Insert)
-            	deliveryPersistService.saveBatchResults(dbTargets);
-            }
+            // 다른 컨슈머가 발송 중이던 건(deferred)은 Pending에 남겨 선점이 풀린 뒤 재수거되게 한다.
+            Set<Long> deferred = allResults.stream()
+                .filter(ProcessResult::isDeferred)
+                .map(ProcessResult::getInvoiceId)
+                .collect(Collectors.toSet());
+            RecordId[] ids = records.stream()
+                .filter(r -> deferred.isEmpty() || !deferred.contains(recordInvoiceIds.get(r.getId())))
+                .filter(r -> notFound.isEmpty() || !notFound.contains(recordInvoiceIds.get(r.getId())))
+                .map(MapRecord::getId)
+                .toArray(RecordId[]::new);
 
-            // 5. ACK 처리: DB 반영이 완벽히 성공한 후에만 수행 (유실 방지)
-            RecordId[] ids = records.stream().map(MapRecord::getId).toArray(RecordId[]::new);
-            redisTemplate.opsForStream().acknowledge(
-                DeliveryRedisKey.WAITING_STREAM, 
-                DeliveryRedisKey.GROUP_NAME, 
-                ids
-            );
+            if (persistProperties.isWriteBehind()) {
+                // 5-a. WRITE_BEHIND: 결과 저널 적재 후 ACK (DB 커밋은 DeliveryResultFlusher가 모아서)
+                resultJournal.appendAndAcknowledge(dbTargets, ids);
+            } else {
+                if (!dbTargets.isEmpty()) {
+                    // 트랜잭션 보장 (Update + History Insert)
+                    deliveryPersistService.saveBatchResults(dbTargets);
+                }
+
+                // 5-b. SYNC: ACK는 DB 반영이 완벽히 성공한 후에만 수행 (유실 방지)
+                if (ids.length > 0) {
+                    redisTemplate.opsForStream().acknowledge(
+                        DeliveryRedisKey.WAITING_STREAM,
+                        DeliveryRedisKey.GROUP_NAME,
+                        ids
+                    );
+                }
+            }
 
             logSummary(allResults, dbTargets.size(), System.currentTimeMillis() - startTime);
 
         } catch (Exception e) {
-            // DB 에러 혹은 기타 장애 발생 시 ACK를 하지 않음으로써 Redis Pending List에 남겨둠 (재처리 보장)
+            // DB(저널) 에러 혹은 기타 장애 발생 시 ACK를 하지 않음으로써 Redis Pending List에 남겨둠 (재처리 보장)
             log.error("[Critical Error] 배치 처리 중단 (ACK 미수행): {}", e.getMessage(), e);
         }
     }
 
+    private List<DeliveryPayload> decodeAll(List<MapRecord<String, String, byte[]>> records, Map<RecordId, Long> recordInvoiceIds) {
+        List<DeliveryPayload> payloads = new ArrayList<>(records.size());
+        for (MapRecord<String, String, byte[]> record : records) {
+            try {
+                DeliveryPayload payload = payloadCodec.decode(record.getValue());
+                if (payload != null) { // null: 발송 대상이 아닌 레코드 (스트림 초기화용 더미 등)
+                    payloads.add(payload);
+                    recordInvoiceIds.put(record.getId(), payload.getInvoiceId());
+                }
+            } catch (Exception e) {
+                log.error("[Decode Error] 페이로드 복구 실패 - RecordId: {}, Error: {}", record.getId(), e.getMessage());
+            }
+        }
+        return payloads;
+    }
+
     private void logSummary(List<ProcessResult> results, int dbCount, long timeMs) {
         long sent = results.stream().filter(r -> "SENT".equals(r.getStatus()) && !r.isSkipped()).count();
         long failed = results.stream().filter(r -> "FAILED".equals(r.getStatus())).count();
-        long skipped = results.stream().filter(ProcessResult::isSkipped).count();
+        long deferred = results.stream().filter(ProcessResult::isDeferred).count();
+        long skipped = results.stream().filter(ProcessResult::isSkipped).count() - deferred;
 
-        log.info("[Delivery Result] Total: {} | Success: {} | Failed: {} | Skipped: {} | DB_Update: {} | Latency: {}ms",
-            results.size(), sent, failed, skipped, dbCount, timeMs);
+        TemplateRenderer.RenderStats render = templateRenderer.getRenderStats();
+        log.info("[Delivery Result] Total: {} | Success: {} | Failed: {} | Skipped: {} | Deferred: {} | DB_Update: {} | Latency: {}ms | Render(avg): {}µs",
+            results.size(), sent, failed, skipped, deferred, dbCount, timeMs, String.format("%.1f", render.averageMicros()));
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,89 @@
+package com.mycom.myapp.sendapp.delivery.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.mycom.myapp.sendapp.delivery.config.DeliveryCalendarProperties;
+
+/**
+ * 발송 가능 시각 계산 (금지 시간대 + 휴일). 로더/재발송/SMS 전환/예약/복구의 모든 적재가 DeliveryEnqueuer에서 이 달력을 거친다.
+ *
+ * - 발송 가능한 시각은 그대로 둔다.
+ * - 금지 시간대/휴일이면 다음 영업일 개시 시각(quiet-end-hour) + invoiceId 기준 오프셋(ramp 구간 안)으로 미룬다.
+ *   같은 건은 언제 다시 계산해도 같은 시각이 나오고, 09:00 정각에 한꺼번에 몰리지 않는다.
+ */
+@Component
+public class DeliveryCalendar {
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final LocalTime quietStart;
+    private final LocalTime quietEnd;
+    private final Set<LocalDate> holidays = new HashSet<>();
+    private final long rampMillis;
+
+    public DeliveryCalendar(DeliveryCalendarProperties properties) {
+        this.quietStart = LocalTime.of(properties.getQuietStartHour(), 0);
+        this.quietEnd = LocalTime.of(properties.getQuietEndHour(), 0);
+        if (properties.getHolidays() != null) {
+            for (String holiday : properties.getHolidays()) {
+                if (holiday != null && !holiday.isBlank()) holidays.add(LocalDate.parse(holiday.trim()));
+            }
+        }
+
+        // 미뤄진 건이 다시 금지 시간대로 넘어가지 않도록 ramp는 발송 가능 구간 길이 안으로
+        long openMillis = Duration.between(quietEnd, quietStart).toMillis();
+        if (openMillis <= 0) openMillis += Duration.ofDays(1).toMillis();
+        this.rampMillis = Math.min(Duration.ofMinutes(Math.max(properties.getRampMinutes(), 0)).toMillis(), openMillis - 1);
+    }
+
+    public boolean isSendable(LocalDateTime time) {
+        return !holidays.contains(time.toLocalDate()) && !isQuiet(time.toLocalTime());
+    }
+
+    /**
+     * @param requested 요청 시각
+     * @param spreadKey 미뤄질 때 ramp 구간 안에서 위치를 정하는 키 (invoiceId)
+     * @return 실제 발송 시각 (요청 시각에 보낼 수 있으면 그대로)
+     */
+    public LocalDateTime releaseAt(LocalDateTime requested, long spreadKey) {
+        if (isSendable(requested)) return requested;
+        return nextOpening(requested).plusNanos(rampOffsetMillis(spreadKey) * 1_000_000L);
+    }
+
+    public long releaseAtMillis(long requestedMillis, long spreadKey) {
+        LocalDateTime requested = LocalDateTime.ofInstant(Instant.ofEpochMilli(requestedMillis), zone);
+        if (isSendable(requested)) return requestedMillis;
+        return releaseAt(requested, spreadKey).atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private boolean isQuiet(LocalTime time) {
+        if (quietStart.equals(quietEnd)) return false;
+        if (quietStart.isAfter(quietEnd)) {
+            return !time.isBefore(quietStart) || time.isBefore(quietEnd); // 자정을 넘는 구간
+        }
+        return !time.isBefore(quietStart) && time.isBefore(quietEnd);
+    }
+
+    /**
+     * 요청 시각 이후 첫 개시 시각 (오늘 개시 전이면 오늘, 지났으면 다음 날부터 휴일을 건너뛴다)
+     */
+    private LocalDateTime nextOpening(LocalDateTime time) {
+        LocalDate day = time.toLocalDate();
+        if (!time.toLocalTime().isBefore(quietEnd)) day = day.plusDays(1);
+        while (holidays.contains(day)) day = day.plusDays(1);
+        return day.atTime(quietEnd);
+    }
+
+    private long rampOffsetMillis(long spreadKey) {
+        if (rampMillis <= 0) return 0L;
+        return Math.floorMod(spreadKey * 0x9E3779B97F4A7C15L, rampMillis); // 연속된 invoiceId도 구간 전체에 고르게
+    }
+}
@@ -0,0 +1,69 @@
+package com.mycom.myapp.sendapp.delivery.service;
+
+import static com.mycom.myapp.sendapp.delivery.config.DeliveryRedisKey.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import com.mycom.myapp.sendapp.delivery.config.DeliveryStreamKeys;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 더 처리할 수 없는 스트림 엔트리를 FAILED_STREAM으로 격리(dead-letter)한다.
+ *
+ * - 원본 필드 + 메타(source_stream, source_id, delivery_count, reason, dead_lettered_at)를 남기고 원본은 ACK 한다.
+ * - 발송 대기 스트림(전달 횟수 초과, 청구서 없음)과 결과 저널(다른 엔트리는 반영되는데 혼자 실패, 해석 실패)이 같은 경로를 쓴다.
+ * - 적재가 끝난 뒤에만 ACK 하므로, 중간에 실패하면 원본은 Pending에 남아 다음 회수 때 다시 격리된다.
+ */
+@Slf4j
+@Component
+public class DeliveryDeadLetterQueue {
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+
+    public DeliveryDeadLetterQueue(@Qualifier("deliveryStreamTemplate") RedisTemplate<String, byte[]> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * @param deliveryCounts 엔트리별 전달 횟수 (모르면 비워 둔다)
+     */
+    public void deadLetter(String sourceStream, String group, List<MapRecord<String, String, byte[]>> records,
+                           Map<RecordId, Long> deliveryCounts, String reason) {
+        if (records.isEmpty()) return;
+
+        byte[] now = utf8(LocalDateTime.now().toString());
+        for (MapRecord<String, String, byte[]> record : records) {
+            Map<String, byte[]> body = new HashMap<>(record.getValue());
+            body.put(DeliveryStreamKeys.SOURCE_STREAM, utf8(sourceStream));
+            body.put(DeliveryStreamKeys.SOURCE_ID, utf8(record.getId().getValue()));
+            body.put(DeliveryStreamKeys.DELIVERY_COUNT, utf8(String.valueOf(deliveryCounts.getOrDefault(record.getId(), 0L))));
+            body.put(DeliveryStreamKeys.DEAD_LETTER_REASON, utf8(reason));
+            body.put(DeliveryStreamKeys.DEAD_LETTERED_AT, now);
+
+            MapRecord<String, String, byte[]> deadLetter = StreamRecords.newRecord()
+                    .in(FAILED_STREAM)
+                    .ofMap(body);
+            redisTemplate.<String, byte[]>opsForStream().add(deadLetter);
+        }
+
+        RecordId[] ids = records.stream().map(MapRecord::getId).toArray(RecordId[]::new);
+        redisTemplate.opsForStream().acknowledge(sourceStream, group, ids);
+        log.error("☠️ [Dead-letter] {} {}건을 {}로 격리 ({})", sourceStream, records.size(), FAILED_STREAM, reason);
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
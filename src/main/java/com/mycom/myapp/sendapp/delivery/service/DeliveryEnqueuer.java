@@ -0,0 +1,153 @@
+package com.mycom.myapp.sendapp.delivery.service;
+
+import static com.mycom.myapp.sendapp.delivery.config.DeliveryRedisKey.delayBucket;
+import static com.mycom.myapp.sendapp.delivery.config.DeliveryRedisKey.delayBucketIndex;
+import static com.mycom.myapp.sendapp.delivery.config.DeliveryRedisKey.WAITING_STREAM;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+import org.redisson.api.RBatch;
+import org.redisson.api.RScoredSortedSetAsync;
+import org.redisson.api.RStreamAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.stream.StreamAddArgs;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.stereotype.Component;
+
+import com.mycom.myapp.sendapp.delivery.codec.DeliveryPayloadCodec;
+import com.mycom.myapp.sendapp.delivery.config.DeliveryPayloadProperties;
+import com.mycom.myapp.sendapp.delivery.config.DeliveryStreamKeys;
+import com.mycom.myapp.sendapp.delivery.config.DeliveryTransferProperties;
+import com.mycom.myapp.sendapp.delivery.dto.DeliveryPayload;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 발송 대기열 적재 공용 컴포넌트.
+ *
+ * 로더/재발송/SMS 전환/예약/복구 경로가 모두 이 클래스를 통해 DeliveryPayloadCodec 바이너리로 지연 큐에 적재한다.
+ * app.delivery.payload.mode=THIN 이면 본문 없이 참조만 적재하고, 컨슈머(DeliveryPayloadHydrator)가 채운다.
+ *
+ * 지연 큐는 invoiceId 샤드 x 만기 분(minute) 버킷으로 나뉜 작은 ZSET들이다 (DeliveryRedisKey 참고).
+ * 큐 깊이가 늘어도 ZADD 대상 ZSET은 "한 샤드의 1분치"로 유지되고, 샤드별 해시 태그로 클러스터 노드에 고르게 퍼진다.
+ *
+ * 지금 바로 보낼 건은 enqueueNow로 발송 대기 스트림에 직접 XADD 한다 (지연 큐 ZADD/조회/ZREM/이관 XADD 왕복과 최대 1초 지연을 건너뜀).
+ *
+ * 모든 적재 시각은 DeliveryCalendar를 거친다: 금지 시간대/휴일에 요청된 건은 여기서 한 번 다음 개시 시각(+ramp)으로 정해져
+ * 지연 큐 버킷에서 기다린다 (DB 재조회 없이 DelayedTransferer가 그 시각에 내보냄).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeliveryEnqueuer {
+
+    private static final long MINUTE_MILLIS = 60_000L;
+    private static final byte[] PAYLOAD_FIELD = DeliveryStreamKeys.PAYLOAD.getBytes(StandardCharsets.UTF_8);
+
+    private final RedissonClient redissonClient;
+    private final DeliveryPayloadCodec payloadCodec;
+    private final DeliveryPayloadProperties payloadProperties;
+    private final DeliveryTransferProperties transferProperties;
+    private final DeliveryCalendar calendar;
+
+    /**
+     * 즉시 발송: 발송 대기 스트림에 한 번의 Batch로 직접 XADD 한다 (DelayedTransferer와 같은 payload 필드 1개 엔트리).
+     * 지금이 발송 금지 시간대/휴일이면 건별 개시 시각으로 지연 큐에 싣는다.
+     * @return 적재 요청한 건수 (인코딩 실패 건 제외)
+     */
+    public int enqueueNow(List<DeliveryPayload> payloads) {
+        if (payloads == null || payloads.isEmpty()) return 0;
+        if (!calendar.isSendable(LocalDateTime.now())) {
+            long now = System.currentTimeMillis();
+            return enqueue(payloads, payload -> now);
+        }
+
+        RBatch batch = redissonClient.createBatch();
+        RStreamAsync<byte[], byte[]> stream = batch.getStream(WAITING_STREAM, ByteArrayCodec.INSTANCE);
+
+        boolean thin = payloadProperties.isThin();
+        int count = 0;
+        for (DeliveryPayload payload : payloads) {
+            try {
+                byte[] member = thin ? payloadCodec.encodeReference(payload) : payloadCodec.encode(payload);
+                stream.addAsync(StreamAddArgs.entry(PAYLOAD_FIELD, member));
+                count++;
+            } catch (Exception e) {
+                log.error("페이로드 인코딩 실패 (ID: {}): {}", payload.getInvoiceId(), e.getMessage());
+            }
+        }
+
+        if (count > 0) {
+            batch.execute();
+        }
+        return count;
+    }
+
+    /**
+     * dueAtMillis 시각에 스트림으로 이관되도록 지연 큐 버킷에 한 번의 Batch로 적재한다.
+     * 이미 도래한 시각이면 지연 큐를 거치지 않고 enqueueNow로 보낸다.
+     * @return 적재 요청한 건수 (인코딩 실패 건 제외)
+     */
+    public int enqueue(List<DeliveryPayload> payloads, long dueAtMillis) {
+        if (payloads == null || payloads.isEmpty()) return 0;
+        if (dueAtMillis <= System.currentTimeMillis()) return enqueueNow(payloads);
+        return enqueue(payloads, payload -> dueAtMillis);
+    }
+
+    /**
+     * 건마다 만기 시각이 다른 적재 (재발송 백오프). 한 번의 Batch로 버킷/스트림에 나눠 싣는다.
+     * 만기 시각을 달력으로 보정한 뒤, 이미 도래한 건은 스트림에 바로, 나머지는 각자의 분 버킷에.
+     * @return 적재 요청한 건수 (인코딩 실패 건 제외)
+     */
+    public int enqueue(List<DeliveryPayload> payloads, ToLongFunction<DeliveryPayload> dueAtMillis) {
+        if (payloads == null || payloads.isEmpty()) return 0;
+
+        RBatch batch = redissonClient.createBatch();
+        RStreamAsync<byte[], byte[]> stream = batch.getStream(WAITING_STREAM, ByteArrayCodec.INSTANCE);
+        Map<Integer, Set<Long>> touchedBuckets = new LinkedHashMap<>(); // shard -> 분 버킷
+
+        long now = System.currentTimeMillis();
+        boolean thin = payloadProperties.isThin();
+        int count = 0;
+        for (DeliveryPayload payload : payloads) {
+            try {
+                byte[] member = thin ? payloadCodec.encodeReference(payload) : payloadCodec.encode(payload);
+                long dueAt = calendar.releaseAtMillis(dueAtMillis.applyAsLong(payload), payload.getInvoiceId());
+                if (dueAt <= now) {
+                    stream.addAsync(StreamAddArgs.entry(PAYLOAD_FIELD, member));
+                } else {
+                    int shard = transferProperties.shardOf(payload.getInvoiceId());
+                    long bucket = Math.floorDiv(dueAt, MINUTE_MILLIS);
+                    batch.getScoredSortedSet(delayBucket(shard, bucket), ByteArrayCodec.INSTANCE).addAsync(dueAt, member);
+                    touchedBuckets.computeIfAbsent(shard, s -> new LinkedHashSet<>()).add(bucket);
+                }
+                count++;
+            } catch (Exception e) {
+                log.error("페이로드 인코딩 실패 (ID: {}): {}", payload.getInvoiceId(), e.getMessage());
+            }
+        }
+
+        // 버킷 색인은 버킷 적재 "뒤"에 (같은 슬롯이라 순서 보장: 이관기가 빈 버킷 색인을 지운 직후 적재돼도 다시 등록된다)
+        for (Map.Entry<Integer, Set<Long>> entry : touchedBuckets.entrySet()) {
+            RScoredSortedSetAsync<String> index = batch.getScoredSortedSet(delayBucketIndex(entry.getKey()), StringCodec.INSTANCE);
+            for (long bucket : entry.getValue()) {
+                index.addAsync(bucket, String.valueOf(bucket));
+            }
+        }
+
+        if (count > 0) {
+            batch.execute();
+        }
+        return count;
+    }
+}
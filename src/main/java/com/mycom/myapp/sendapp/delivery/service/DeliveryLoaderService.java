@@ -1,31 +1,23 @@
 package com.mycom.myapp.sendapp.delivery.service;
 
-import static com.mycom.myapp.sendapp.delivery.config.DeliveryRedisKey.DELAY_ZSET;
-
-import java.text.DecimalFormat;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.TemporalAccessor;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import org.redisson.api.RBatch;
-import org.redisson.api.RScoredSortedSetAsync;
-import org.redisson.api.RedissonClient;
-import org.redisson.client.codec.StringCodec;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mycom.myapp.sendapp.batch.dto.MonthlyInvoiceRowDto;
+import com.mycom.myapp.sendapp.delivery.dto.DeliveryPayload;
 import com.mycom.myapp.sendapp.delivery.dto.DeliveryRetryDto;
 import com.mycom.myapp.sendapp.delivery.entity.DeliveryStatus;
 import com.mycom.myapp.sendapp.delivery.entity.DeliveryUser;
@@ -41,16 +33,12 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 @Slf4j
 public class DeliveryLoaderService {
-	
-	public static int currentProcessingYyyymm = 0;
-	
+
     private final DeliveryStatusRepository deliveryStatusRepository;
     private final DeliveryUserRepository deliveryUserRepository;
-    private final RedissonClient redissonClient;
-    private final ObjectMapper objectMapper;
-    
-    private static final int BAN_START_HOUR = 21; 
-    private static final int BAN_END_HOUR = 9;    
+    private final DeliveryEnqueuer deliveryEnqueuer;
+    private final DeliveryProgressTracker progressTracker;
+    private final DeliveryCalendar calendar;
 
     public void loadChunk(List<MonthlyInvoiceRowDto> items) {
         // 1. 회원 정보 조회
@@ -58,11 +46,12 @@ public class DeliveryLoaderService {
         List<DeliveryUser> users = deliveryUserRepository.findAllUsersByIds(userIds); 
         Map<Long, DeliveryUser> userMap = users.stream().collect(Collectors.toMap(DeliveryUser::getUsersId, Function.identity()));
 
-        List<DeliveryStatus> statusList = new ArrayList<>();
+        Map<Integer, List<DeliveryStatus>> statusByMonth = new LinkedHashMap<>(); // 진행률 total은 청구월별
         List<MonthlyInvoiceRowDto> immediatePushItems = new ArrayList<>(); 
+        List<MonthlyInvoiceRowDto> scheduledPushItems = new ArrayList<>();
+        Map<Long, Long> releaseAtMillis = new HashMap<>(); // invoiceId -> 예약 발송 시각
 
         LocalDateTime now = LocalDateTime.now();
-        String currentRequestTime = now.toString();
         int currentYear = now.getYear();
         int currentMonth = now.getMonthValue();
 
@@ -86,15 +75,16 @@ public class DeliveryLoaderService {
                 } catch (Exception e) { targetTime = now; }
             }
             
-            // ★ 금지 시간대(야간) 체크 및 보정
-            targetTime = adjustForBusinessHours(targetTime);
+            // ★ 금지 시간대(야간)/휴일 보정 (달력이 개시 시각 + ramp 오프셋으로 확정)
+            targetTime = calendar.releaseAt(targetTime, item.getInvoiceId());
 
             if (targetTime.isAfter(now)) {
                 isReservation = true;
                 scheduledTime = targetTime;
             }
 
-            statusList.add(DeliveryStatus.builder()
+            int billingYyyymm = item.getBillingYyyymm() == null ? 0 : item.getBillingYyyymm();
+            statusByMonth.computeIfAbsent(billingYyyymm, k -> new ArrayList<>()).add(DeliveryStatus.builder()
                     .invoiceId(item.getInvoiceId())
                     .status(isReservation ? DeliveryStatusType.SCHEDULED : DeliveryStatusType.READY)
                     .scheduledAt(scheduledTime) 
@@ -104,54 +94,53 @@ public class DeliveryLoaderService {
 
             if (!isReservation) {
                 immediatePushItems.add(item);
+            } else {
+                // 예약 건도 지금 지연 큐에 싣는다 (발송 시각 버킷에서 대기, 분 단위 DB 재조회 없음)
+                scheduledPushItems.add(item);
+                releaseAtMillis.put(item.getInvoiceId(), scheduledTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
             }
         }
 
-        // DB 저장 (Batch)
-        saveDeliveryStatus(statusList);
+        // DB 저장 (다중 행 INSERT) -> 새로 들어간 건수만큼 진행률 total 증가
+        for (Map.Entry<Integer, List<DeliveryStatus>> month : statusByMonth.entrySet()) {
+            int inserted = saveDeliveryStatus(month.getValue());
+            try {
+                progressTracker.addEnqueued(month.getKey(), inserted);
+            } catch (Exception e) {
+                log.error("🚨 진행률 반영 실패 ({}월 {}건): {}", month.getKey(), inserted, e.getMessage());
+            }
+        }
         
         
-        // Redis 작업 (Redisson Batch)
+        // Redis 작업 (DeliveryEnqueuer -> 발송 대기 스트림 직접 XADD, Redisson Batch)
         if (!immediatePushItems.isEmpty()) {
             try {
-                RBatch batch = redissonClient.createBatch();
-                RScoredSortedSetAsync<String> batchZset = batch.getScoredSortedSet(DELAY_ZSET, StringCodec.INSTANCE);
-                long delayUntil = System.currentTimeMillis() + 1000; 
-                
+                List<DeliveryPayload> payloads = new ArrayList<>(immediatePushItems.size());
+
                 for (MonthlyInvoiceRowDto item : immediatePushItems) {
                   DeliveryUser user = userMap.get(item.getUsersId());
-                  Map<String, String> payload = new HashMap<>();
-                  payload.put("invoice_id", String.valueOf(item.getInvoiceId()));
-                  payload.put("delivery_channel", "EMAIL");
-                  payload.put("retry_count", "0");
-                  payload.put("email", user.getEmail()); 
-                  payload.put("phone", user.getPhone()); 
-                  payload.put("recipient_name", user.getName());
-                  payload.put("billing_yyyymm", formatYyyymm(item.getBillingYyyymm()));
-                  payload.put("requested_at", currentRequestTime);
-                  payload.put("total_amount", formatMoney(item.getTotalAmount()));
-                  payload.put("dueDate", formatDate(item.getDueDate()));
-                  
-                  payload.put("totalPlanAmount", formatMoney(item.getTotalPlanAmount()));
-                  payload.put("totalAddonAmount", formatMoney(item.getTotalAddonAmount()));
-                  payload.put("totalEtcAmount", formatMoney(item.getTotalEtcAmount()));
-                  payload.put("totalDiscountAmount", formatMoney(item.getTotalDiscountAmount()));
-                  
-                  currentProcessingYyyymm = item.getBillingYyyymm();
-                  
-                  try {
-                      String json = objectMapper.writeValueAsString(payload);
-                      batchZset.addAsync(delayUntil, json);
-                  } catch (JsonProcessingException e) {
-                      log.error("JSON Error: {}", e.getMessage());
-                  }
+                  payloads.add(DeliveryPayload.of(item, user, "EMAIL", now));
                 }
-                batch.execute();
+                deliveryEnqueuer.enqueueNow(payloads);
                 log.info("✅ Loader: {}건 Redis Batch 적재 완료", immediatePushItems.size());
             } catch (Exception e) {
                 log.error("🚨 Redis 적재 실패: {}", e.getMessage());
             }
         }
+
+        // 예약 건: 건별 발송 시각으로 지연 큐 적재 (유실 시 DeliveryScheduledWorker가 DB 기준으로 다시 싣는다)
+        if (!scheduledPushItems.isEmpty()) {
+            try {
+                List<DeliveryPayload> payloads = new ArrayList<>(scheduledPushItems.size());
+                for (MonthlyInvoiceRowDto item : scheduledPushItems) {
+                    payloads.add(DeliveryPayload.of(item, userMap.get(item.getUsersId()), "EMAIL", now));
+                }
+                deliveryEnqueuer.enqueue(payloads, payload -> releaseAtMillis.get(payload.getInvoiceId()));
+                log.info("⏰ Loader: 예약 {}건 지연 큐 적재 완료", scheduledPushItems.size());
+            } catch (Exception e) {
+                log.error("🚨 예약 건 Redis 적재 실패: {}", e.getMessage());
+            }
+        }
     }
     
     /**
@@ -161,65 +150,27 @@ public class DeliveryLoaderService {
         if (targets == null || targets.isEmpty()) return;
 
         try {
-            RBatch batch = redissonClient.createBatch();
-            RScoredSortedSetAsync<String> batchZset = batch.getScoredSortedSet(DELAY_ZSET, StringCodec.INSTANCE);
-            
-            // 즉시 발송을 위해 현재 시간 + 1초로 스코어 설정
-            long delayUntil = System.currentTimeMillis() + 1000; 
-            String syncTime = LocalDateTime.now().toString();
-
+            LocalDateTime syncTime = LocalDateTime.now(); // 복구 시점 기록
+            List<DeliveryPayload> payloads = new ArrayList<>(targets.size());
             for (DeliveryRetryDto target : targets) {
-                Map<String, String> payload = new HashMap<>();
-                payload.put("invoice_id", String.valueOf(target.getInvoiceId()));
-                payload.put("delivery_channel", target.getDeliveryChannel());
-                payload.put("retry_count", String.valueOf(target.getRetryCount()));
-                payload.put("email", target.getEmail());
-                payload.put("phone", target.getPhone());
-                payload.put("recipient_name", target.getRecipientName());
-                payload.put("billing_yyyymm", formatYyyymm(Integer.parseInt(target.getBillingYyyymm())));
-                payload.put("requested_at", syncTime); // 복구 시점 기록
-                payload.put("total_amount", formatMoney(target.getTotalAmount()));
-                payload.put("dueDate", formatDate(target.getDueDate())); // DTO에서 받은 dueDate 사용
-
-                try {
-                    String json = objectMapper.writeValueAsString(payload);
-                    batchZset.addAsync(delayUntil, json);
-                } catch (JsonProcessingException e) {
-                    log.error("JSON Error in Sync: {}", e.getMessage());
-                }
+                payloads.add(DeliveryPayload.of(target, target.getDeliveryChannel(), target.getRetryCount(), syncTime));
             }
-            batch.execute();
+
+            // 즉시 발송: 지연 큐를 거치지 않고 발송 대기 스트림에 바로 적재
+            deliveryEnqueuer.enqueueNow(payloads);
             log.info("🧟 [Sync] 유실 데이터 {}건 Redis 복구 완료", targets.size());
         } catch (Exception e) {
             log.error("🚨 [Sync] Redis 복구 적재 실패: {}", e.getMessage());
         }
     }
 
-    private LocalDateTime adjustForBusinessHours(LocalDateTime targetTime) {
-        int hour = targetTime.getHour();
-        if (hour >= BAN_START_HOUR) {
-            return targetTime.plusDays(1).withHour(BAN_END_HOUR).withMinute(0).withSecond(0);
-        }
-        if (hour < BAN_END_HOUR) {
-            return targetTime.withHour(BAN_END_HOUR).withMinute(0).withSecond(0);
-        }
-        return targetTime;
-    }
-
     @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public void saveDeliveryStatus(List<DeliveryStatus> statusList) {
+    public int saveDeliveryStatus(List<DeliveryStatus> statusList) {
         try {
-            deliveryStatusRepository.saveAllIgnore(statusList);
+            return deliveryStatusRepository.saveAllIgnore(statusList);
         } catch (Exception e) {
             log.warn("DB 중복 무시: {}", e.getMessage());
+            return 0;
         }
     }
-
-    private String formatDate(TemporalAccessor date) { return date == null ? "" : DateTimeFormatter.ofPattern("yyyy-MM-dd").format(date); }
-    private String formatMoney(Long amount) { return amount == null ? "0" : new DecimalFormat("#,###").format(amount); }
-    private String formatYyyymm(Integer yyyymm) {
-        if (yyyymm == null) return "";
-        String s = String.valueOf(yyyymm);
-        return s.length() == 6 ? s.substring(0, 4) + "년 " + s.substring(4, 6) + "월" : s;
-    } 
-}
\ No newline at end of file
+}
@@ -0,0 +1,117 @@
+package com.mycom.myapp.sendapp.delivery.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.mycom.myapp.sendapp.delivery.config.DeliveryPayloadProperties;
+import com.mycom.myapp.sendapp.delivery.dto.DeliveryPayload;
+import com.mycom.myapp.sendapp.delivery.repository.DeliveryPayloadRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * THIN 모드 참조 메시지 -> 완전한 DeliveryPayload 복원기.
+ *
+ * - 컨슈머가 한 번에 읽어온 묶음(최대 fetch-count 건)의 invoice_id를 모아 한 번의 IN 조회로 채운다.
+ * - 재발송/SMS 전환처럼 같은 청구서가 다시 들어오는 경우를 위해 크기/TTL 제한 LRU 캐시를 앞에 둔다.
+ * - FULL 메시지는 그대로 통과한다 (모드 전환 중 섞여 있어도 안전).
+ * - DB에 본문이 없는 참조는 결과에서 빼고 notFound로 돌려준다. 호출부가 FAILED_STREAM으로 격리한다 (조용히 ACK되어 사라지지 않도록).
+ */
+@Slf4j
+@Component
+public class DeliveryPayloadHydrator {
+
+    private final DeliveryPayloadRepository payloadRepository;
+    private final int cacheSize;
+    private final long cacheTtlNanos;
+    private final Map<Long, CachedContent> cache;
+
+    public DeliveryPayloadHydrator(DeliveryPayloadRepository payloadRepository, DeliveryPayloadProperties properties) {
+        this.payloadRepository = payloadRepository;
+        this.cacheSize = Math.max(properties.getHydrationCacheSize(), 0);
+        this.cacheTtlNanos = properties.getHydrationCacheTtlSeconds() * 1_000_000_000L;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedContent> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * 참조 메시지를 본문으로 채운다. DB에 본문이 없는 참조(삭제된 청구서 등)는 결과에서 제외된다.
+     * @param notFound 본문이 없어 제외된 invoiceId를 담아 돌려줄 집합
+     */
+    public List<DeliveryPayload> hydrate(List<DeliveryPayload> payloads, Set<Long> notFound) {
+        Set<Long> missing = new LinkedHashSet<>();
+        Map<Long, DeliveryPayload> contents = new HashMap<>();
+        long now = System.nanoTime();
+
+        for (DeliveryPayload payload : payloads) {
+            if (!payload.isReferenceOnly()) continue;
+
+            DeliveryPayload cached = getCached(payload.getInvoiceId(), now);
+            if (cached != null) {
+                contents.put(payload.getInvoiceId(), cached);
+            } else {
+                missing.add(payload.getInvoiceId());
+            }
+        }
+
+        if (contents.isEmpty() && missing.isEmpty()) return payloads; // 전부 FULL 메시지
+
+        if (!missing.isEmpty()) {
+            Map<Long, DeliveryPayload> loaded = payloadRepository.findContentsByInvoiceIds(missing);
+            contents.putAll(loaded);
+            putCached(loaded, now);
+        }
+
+        List<DeliveryPayload> hydrated = new ArrayList<>(payloads.size());
+        for (DeliveryPayload payload : payloads) {
+            if (!payload.isReferenceOnly()) {
+                hydrated.add(payload);
+                continue;
+            }
+
+            DeliveryPayload content = contents.get(payload.getInvoiceId());
+            if (content == null) {
+                log.warn("[Hydrate] 청구서 정보를 찾을 수 없어 제외 - InvoiceId: {}", payload.getInvoiceId());
+                notFound.add(payload.getInvoiceId());
+                continue;
+            }
+            hydrated.add(content.withDispatchOf(payload));
+        }
+        return hydrated;
+    }
+
+    private DeliveryPayload getCached(Long invoiceId, long now) {
+        if (cacheSize == 0) return null;
+
+        synchronized (cache) {
+            CachedContent entry = cache.get(invoiceId);
+            if (entry == null) return null;
+            if (now - entry.loadedAt() > cacheTtlNanos) {
+                cache.remove(invoiceId);
+                return null;
+            }
+            return entry.content();
+        }
+    }
+
+    private void putCached(Map<Long, DeliveryPayload> loaded, long now) {
+        if (cacheSize == 0 || loaded.isEmpty()) return;
+
+        synchronized (cache) {
+            loaded.forEach((invoiceId, content) -> cache.put(invoiceId, new CachedContent(content, now)));
+        }
+    }
+
+    private record CachedContent(DeliveryPayload content, long loadedAt) {}
+}
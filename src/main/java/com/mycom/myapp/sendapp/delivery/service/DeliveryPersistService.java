@@ -1,33 +1,61 @@
 package com.mycom.myapp.sendapp.delivery.service;
 
+import com.mycom.myapp.sendapp.delivery.config.DeliveryPersistProperties;
+import com.mycom.myapp.sendapp.delivery.dto.DeliverySummaryDelta;
 import com.mycom.myapp.sendapp.delivery.dto.ProcessResult;
 import com.mycom.myapp.sendapp.delivery.repository.DeliveryHistoryRepository;
 import com.mycom.myapp.sendapp.delivery.repository.DeliveryStatusRepository;
+import com.mycom.myapp.sendapp.delivery.repository.DeliverySummaryRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class DeliveryPersistService {
 
     private final DeliveryStatusRepository statusRepository;
     private final DeliveryHistoryRepository historyRepository;
+    private final DeliverySummaryRepository summaryRepository;
+    private final DeliveryPersistProperties persistProperties;
+    private final DeliveryProgressTracker progressTracker;
 
+    /**
+     * 결과 반영 (청구월은 결과마다 실려 있다: SYNC 워커 / WRITE_BEHIND 플러셔 공용)
+     */
     @Transactional
     public void saveBatchResults(List<ProcessResult> results) {
         if (results.isEmpty()) return;
         
         LocalDateTime now = LocalDateTime.now();
-        int currentYyyymm = DeliveryLoaderService.currentProcessingYyyymm;
         
-        // 1. 상태 업데이트 (SENT/FAILED)
-        statusRepository.updateStatusBatch(results, now);
+        // 1. 상태 업데이트 (SENT/FAILED 별 IN 묶음 UPDATE)
+        statusRepository.updateStatusBatch(results, now, persistProperties.getStatusChunkSize());
         
-        // 2. 이력 적재
-        historyRepository.saveHistoryBatch(results, now, currentYyyymm);
+        // 2. 이력 적재 (다중 행 INSERT)
+        List<DeliverySummaryDelta> deltas = historyRepository.saveHistoryBatch(results, now, persistProperties.getHistoryChunkSize(),
+                DeliveryProgressTracker::isTerminal);
+
+        // 3. 통계 증가분 반영 (행 잠금 유지 시간을 줄이기 위해 커밋 직전 마지막 문장으로)
+        summaryRepository.applyDeltas(deltas);
+
+        // 4. 커밋이 확정된 뒤에만 진행률 반영 (롤백된 결과가 완료로 집계되지 않게, 실제로 새로 기록된 이력만)
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    progressTracker.recordTerminal(deltas);
+                } catch (Exception e) {
+                    log.error("[Progress Error] 진행률 반영 실패: {}", e.getMessage());
+                }
+            }
+        });
     }
-}
\ No newline at end of file
+}
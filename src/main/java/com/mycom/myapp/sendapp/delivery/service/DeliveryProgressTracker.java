@@ -0,0 +1,155 @@
+package com.mycom.myapp.sendapp.delivery.service;
+
+import static com.mycom.myapp.sendapp.delivery.config.DeliveryRedisKey.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import com.mycom.myapp.sendapp.delivery.dto.DeliverySummaryDelta;
+import com.mycom.myapp.sendapp.delivery.dto.ProcessResult;
+import com.mycom.myapp.sendapp.delivery.repository.DeliverySummaryRepository;
+import com.mycom.myapp.sendapp.delivery.scheduler.DeliveryRetryScheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 청구월별 발송 진행률 추적기 (Redis 해시, 노드 간 공유).
+ *
+ * - total   : 로더가 delivery_status에 실제로 새로 넣은 청구서 수
+ * - terminal: 더 이상 재발송/전환이 없는 최종 결과(SENT, 또는 SMS 재발송 한도 초과 FAILED) 수
+ * - sealed  : 해당 월 정산 배치가 끝나 더 이상 적재가 없음
+ *
+ * 카운터 갱신과 완료 판정이 한 Lua 스크립트(redis/delivery_progress.lua) 안에서 일어나므로,
+ * 잔량이 0이 되는 순간 정확히 한 호출만 통계 적재를 맡는다 (폴링 없이 마지막 결과 커밋 직후).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeliveryProgressTracker {
+
+    private static final DefaultRedisScript<Long> PROGRESS_SCRIPT = createProgressScript();
+    private static final String PROGRESS_TTL_SECONDS = String.valueOf(60L * 60 * 24 * 62); // 두 달
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final DeliverySummaryRepository summaryRepository;
+
+    public void addEnqueued(int billingYyyymm, long count) {
+        if (billingYyyymm <= 0 || count <= 0) return;
+        stringRedisTemplate.opsForSet().add(PROGRESS_MONTHS, String.valueOf(billingYyyymm));
+        advance(billingYyyymm, "total", count);
+    }
+
+    /**
+     * 정산 배치 종료: 이후 잔량이 0이 되면(이미 0이면 지금) 완료로 본다.
+     */
+    public void seal(int billingYyyymm) {
+        if (billingYyyymm <= 0) return;
+        advance(billingYyyymm, "sealed", 1);
+    }
+
+    /**
+     * DB 반영이 커밋된 이력 중 최종 결과만 청구월별로 집계한다.
+     * 결과 건수가 아니라 이력 INSERT IGNORE로 새로 들어간 행 수(DeliverySummaryDelta.terminalCount) 기준이라,
+     * write-behind 재반영/재수거/ACK 실패 후 재처리로 같은 결과가 다시 와도 한 번만 센다.
+     */
+    public void recordTerminal(Collection<DeliverySummaryDelta> deltas) {
+        Map<Integer, long[]> byMonth = new HashMap<>(); // yyyymm -> {sent, failed}
+        for (DeliverySummaryDelta d : deltas) {
+            if (d.billingYyyymm() <= 0 || d.terminalCount() <= 0) continue;
+            long[] counts = byMonth.computeIfAbsent(d.billingYyyymm(), k -> new long[2]);
+            counts[0] += d.successCount(); // SENT는 항상 최종
+            counts[1] += d.terminalCount() - d.successCount();
+        }
+
+        byMonth.forEach((yyyymm, counts) ->
+                advance(yyyymm, "terminal", counts[0] + counts[1], "sent", counts[0], "failed", counts[1]));
+    }
+
+    /**
+     * 카운터 변경 없이 완료 판정만 다시 한다 (통계 적재 실패분 재시도용).
+     */
+    public void fireIfComplete(int billingYyyymm) {
+        advance(billingYyyymm);
+    }
+
+    public Set<Integer> activeMonths() {
+        Set<String> members = stringRedisTemplate.opsForSet().members(PROGRESS_MONTHS);
+        Set<Integer> months = new TreeSet<>();
+        if (members != null) members.forEach(m -> months.add(Integer.parseInt(m)));
+        return months;
+    }
+
+    public Progress progress(int billingYyyymm) {
+        Map<Object, Object> hash = stringRedisTemplate.opsForHash().entries(PROGRESS_PREFIX + billingYyyymm);
+        return new Progress(billingYyyymm,
+                longOf(hash, "total"), longOf(hash, "terminal"), longOf(hash, "sent"), longOf(hash, "failed"),
+                hash.containsKey("sealed"), hash.containsKey("fired"));
+    }
+
+    public static boolean isTerminal(ProcessResult r) {
+        if ("SENT".equals(r.getStatus())) return true;
+        // 재발송 한도를 넘긴 실패: EMAIL은 SMS로 전환되므로 SMS만 최종
+        return "FAILED".equals(r.getStatus()) && "SMS".equals(r.getChannel())
+                && r.getAttemptNo() > DeliveryRetryScheduler.MAX_RETRY_COUNT;
+    }
+
+    private void advance(int billingYyyymm, Object... fieldDeltas) {
+        List<String> args = new ArrayList<>(fieldDeltas.length + 1);
+        args.add(PROGRESS_TTL_SECONDS);
+        for (Object value : fieldDeltas) args.add(String.valueOf(value));
+
+        Long fired = stringRedisTemplate.execute(PROGRESS_SCRIPT, List.of(PROGRESS_PREFIX + billingYyyymm), args.toArray());
+        if (fired != null && fired == 1L) {
+            summarize(billingYyyymm);
+        }
+    }
+
+    private void summarize(int billingYyyymm) {
+        try {
+            // 통계는 결과 반영마다 증가분으로 유지되므로, 완료 시점에는 이력 기준으로 1회 대사만 한다
+            log.info("[최종 발송 완료] {}월분 통계 대사 시작", billingYyyymm);
+            summaryRepository.rebuildSummary(billingYyyymm);
+            stringRedisTemplate.opsForSet().remove(PROGRESS_MONTHS, String.valueOf(billingYyyymm));
+        } catch (Exception e) {
+            // 완료 신호를 되돌려 두면 DeliveryCompletionChecker가 다음 주기에 다시 판정한다
+            stringRedisTemplate.opsForHash().delete(PROGRESS_PREFIX + billingYyyymm, "fired");
+            log.error("[Summary Error] {}월분 통계 적재 실패 (재시도 예정): {}", billingYyyymm, e.getMessage());
+        }
+    }
+
+    private static long longOf(Map<Object, Object> hash, String field) {
+        Object value = hash.get(field);
+        return value == null ? 0L : Long.parseLong(value.toString());
+    }
+
+    private static DefaultRedisScript<Long> createProgressScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/delivery_progress.lua")));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    public record Progress(int billingYyyymm, long total, long terminal, long sent, long failed,
+                           boolean sealed, boolean summarized) {
+
+        public long outstanding() {
+            return Math.max(total - terminal, 0L);
+        }
+
+        public double percent() {
+            return total == 0 ? 0.0 : Math.min(terminal * 100.0 / total, 100.0);
+        }
+    }
+}
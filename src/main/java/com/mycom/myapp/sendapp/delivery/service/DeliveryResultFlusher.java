@@ -0,0 +1,272 @@
+package com.mycom.myapp.sendapp.delivery.service;
+
+import static com.mycom.myapp.sendapp.delivery.config.DeliveryRedisKey.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.stereotype.Component;
+
+import com.mycom.myapp.sendapp.batch.support.HostIdentifier;
+import com.mycom.myapp.sendapp.delivery.config.DeliveryPersistProperties;
+import com.mycom.myapp.sendapp.delivery.config.DeliveryWorkerProperties;
+import com.mycom.myapp.sendapp.delivery.dto.ProcessResult;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * WRITE_BEHIND 모드의 결과 저널(RESULT_STREAM) -> DB 반영기. 노드당 스레드 1개.
+ *
+ * - 저널 엔트리를 flush-entries 개씩 모아 한 트랜잭션에 반영(group commit)한 뒤 ACK + XDEL 한다.
+ * - 반영 실패 시 엔트리는 내 Pending에 남고, 다음 루프에서 Pending(0-0)부터 엔트리별로 다시 읽어 재반영한다.
+ *   원본(WAITING_STREAM)은 이미 ACK 되었으므로 저널이 유일한 사본이다. 그래서 전달 횟수로는 격리하지 않는다
+ *   (DB 장애 동안 재생할 때마다 횟수가 올라 멀쩡한 결과가 격리되기 때문).
+ *   - 같은 재생에서 다른 엔트리는 커밋되는데 혼자 실패한 엔트리(poison)만 FAILED_STREAM으로 격리한다.
+ *   - 전부 실패하면 DB 장애로 보고 Pending에 그대로 두고 쉬었다가 다시 재생한다.
+ *   - Pending이 전부 실패하면 새 저널 한 묶음을 같은 재생에 넣어 DB가 살아 있는지 가려 본다.
+ *   - 해석할 수 없는 엔트리는 재시도해도 같으므로 바로 격리한다.
+ * - 재시작/다른 노드 장애로 남은 Pending은 reclaim-min-idle-millis 주기로 XCLAIM 해 와서 재생(replay)한다.
+ * - 이력은 INSERT IGNORE(UK: invoice_id, channel, attempt_no), 상태는 같은 값으로 덮어쓰므로 재반영해도 결과가 같다.
+ */
+@Slf4j
+@Component
+public class DeliveryResultFlusher {
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final DeliveryResultJournal resultJournal;
+    private final DeliveryPersistService deliveryPersistService;
+    private final DeliveryPersistProperties persistProperties;
+    private final DeliveryWorkerProperties workerProperties;
+    private final HostIdentifier hostIdentifier;
+    private final DeliveryDeadLetterQueue deadLetterQueue;
+
+    private Thread flusherThread;
+    private volatile boolean running = false;
+
+    public DeliveryResultFlusher(
+            @Qualifier("deliveryStreamTemplate") RedisTemplate<String, byte[]> redisTemplate,
+            DeliveryResultJournal resultJournal,
+            DeliveryPersistService deliveryPersistService,
+            DeliveryPersistProperties persistProperties,
+            DeliveryWorkerProperties workerProperties,
+            HostIdentifier hostIdentifier,
+            DeliveryDeadLetterQueue deadLetterQueue
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.resultJournal = resultJournal;
+        this.deliveryPersistService = deliveryPersistService;
+        this.persistProperties = persistProperties;
+        this.workerProperties = workerProperties;
+        this.hostIdentifier = hostIdentifier;
+        this.deadLetterQueue = deadLetterQueue;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running || !persistProperties.isWriteBehind()) return;
+        running = true;
+
+        Consumer consumer = Consumer.from(RESULT_GROUP_NAME, hostIdentifier.get() + ":flusher");
+        flusherThread = new Thread(() -> flushLoop(consumer), "delivery-result-flusher");
+        flusherThread.start();
+        log.info(">>> 발송 결과 플러셔 가동 (Consumer: {}, Group: {})", consumer.getName(), RESULT_GROUP_NAME);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (flusherThread == null) return;
+        running = false;
+        try {
+            // 진행 중인 반영이 끝날 때까지 대기 (남은 저널은 다음 기동 시 재생)
+            flusherThread.join(persistProperties.getFlushBlockMillis() + 30_000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flusherThread = null;
+        log.info(">>> 발송 결과 플러셔 종료 완료 (미반영 저널: {}건)", resultJournal.backlog());
+    }
+
+    private void flushLoop(Consumer consumer) {
+        boolean replayPending = true; // 기동 직후/반영 실패 후에는 내 Pending부터
+        long nextReclaimAt = 0L;
+
+        while (running) {
+            try {
+                if (System.currentTimeMillis() >= nextReclaimAt) {
+                    reclaimStale(consumer);
+                    nextReclaimAt = System.currentTimeMillis() + workerProperties.getReclaimMinIdleMillis();
+                }
+
+                List<MapRecord<String, String, byte[]>> entries =
+                        read(consumer, replayPending ? ReadOffset.from("0-0") : ReadOffset.lastConsumed());
+                if (entries == null || entries.isEmpty()) {
+                    replayPending = false;
+                    continue;
+                }
+
+                if (replayPending) {
+                    replay(consumer, entries);
+                } else {
+                    flush(entries);
+                }
+            } catch (Exception e) {
+                if (!running) break;
+                replayPending = true;
+                log.error("[Flush Error] 결과 저널 반영 실패 (Pending 유지 후 재시도): {}", e.getMessage());
+                sleepQuietly(workerProperties.getErrorBackoffMillis());
+            }
+        }
+    }
+
+    private List<MapRecord<String, String, byte[]>> read(Consumer consumer, ReadOffset offset) {
+        StreamOperations<String, String, byte[]> ops = redisTemplate.opsForStream();
+        return ops.read(
+            consumer,
+            StreamReadOptions.empty().count(persistProperties.getFlushEntries()).block(Duration.ofMillis(persistProperties.getFlushBlockMillis())),
+            StreamOffset.create(RESULT_STREAM, offset)
+        );
+    }
+
+    /**
+     * 다른(또는 이전 기동의) 플러셔가 남긴 Pending을 가져와 반영한다.
+     */
+    private void reclaimStale(Consumer consumer) {
+        PendingMessages pending = redisTemplate.opsForStream()
+                .pending(RESULT_STREAM, RESULT_GROUP_NAME, Range.unbounded(), workerProperties.getReclaimCount());
+        if (pending == null || pending.isEmpty()) return;
+
+        Duration minIdle = Duration.ofMillis(workerProperties.getReclaimMinIdleMillis());
+        List<RecordId> ids = new ArrayList<>();
+        for (PendingMessage message : pending) {
+            if (consumer.getName().equals(message.getConsumerName())) continue;
+            if (message.getElapsedTimeSinceLastDelivery().compareTo(minIdle) < 0) continue;
+            ids.add(message.getId());
+        }
+        if (ids.isEmpty()) return;
+
+        StreamOperations<String, String, byte[]> ops = redisTemplate.opsForStream();
+        List<MapRecord<String, String, byte[]>> claimed = ops
+                .claim(RESULT_STREAM, RESULT_GROUP_NAME, consumer.getName(), minIdle, ids.toArray(new RecordId[0]));
+        if (claimed == null || claimed.isEmpty()) return;
+
+        log.warn("♻️ [Flush Reclaim] 방치된 결과 저널 {}건 회수 후 반영", claimed.size());
+        flush(claimed);
+    }
+
+    /**
+     * 반영에 실패했던 Pending 재생: 엔트리별로 반영해 혼자 실패하는 엔트리만 격리한다 (성공한 엔트리는 바로 ACK + XDEL).
+     * 커밋된 엔트리가 하나도 없으면 DB 장애로 보고 예외로 알려 Pending을 유지한 채 쉬었다가 재생한다.
+     */
+    private void replay(Consumer consumer, List<MapRecord<String, String, byte[]>> entries) {
+        List<MapRecord<String, String, byte[]>> failed = new ArrayList<>();
+        RuntimeException failure = null;
+        int committed = 0;
+        for (MapRecord<String, String, byte[]> entry : entries) {
+            try {
+                if (flush(List.of(entry)) > 0) committed++;
+            } catch (RuntimeException e) {
+                failed.add(entry);
+                failure = e;
+            }
+        }
+
+        if (committed == 0 && !failed.isEmpty()) {
+            // Pending이 전부 실패: 새 저널 한 묶음을 같은 재생에 넣어 DB가 살아 있는지 가린다 (실패하면 함께 Pending에 남는다)
+            List<MapRecord<String, String, byte[]>> fresh = read(consumer, ReadOffset.lastConsumed());
+            for (MapRecord<String, String, byte[]> entry : fresh == null ? List.<MapRecord<String, String, byte[]>>of() : fresh) {
+                try {
+                    if (flush(List.of(entry)) > 0) committed++;
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+            }
+        }
+
+        if (failed.isEmpty()) return;
+        if (committed == 0) {
+            log.error("[Flush Replay Error] 결과 저널 {}건 재반영 실패, 커밋된 엔트리 없음 (DB 장애로 보고 Pending 유지)", failed.size());
+            throw failure;
+        }
+        // DB는 반영되는데 혼자 실패하는 엔트리 -> poison
+        deadLetter(failed, deliveryCounts(failed), "결과 반영 반복 실패");
+    }
+
+    private Map<RecordId, Long> deliveryCounts(List<MapRecord<String, String, byte[]>> entries) {
+        PendingMessages pending = redisTemplate.opsForStream().pending(RESULT_STREAM, RESULT_GROUP_NAME,
+                Range.closed(entries.get(0).getId().getValue(), entries.get(entries.size() - 1).getId().getValue()),
+                entries.size());
+        Map<RecordId, Long> counts = new HashMap<>(entries.size() * 2);
+        if (pending != null) {
+            for (PendingMessage message : pending) counts.put(message.getId(), message.getTotalDeliveryCount());
+        }
+        return counts;
+    }
+
+    private void deadLetter(List<MapRecord<String, String, byte[]>> entries, Map<RecordId, Long> deliveryCounts, String reason) {
+        if (entries.isEmpty()) return;
+        deadLetterQueue.deadLetter(RESULT_STREAM, RESULT_GROUP_NAME, entries, deliveryCounts, reason);
+        redisTemplate.opsForStream().delete(RESULT_STREAM, entries.stream().map(MapRecord::getId).toArray(RecordId[]::new));
+    }
+
+    /**
+     * 엔트리 묶음 -> 한 트랜잭션으로 group commit -> ACK + XDEL
+     * @return DB에 반영한 결과 건수 (해석 실패로 격리만 한 엔트리는 세지 않는다)
+     */
+    private int flush(List<MapRecord<String, String, byte[]>> entries) {
+        long startTime = System.currentTimeMillis();
+        List<ProcessResult> results = new ArrayList<>();
+        List<RecordId> ids = new ArrayList<>(entries.size());
+        List<MapRecord<String, String, byte[]>> undecodable = new ArrayList<>();
+
+        for (MapRecord<String, String, byte[]> entry : entries) {
+            try {
+                results.addAll(resultJournal.decode(entry));
+                ids.add(entry.getId());
+            } catch (Exception e) {
+                // 해석할 수 없는 엔트리는 재시도해도 같으므로 격리만 한다
+                log.error("[Flush Decode Error] 결과 저널 해석 실패 - RecordId: {}, Error: {}", entry.getId(), e.getMessage());
+                undecodable.add(entry);
+            }
+        }
+
+        deliveryPersistService.saveBatchResults(results);
+
+        if (!ids.isEmpty()) {
+            RecordId[] done = ids.toArray(new RecordId[0]);
+            StreamOperations<String, String, byte[]> ops = redisTemplate.opsForStream();
+            ops.acknowledge(RESULT_STREAM, RESULT_GROUP_NAME, done);
+            ops.delete(RESULT_STREAM, done);
+        }
+        deadLetter(undecodable, Map.of(), "결과 저널 해석 실패");
+
+        log.info("[Flush Result] Entries: {} | DB_Update: {} | Latency: {}ms",
+                entries.size(), results.size(), System.currentTimeMillis() - startTime);
+        return results.size();
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.mycom.myapp.sendapp.delivery.service;
+
+import static com.mycom.myapp.sendapp.delivery.config.DeliveryRedisKey.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import com.mycom.myapp.sendapp.delivery.codec.DeliveryPayloadCodec;
+import com.mycom.myapp.sendapp.delivery.config.DeliveryStreamKeys;
+import com.mycom.myapp.sendapp.delivery.dto.ProcessResult;
+
+/**
+ * WRITE_BEHIND 모드의 발송 결과 저널 (RESULT_STREAM).
+ *
+ * - 워커 1회분 결과를 엔트리 1개로 적재한 "뒤에" WAITING_STREAM 원본을 ACK 한다.
+ *   두 스트림은 Cluster에서 슬롯이 달라 MULTI/EXEC로 묶을 수 없으므로 순서로 보장한다:
+ *   적재 후 ACK 전에 죽으면 원본이 Pending에 남아 다시 처리되고 저널에 같은 결과가 한 번 더 실릴 뿐이다
+ *   (이력 INSERT IGNORE / 진행률은 새로 들어간 이력 기준이라 재반영해도 결과가 같다).
+ *   따라서 "ACK된 원본의 결과는 항상 저널에 있다"가 성립한다.
+ * - 저널은 DeliveryResultFlusher가 모아서 DB에 반영한 뒤 ACK + XDEL 하므로, 길이(XLEN)가 곧 미반영 잔량이다.
+ */
+@Component
+public class DeliveryResultJournal {
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final DeliveryPayloadCodec payloadCodec;
+
+    public DeliveryResultJournal(
+            @Qualifier("deliveryStreamTemplate") RedisTemplate<String, byte[]> redisTemplate,
+            DeliveryPayloadCodec payloadCodec
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.payloadCodec = payloadCodec;
+    }
+
+    /**
+     * 결과 적재 -> 원본 ACK (순서대로 2회). 적재 실패 시 예외 -> 호출부는 ACK하지 않은 것으로 보고 Pending에 남긴다.
+     */
+    public void appendAndAcknowledge(List<ProcessResult> results, RecordId[] ackIds) {
+        if (results.isEmpty() && ackIds.length == 0) return;
+
+        if (!results.isEmpty()) {
+            Map<String, byte[]> body = Map.of(DeliveryStreamKeys.RESULTS, payloadCodec.encodeResults(results));
+            MapRecord<String, String, byte[]> entry = StreamRecords.newRecord().in(RESULT_STREAM).ofMap(body);
+            RecordId appended = redisTemplate.<String, byte[]>opsForStream().add(entry);
+            if (appended == null) {
+                throw new IllegalStateException("결과 저널 적재가 반영되지 않았습니다.");
+            }
+        }
+        if (ackIds.length > 0) {
+            redisTemplate.opsForStream().acknowledge(WAITING_STREAM, GROUP_NAME, ackIds);
+        }
+    }
+
+    /**
+     * 아직 DB에 반영되지 않은 저널 엔트리 수
+     */
+    public long backlog() {
+        Long size = redisTemplate.opsForStream().size(RESULT_STREAM);
+        return size == null ? 0L : size;
+    }
+
+    public List<ProcessResult> decode(MapRecord<String, String, byte[]> entry) {
+        return payloadCodec.decodeResults(entry.getValue().get(DeliveryStreamKeys.RESULTS));
+    }
+}
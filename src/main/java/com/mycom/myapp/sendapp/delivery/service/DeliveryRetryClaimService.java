@@ -0,0 +1,81 @@
+package com.mycom.myapp.sendapp.delivery.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.mycom.myapp.sendapp.delivery.dto.DeliveryRetryDto;
+import com.mycom.myapp.sendapp.delivery.repository.DeliveryStatusRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 재발송/SMS 전환 대상 페이지 선점.
+ *
+ * 페이지 1개 = 트랜잭션 1개: invoice_id 커서 뒤의 FAILED 건을 LIMIT 만큼 잠그고(SKIP LOCKED) 한 문장으로 READY 전이 후 커밋한다.
+ * 다른 노드가 잡고 있는 행은 건너뛰므로 같은 건이 두 노드에서 동시에 적재되지 않는다.
+ *
+ * 발송 시각(백오프 + 달력)이 아직 오지 않은 건은 같은 트랜잭션에서 SCHEDULED + scheduled_at으로 바꿔 둔다.
+ * 지연 큐에서 기다리는 동안 READY로 남아 있으면 Sync가 유실로 보고 다시 싣기 때문이다.
+ */
+@Service
+@RequiredArgsConstructor
+public class DeliveryRetryClaimService {
+
+    private final DeliveryStatusRepository statusRepository;
+    private final DeliveryCalendar calendar;
+
+    /** 선점한 건과 달력으로 보정한 발송 시각 */
+    public record Claimed(DeliveryRetryDto target, long releaseAtMillis) {}
+
+    /**
+     * FAILED & retry_count < maxRetry -> READY (retry_count + 1), 발송 시각이 미래면 SCHEDULED
+     * @param dueAtMillis 건별 요청 발송 시각 (백오프)
+     * @return 선점한 건 (retryCount는 전이 전 값)
+     */
+    @Transactional
+    public List<Claimed> claimRetryPage(int maxRetry, long afterInvoiceId, int limit, ToLongFunction<DeliveryRetryDto> dueAtMillis) {
+        List<DeliveryRetryDto> page = statusRepository.findRetryTargetsPage(maxRetry, afterInvoiceId, limit);
+        if (page.isEmpty()) return List.of();
+
+        statusRepository.resetStatusToReadyBatch(page.stream().map(DeliveryRetryDto::getInvoiceId).toList());
+        return deferUntilRelease(page, dueAtMillis);
+    }
+
+    /**
+     * EMAIL & FAILED & retry_count >= maxRetry -> SMS READY (retry_count 0), 지금 보낼 수 없으면 SCHEDULED
+     */
+    @Transactional
+    public List<Claimed> claimFallbackPage(int maxRetry, long afterInvoiceId, int limit) {
+        List<DeliveryRetryDto> page = statusRepository.findFallbackTargetsPage(maxRetry, afterInvoiceId, limit);
+        if (page.isEmpty()) return List.of();
+
+        statusRepository.switchToSmsBatch(page.stream().map(DeliveryRetryDto::getInvoiceId).toList());
+        long now = System.currentTimeMillis();
+        return deferUntilRelease(page, target -> now);
+    }
+
+    private List<Claimed> deferUntilRelease(List<DeliveryRetryDto> page, ToLongFunction<DeliveryRetryDto> dueAtMillis) {
+        long now = System.currentTimeMillis();
+        ZoneId zone = ZoneId.systemDefault();
+        List<Claimed> claimed = new ArrayList<>(page.size());
+        Map<Long, LocalDateTime> deferred = new LinkedHashMap<>();
+        for (DeliveryRetryDto target : page) {
+            long releaseAt = calendar.releaseAtMillis(dueAtMillis.applyAsLong(target), target.getInvoiceId());
+            claimed.add(new Claimed(target, releaseAt));
+            if (releaseAt > now) {
+                deferred.put(target.getInvoiceId(), LocalDateTime.ofInstant(Instant.ofEpochMilli(releaseAt), zone));
+            }
+        }
+        statusRepository.deferToScheduledBatch(deferred);
+        return claimed;
+    }
+}
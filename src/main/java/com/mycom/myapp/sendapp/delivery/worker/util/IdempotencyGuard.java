@@ -1,39 +1,219 @@
 package com.mycom.myapp.sendapp.delivery.worker.util;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.scripting.support.ResourceScriptSource;
 import org.springframework.stereotype.Component;
 
+import com.mycom.myapp.sendapp.delivery.config.DeliveryWorkerProperties;
+
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 
+/**
+ * 발송 멱등성 가드 (청크 단위, 파이프라인).
+ *
+ * send:done:{invoiceId}
+ * - "SENDING:{소유자}": 발송 중 선점 (SET NX EX, reservation-ttl 후 자동 해제 -> 선점한 워커가 죽어도 재발송 가능)
+ * - "SENT"   : 발송 완료 (1일 유지, 어떤 경우에도 재발송 금지)
+ *
+ * 조회와 선점을 SET NX 하나로 처리해 "확인 후 발송" 사이의 경합(두 컨슈머가 같은 건을 동시에 발송)을 막는다.
+ * 청크 전체를 파이프라인 한 번으로 보내므로 건당 왕복이 없다.
+ *
+ * 속도 제한 대기 등으로 청크 발송이 reservation-ttl보다 길어질 수 있으므로, 선점은 Lease로 돌려주고
+ * 발송 직전마다 Lease.hold()로 확인한다. 마지막 연장에서 ttl/3이 지났으면 청크 전체를 한 번에 연장(PEXPIRE)하고,
+ * 그 사이 선점을 잃은 건(다른 컨슈머가 선점/SENT)은 보내지 않는다.
+ */
 @Component
 @RequiredArgsConstructor
 public class IdempotencyGuard {
 
     private final StringRedisTemplate redisTemplate;
+    private final DeliveryWorkerProperties workerProperties;
     private static final String DONE_KEY_PREFIX = "send:done:";
+    private static final String SENDING_PREFIX = "SENDING:";
+    private static final String SENT = "SENT";
+    private static final Duration SENT_TTL = Duration.ofDays(1);
+    private static final String RENEW_SCRIPT = createScript("redis/idempotency_renew.lua").getScriptAsString();
+    private static final String RELEASE_SCRIPT = createScript("redis/idempotency_release.lua").getScriptAsString();
+
+    // 선점 유지 시간: 재수거(reclaim-min-idle x max-delivery-count)보다 짧게 (기동 시 검증, 발송 중에는 연장된다)
+    @Value("${app.delivery.idempotency.reservation-ttl-seconds:60}")
+    private long reservationTtlSeconds;
+
+    public enum Reservation {
+        /** 선점 성공 -> 발송 대상 */
+        RESERVED,
+        /** 이미 발송 완료 -> 건너뜀 */
+        ALREADY_SENT,
+        /** 다른 컨슈머가 발송 중 -> 이번에는 건너뛰고 ACK하지 않는다 (선점이 풀린 뒤 재수거) */
+        IN_FLIGHT
+    }
+
+    /**
+     * 선점이 워커가 죽은 뒤에도 dead-letter 전에 풀리도록 보장한다.
+     * 재수거된 엔트리는 선점이 남아 있는 동안 IN_FLIGHT로 미뤄지며 전달 횟수만 늘어나기 때문에,
+     * ttl이 reclaim-min-idle x max-delivery-count 이상이면 발송되지 않은 채 FAILED_STREAM으로 격리된다.
+     */
+    @PostConstruct
+    public void validate() {
+        long ttlMillis = reservationTtlSeconds * 1000;
+        long reclaimWindowMillis = workerProperties.getReclaimMinIdleMillis() * workerProperties.getMaxDeliveryCount();
+        if (reservationTtlSeconds <= 0 || ttlMillis >= reclaimWindowMillis) {
+            throw new IllegalStateException("app.delivery.idempotency.reservation-ttl-seconds(" + reservationTtlSeconds
+                    + ")는 0보다 크고 reclaim-min-idle-millis x max-delivery-count(" + reclaimWindowMillis + "ms)보다 짧아야 합니다.");
+        }
+    }
 
     /**
-     * 발송 가능 여부 확인
-     * @return true면 이미 발송 완료된 건(차단), false면 발송 대상
+     * 청크 단위 선점: 건마다 SET NX EX + GET 을 한 파이프라인으로 보낸다.
+     * @return 건별 선점 결과 + 선점 연장 핸들
      */
-    public boolean isAlreadySent(Long invoiceId) {
-        String key = DONE_KEY_PREFIX + invoiceId;
-        String val = redisTemplate.opsForValue().get(key);
-        
-        // Redis에 "SENT"라고 기록되어 있으면 어떤 경우에도 재발송 금지
-        return "SENT".equals(val);
+    public Lease reserveAll(Collection<Long> invoiceIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(invoiceIds));
+        Lease lease = new Lease(SENDING_PREFIX + UUID.randomUUID(), ids.size());
+        if (ids.isEmpty()) return lease;
+
+        Expiration ttl = Expiration.seconds(reservationTtlSeconds);
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Long id : ids) {
+                String key = DONE_KEY_PREFIX + id;
+                conn.set(key, lease.owner, ttl, SetOption.SET_IF_ABSENT);
+                conn.get(key);
+            }
+            return null;
+        });
+
+        for (int i = 0; i < ids.size(); i++) {
+            boolean reserved = Boolean.TRUE.equals(replies.get(i * 2));
+            Object current = replies.get(i * 2 + 1);
+            Reservation reservation = reserved ? Reservation.RESERVED
+                    : SENT.equals(current) ? Reservation.ALREADY_SENT
+                    : Reservation.IN_FLIGHT;
+            lease.reservations.put(ids.get(i), reservation);
+            if (reservation == Reservation.RESERVED) lease.held.add(ids.get(i));
+        }
+        return lease;
+    }
+
+    /**
+     * 발송 성공분 확정: 선점 값을 SENT(1일)로 덮어쓴다. 파이프라인 한 번.
+     */
+    public void markAllSent(Collection<Long> invoiceIds) {
+        if (invoiceIds.isEmpty()) return;
+
+        Expiration ttl = Expiration.from(SENT_TTL);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Long id : invoiceIds) {
+                conn.set(DONE_KEY_PREFIX + id, SENT, ttl, SetOption.UPSERT);
+            }
+            return null;
+        });
     }
 
-    public void markAsSent(Long invoiceId) {
-        String key = DONE_KEY_PREFIX + invoiceId;
+    /**
+     * 발송 실패분 선점 해제 (재시도 경로가 바로 다시 선점할 수 있도록). 파이프라인 한 번.
+     * 선점이 만료돼 다른 컨슈머가 다시 잡은 키를 지우지 않도록, 값이 이 Lease의 소유자일 때만 DEL 한다.
+     */
+    public void releaseAll(Lease lease, Collection<Long> invoiceIds) {
+        if (invoiceIds.isEmpty()) return;
 
-        redisTemplate.opsForValue().set(key, "SENT", Duration.ofDays(1));
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Long id : invoiceIds) {
+                conn.eval(RELEASE_SCRIPT, ReturnType.INTEGER, 1, DONE_KEY_PREFIX + id, lease.owner);
+            }
+            return null;
+        });
     }
-    
+
     // [테스트용] 특정 청구서의 멱등성 초기화
     public void clear(Long invoiceId) {
         redisTemplate.delete(DONE_KEY_PREFIX + invoiceId);
     }
+
+    /**
+     * 청크 하나의 선점 결과. 발송 스레드 여러 개가 같이 쓴다.
+     */
+    public final class Lease {
+        private final String owner;
+        private final Map<Long, Reservation> reservations;
+        private final List<Long> held = new ArrayList<>();
+        private final Set<Long> lost = ConcurrentHashMap.newKeySet();
+        private volatile long renewedAt = System.currentTimeMillis();
+
+        private Lease(String owner, int size) {
+            this.owner = owner;
+            this.reservations = new HashMap<>(size * 2);
+        }
+
+        public Reservation get(Long invoiceId) {
+            return reservations.get(invoiceId);
+        }
+
+        /**
+         * 발송 직전 확인: 선점을 아직 쥐고 있으면 true (필요하면 청크 전체를 연장한다).
+         */
+        public boolean hold(Long invoiceId) {
+            renewIfDue();
+            return !lost.contains(invoiceId);
+        }
+
+        /**
+         * 연장 중 선점을 잃은 건 (발송하지 않았으므로 확정/해제 대상이 아니다)
+         */
+        public Set<Long> lost() {
+            return lost;
+        }
+
+        private void renewIfDue() {
+            long interval = reservationTtlSeconds * 1000 / 3;
+            if (System.currentTimeMillis() - renewedAt < interval) return;
+            synchronized (this) {
+                if (System.currentTimeMillis() - renewedAt < interval) return;
+
+                List<Long> ids = new ArrayList<>(held.size());
+                for (Long id : held) if (!lost.contains(id)) ids.add(id);
+                String ttlMillis = String.valueOf(reservationTtlSeconds * 1000);
+                List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    StringRedisConnection conn = (StringRedisConnection) connection;
+                    for (Long id : ids) {
+                        conn.eval(RENEW_SCRIPT, ReturnType.INTEGER, 1, DONE_KEY_PREFIX + id, owner, ttlMillis);
+                    }
+                    return null;
+                });
+                for (int i = 0; i < ids.size(); i++) {
+                    if (!Long.valueOf(1L).equals(replies.get(i))) lost.add(ids.get(i));
+                }
+                renewedAt = System.currentTimeMillis();
+            }
+        }
+    }
+
+    private static DefaultRedisScript<Long> createScript(String path) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(Long.class);
+        return script;
+    }
 }
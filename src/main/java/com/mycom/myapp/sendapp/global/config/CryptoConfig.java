@@ -20,6 +20,20 @@ public class CryptoConfig {
     @Value("${APP_AES256_KEY_B64:}")
     private String keysetB64;
 
+    // 암호문 -> 마스킹/평문 캐시 (0이면 미사용)
+    @Value("${app.crypto.contact-cache.masked-max-size:0}")
+    private int maskedCacheSize;
+
+    @Value("${app.crypto.contact-cache.plain-max-size:0}")
+    private int plainCacheSize;
+
+    @Value("${app.crypto.contact-cache.ttl-seconds:600}")
+    private long cacheTtlSeconds;
+
+    // 일괄 마스킹/복호화 시 병렬 분할 기준 (고유 암호문 수, 0이면 순차)
+    @Value("${app.crypto.bulk.parallel-threshold:0}")
+    private int bulkParallelThreshold;
+
     @Bean
     public DeterministicAead deterministicAead() throws Exception {
         if (keysetB64 == null || keysetB64.isBlank()) {
@@ -33,6 +47,6 @@ public class CryptoConfig {
     }
     @Bean
     public ContactProtector contactProtector(DeterministicAead daead) {
-        return new ContactProtector(daead);
+        return new ContactProtector(daead, maskedCacheSize, plainCacheSize, cacheTtlSeconds, bulkParallelThreshold);
     }
 }
@@ -0,0 +1,143 @@
+package com.mycom.myapp.sendapp.global.crypto;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 크기 + TTL 제한 LRU 캐시 (ContactProtector 전용).
+ *
+ * - 발송 스레드 여러 개가 동시에 조회하므로 키 해시로 나눈 세그먼트별로만 잠근다.
+ * - 용량 초과/만료로 빠지는 값은 onEvict로 넘겨 호출부가 정리(평문 바이트 0 채우기 등)할 수 있게 한다.
+ * - 조회되지 않는 만료 항목은 sweepExpired()로 주기적으로 걷어낸다 (평문이 TTL을 넘겨 메모리에 남지 않도록).
+ */
+final class BoundedCache<K, V> {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final long ttlNanos;
+    private final Consumer<V> onEvict;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    BoundedCache(int maxSize, long ttlSeconds, Consumer<V> onEvict) {
+        int perSegment = Math.max(1, (maxSize + SEGMENTS - 1) / SEGMENTS);
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>(perSegment, onEvict);
+        }
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.onEvict = onEvict;
+    }
+
+    V get(K key) {
+        return read(key, Function.identity());
+    }
+
+    /**
+     * 적중 시 잠금 안에서 reader를 적용한 결과를 돌려준다 (미스면 null).
+     * 값이 다른 스레드에서 밀려나며 정리(onEvict)되기 전에 복사해야 할 때 사용한다.
+     */
+    <R> R read(K key, Function<? super V, ? extends R> reader) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (System.nanoTime() - entry.loadedAt() > ttlNanos) {
+                segment.remove(key);
+                onEvict.accept(entry.value());
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return reader.apply(entry.value());
+        }
+    }
+
+    void put(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> previous = segment.put(key, new Entry<>(value, System.nanoTime()));
+            if (previous != null && previous.value() != value) {
+                onEvict.accept(previous.value());
+            }
+        }
+    }
+
+    /**
+     * 만료 항목 일괄 제거 (세그먼트 단위로 잠근다).
+     * @return 제거한 건수
+     */
+    int sweepExpired() {
+        long now = System.nanoTime();
+        int removed = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                Iterator<Entry<V>> it = segment.values().iterator();
+                while (it.hasNext()) {
+                    Entry<V> entry = it.next();
+                    if (now - entry.loadedAt() <= ttlNanos) continue;
+                    it.remove();
+                    onEvict.accept(entry.value());
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (SEGMENTS - 1)];
+    }
+
+    private record Entry<V>(V value, long loadedAt) {}
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, Entry<V>> {
+        private final int capacity;
+        private final Consumer<V> onEvict;
+
+        Segment(int capacity, Consumer<V> onEvict) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.onEvict = onEvict;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            if (size() > capacity) {
+                onEvict.accept(eldest.getValue().value());
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.mycom.myapp.sendapp.global.crypto;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ContactProtector 캐시 주기 정리 + 적중률 로그.
+ *
+ * - 만료 항목은 조회될 때만 빠지므로, 다시 조회되지 않는 평문이 TTL을 넘겨 남지 않도록 주기마다 걷어낸다 (평문은 0으로 덮어씀).
+ * - 직전 주기 대비 적중/미스 증가분으로 적중률을 남긴다 (조회가 없던 주기는 생략).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ContactCacheSweeper {
+
+    private final ContactProtector contactProtector;
+
+    private ContactProtector.CacheStats last = new ContactProtector.CacheStats(0, 0, 0, 0, 0, 0);
+
+    @Scheduled(fixedDelayString = "${app.crypto.contact-cache.sweep-interval-millis:60000}")
+    public void sweep() {
+        int expired = contactProtector.sweepExpired();
+
+        ContactProtector.CacheStats now = contactProtector.cacheStats();
+        long maskedHits = now.maskedHits() - last.maskedHits();
+        long maskedMisses = now.maskedMisses() - last.maskedMisses();
+        long plainHits = now.plainHits() - last.plainHits();
+        long plainMisses = now.plainMisses() - last.plainMisses();
+        last = now;
+        if (maskedHits + maskedMisses + plainHits + plainMisses == 0 && expired == 0) return;
+
+        log.info("[ContactCache] 마스킹 적중률 {}% ({}/{}, {}건 보관), 평문 적중률 {}% ({}/{}, {}건 보관), 만료 정리 {}건",
+                rate(maskedHits, maskedMisses), maskedHits, maskedHits + maskedMisses, now.maskedEntries(),
+                rate(plainHits, plainMisses), plainHits, plainHits + plainMisses, now.plainEntries(), expired);
+    }
+
+    private static String rate(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? "-" : String.format("%.1f", hits * 100.0 / total);
+    }
+}
@@ -2,8 +2,16 @@ package com.mycom.myapp.sendapp.global.crypto;
 
 import com.google.crypto.tink.DeterministicAead;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
 
 /**
  * "EncryptedString -> (필요시 복호화) -> 마스킹" 단일 관문.
@@ -11,31 +19,75 @@ import java.util.Base64;
  * 강제 규칙:
  * - 외부 응답/로그에는 masked*만 사용
  * - plain*은 내부 발송(SMS/Email)에서만 제한적으로 사용
+ *
+ * 캐시(선택):
+ * - 결정적 암호화라 같은 암호문은 항상 같은 평문이므로, 암호문 -> 결과를 크기/TTL 제한으로 캐시할 수 있다.
+ * - 마스킹 결과 캐시와 평문 캐시는 분리한다. 평문은 byte[]로만 보관하고 밀려나거나 만료되면 0으로 덮어쓴다.
+ * - 크기 0이면 해당 캐시를 쓰지 않는다 (기본 생성자는 둘 다 미사용).
+ * - 조회되지 않는 만료 항목은 sweepExpired()로 걷어낸다 (ContactCacheSweeper가 주기 호출).
+ *
+ * 일괄 처리(maskedEmails/maskedPhones/plainEmails/plainPhones):
+ * - 목록 안의 같은 암호문은 한 번만 복호화하고, Base64 디코드용 버퍼를 재사용한다.
+ * - 고유 암호문 수가 parallelThreshold 이상이면 구간을 나눠 여러 코어에서 처리한다 (0이면 항상 순차).
  */
 public final class ContactProtector {
 
     private static final String PREFIX = "v1:";
     private static final byte[] AD_EMAIL = "users.email".getBytes(StandardCharsets.UTF_8);
     private static final byte[] AD_PHONE = "users.phone".getBytes(StandardCharsets.UTF_8);
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
 
     private final DeterministicAead daead;
+    private final BoundedCache<String, String> maskedEmailCache;
+    private final BoundedCache<String, String> maskedPhoneCache;
+    private final BoundedCache<String, byte[]> plainEmailCache;
+    private final BoundedCache<String, byte[]> plainPhoneCache;
+    private final int parallelThreshold;
 
     public ContactProtector(DeterministicAead daead) {
+        this(daead, 0, 0, 0);
+    }
+
+    public ContactProtector(DeterministicAead daead, int maskedCacheSize, int plainCacheSize, long ttlSeconds) {
+        this(daead, maskedCacheSize, plainCacheSize, ttlSeconds, 0);
+    }
+
+    /**
+     * @param maskedCacheSize 마스킹 결과 캐시 최대 건수 (이메일/전화 각각, 0이면 미사용)
+     * @param plainCacheSize  평문 캐시 최대 건수 (이메일/전화 각각, 0이면 미사용)
+     * @param ttlSeconds      캐시 유지 시간(초)
+     * @param parallelThreshold 일괄 처리 시 병렬로 나누는 고유 암호문 수 기준 (0이면 순차)
+     */
+    public ContactProtector(DeterministicAead daead, int maskedCacheSize, int plainCacheSize, long ttlSeconds,
+                            int parallelThreshold) {
         this.daead = daead;
+        this.parallelThreshold = parallelThreshold;
+        this.maskedEmailCache = maskedCacheSize > 0 ? new BoundedCache<>(maskedCacheSize, ttlSeconds, v -> {}) : null;
+        this.maskedPhoneCache = maskedCacheSize > 0 ? new BoundedCache<>(maskedCacheSize, ttlSeconds, v -> {}) : null;
+        this.plainEmailCache = plainCacheSize > 0 ? new BoundedCache<>(plainCacheSize, ttlSeconds, ContactProtector::zeroize) : null;
+        this.plainPhoneCache = plainCacheSize > 0 ? new BoundedCache<>(plainCacheSize, ttlSeconds, ContactProtector::zeroize) : null;
     }
-    
+
     public String maskedName(String plainName) {
     	return Masker.maskName(plainName);
     }
-    
+
     public String maskedEmail(EncryptedString emailEnc) throws Exception {
-        String plain = decryptV1(emailEnc, AD_EMAIL);
-        return Masker.maskEmail(plain);
+        String cached = getMasked(maskedEmailCache, emailEnc);
+        if (cached != null) return cached;
+
+        String masked = Masker.maskEmail(plain(emailEnc, AD_EMAIL, plainEmailCache));
+        putMasked(maskedEmailCache, emailEnc, masked);
+        return masked;
     }
 
     public String maskedPhone(EncryptedString phoneEnc) throws Exception {
-        String plain = decryptV1(phoneEnc, AD_PHONE);
-        return Masker.maskPhone010(plain);
+        String cached = getMasked(maskedPhoneCache, phoneEnc);
+        if (cached != null) return cached;
+
+        String masked = Masker.maskPhone010(plain(phoneEnc, AD_PHONE, plainPhoneCache));
+        putMasked(maskedPhoneCache, phoneEnc, masked);
+        return masked;
     }
 
     /**
@@ -43,7 +95,7 @@ public final class ContactProtector {
      * 외부 DTO/로그에 절대 내보내지 말 것.
      */
     public String plainEmail(EncryptedString emailEnc) throws Exception {
-        return decryptV1(emailEnc, AD_EMAIL);
+        return plain(emailEnc, AD_EMAIL, plainEmailCache);
     }
 
     /**
@@ -51,17 +103,189 @@ public final class ContactProtector {
      * 외부 DTO/로그에 절대 내보내지 말 것.
      */
     public String plainPhone(EncryptedString phoneEnc) throws Exception {
-        return decryptV1(phoneEnc, AD_PHONE);
+        return plain(phoneEnc, AD_PHONE, plainPhoneCache);
+    }
+
+    // ===== 일괄 처리 =====
+
+    /**
+     * 암호문 목록 -> 마스킹 이메일 목록 (입력과 같은 순서/크기).
+     * 건별 API와 달리 예외로 전체를 중단하지 않고, 실패한 항목만 onFailure로 채운다. null/빈 암호문은 null.
+     */
+    public List<String> maskedEmails(List<EncryptedString> emailEncs, String onFailure) {
+        return bulk(emailEncs, AD_EMAIL, maskedEmailCache, plainEmailCache, Masker::maskEmail, onFailure);
+    }
+
+    public List<String> maskedPhones(List<EncryptedString> phoneEncs, String onFailure) {
+        return bulk(phoneEncs, AD_PHONE, maskedPhoneCache, plainPhoneCache, Masker::maskPhone010, onFailure);
+    }
+
+    /**
+     * 내부 발송 전용 일괄 복호화. 외부 DTO/로그에 절대 내보내지 말 것.
+     */
+    public List<String> plainEmails(List<EncryptedString> emailEncs, String onFailure) {
+        return bulk(emailEncs, AD_EMAIL, null, plainEmailCache, UnaryOperator.identity(), onFailure);
+    }
+
+    /**
+     * 내부 발송 전용 일괄 복호화. 외부 DTO/로그에 절대 내보내지 말 것.
+     */
+    public List<String> plainPhones(List<EncryptedString> phoneEncs, String onFailure) {
+        return bulk(phoneEncs, AD_PHONE, null, plainPhoneCache, UnaryOperator.identity(), onFailure);
+    }
+
+    /**
+     * 캐시 적중/미스 누적치와 현재 보관 건수 (미사용 캐시는 0)
+     */
+    public CacheStats cacheStats() {
+        return new CacheStats(
+                hits(maskedEmailCache) + hits(maskedPhoneCache),
+                misses(maskedEmailCache) + misses(maskedPhoneCache),
+                hits(plainEmailCache) + hits(plainPhoneCache),
+                misses(plainEmailCache) + misses(plainPhoneCache),
+                size(maskedEmailCache) + size(maskedPhoneCache),
+                size(plainEmailCache) + size(plainPhoneCache));
+    }
+
+    public record CacheStats(long maskedHits, long maskedMisses, long plainHits, long plainMisses,
+                             int maskedEntries, int plainEntries) {}
+
+    /**
+     * 만료된 캐시 항목을 모두 제거한다. 평문 항목은 0으로 덮어쓴다.
+     * @return 제거한 건수
+     */
+    public int sweepExpired() {
+        return sweep(maskedEmailCache) + sweep(maskedPhoneCache) + sweep(plainEmailCache) + sweep(plainPhoneCache);
     }
 
-    private String decryptV1(EncryptedString enc, byte[] ad) throws Exception {
+    private String getMasked(BoundedCache<String, String> cache, EncryptedString enc) {
+        if (cache == null || enc == null || enc.isEmpty()) return null;
+        return cache.get(enc.packed());
+    }
+
+    private void putMasked(BoundedCache<String, String> cache, EncryptedString enc, String masked) {
+        if (cache == null || enc == null || enc.isEmpty() || masked == null) return;
+        cache.put(enc.packed(), masked);
+    }
+
+    private String plain(EncryptedString enc, byte[] ad, BoundedCache<String, byte[]> cache) throws Exception {
         if (enc == null || enc.isEmpty()) return null;
-        String packed = enc.packed();
+        return plain(enc.packed(), ad, cache, null);
+    }
+
+    private String plain(String packed, byte[] ad, BoundedCache<String, byte[]> cache, DecodeScratch scratch) throws Exception {
+        if (cache == null) {
+            byte[] pt = decryptV1(packed, ad, scratch);
+            try {
+                return new String(pt, StandardCharsets.UTF_8);
+            } finally {
+                zeroize(pt);
+            }
+        }
+
+        // 적중 시 잠금 안에서 String으로 복사 (다른 스레드가 밀어내며 0으로 덮기 전에)
+        String cached = cache.read(packed, pt -> new String(pt, StandardCharsets.UTF_8));
+        if (cached != null) return cached;
+
+        byte[] pt = decryptV1(packed, ad, scratch);
+        String plain = new String(pt, StandardCharsets.UTF_8);
+        cache.put(packed, pt);
+        return plain;
+    }
+
+    private byte[] decryptV1(String packed, byte[] ad, DecodeScratch scratch) throws Exception {
         if (!packed.startsWith(PREFIX)) {
             throw new IllegalArgumentException("Invalid format: missing 'v1:'");
         }
-        byte[] ct = Base64.getDecoder().decode(packed.substring(PREFIX.length()));
-        byte[] pt = daead.decryptDeterministically(ct, ad);
-        return new String(pt, StandardCharsets.UTF_8);
+        byte[] ct = scratch == null
+                ? DECODER.decode(packed.substring(PREFIX.length()))
+                : scratch.decode(packed, PREFIX.length());
+        return daead.decryptDeterministically(ct, ad);
+    }
+
+    private List<String> bulk(List<EncryptedString> encs, byte[] ad,
+                              BoundedCache<String, String> resultCache, BoundedCache<String, byte[]> plainCache,
+                              UnaryOperator<String> finisher, String onFailure) {
+        if (encs == null || encs.isEmpty()) return List.of();
+
+        // 1. 고유 암호문만 추리고 결과 캐시 적중분은 바로 채운다
+        Map<String, String> resolved = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (EncryptedString enc : encs) {
+            if (enc == null || enc.isEmpty() || resolved.containsKey(enc.packed())) continue;
+            String packed = enc.packed();
+            String cached = resultCache == null ? null : resultCache.get(packed);
+            resolved.put(packed, cached);
+            if (cached == null) misses.add(packed);
+        }
+
+        // 2. 미스분 복호화 (구간별 디코드 버퍼 1개)
+        String[] computed = new String[misses.size()];
+        int span = parallelThreshold > 0 ? parallelThreshold : Math.max(misses.size(), 1);
+        int spans = (misses.size() + span - 1) / span;
+        IntStream range = IntStream.range(0, spans);
+        (spans > 1 ? range.parallel() : range).forEach(s -> {
+            DecodeScratch scratch = new DecodeScratch();
+            int end = Math.min((s + 1) * span, misses.size());
+            for (int i = s * span; i < end; i++) {
+                String packed = misses.get(i);
+                try {
+                    String result = finisher.apply(plain(packed, ad, plainCache, scratch));
+                    if (resultCache != null && result != null) resultCache.put(packed, result);
+                    computed[i] = result;
+                } catch (Exception e) {
+                    computed[i] = onFailure;
+                }
+            }
+        });
+        for (int i = 0; i < computed.length; i++) {
+            resolved.put(misses.get(i), computed[i]);
+        }
+
+        // 3. 입력 순서대로 펼친다
+        List<String> results = new ArrayList<>(encs.size());
+        for (EncryptedString enc : encs) {
+            results.add(enc == null || enc.isEmpty() ? null : resolved.get(enc.packed()));
+        }
+        return results;
+    }
+
+    /**
+     * 일괄 처리 구간 하나가 재사용하는 Base64 입력 버퍼.
+     * substring + String.getBytes 없이 암호문 문자를 그대로 옮겨 디코드한다 (결과 ct 배열만 새로 만든다).
+     */
+    private static final class DecodeScratch {
+        private byte[] src = new byte[128];
+
+        byte[] decode(String packed, int from) {
+            int len = packed.length() - from;
+            if (src.length < len) src = new byte[Math.max(len, src.length * 2)];
+            for (int i = 0; i < len; i++) {
+                src[i] = (byte) packed.charAt(from + i);
+            }
+            ByteBuffer decoded = DECODER.decode(ByteBuffer.wrap(src, 0, len));
+            byte[] ct = decoded.array();
+            return decoded.remaining() == ct.length ? ct : Arrays.copyOf(ct, decoded.remaining());
+        }
+    }
+
+    private static void zeroize(byte[] plain) {
+        if (plain != null) Arrays.fill(plain, (byte) 0);
+    }
+
+    private static long hits(BoundedCache<?, ?> cache) {
+        return cache == null ? 0 : cache.hits();
+    }
+
+    private static long misses(BoundedCache<?, ?> cache) {
+        return cache == null ? 0 : cache.misses();
+    }
+
+    private static int size(BoundedCache<?, ?> cache) {
+        return cache == null ? 0 : cache.size();
+    }
+
+    private static int sweep(BoundedCache<?, ?> cache) {
+        return cache == null ? 0 : cache.sweepExpired();
     }
 }
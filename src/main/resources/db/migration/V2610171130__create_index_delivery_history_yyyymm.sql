@@ -0,0 +1,4 @@
+-- 발송 통계 대사(delivery_summary 재집계)용 커버링 인덱스
+-- WHERE billing_yyyymm = ? GROUP BY delivery_channel 집계를 테이블 풀스캔 없이 인덱스만으로 처리
+
+alter table delivery_history add index INDX_delivery_history_yyyymm_channel_status (billing_yyyymm, delivery_channel, status);
@@ -0,0 +1,5 @@
+-- 재발송/SMS 전환 스캔용 인덱스
+-- WHERE status = 'FAILED' AND retry_count < ? (재발송) / retry_count >= ? AND delivery_channel = 'EMAIL' (SMS 전환)
+-- 를 FAILED 구간만 읽도록 (기존에는 매 10초 delivery_status 풀스캔)
+
+alter table delivery_status add index INDX_delivery_status_status_retry_channel (status, retry_count, delivery_channel);
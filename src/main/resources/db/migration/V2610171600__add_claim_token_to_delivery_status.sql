@@ -0,0 +1,9 @@
+-- 예약(SCHEDULED) 건 선점용 컬럼
+-- UPDATE ... SET status = 'CLAIMED', claim_token = ? ... LIMIT n 으로 노드마다 겹치지 않게 잡고, 토큰으로 다시 읽는다.
+-- claimed_at: 선점 후 적재 전에 죽은 노드의 건을 SCHEDULED로 되돌리는 기준
+
+ALTER TABLE delivery_status
+ADD COLUMN claim_token CHAR(36) NULL COMMENT '예약 건 선점 토큰 (UUID)',
+ADD COLUMN claimed_at DATETIME(6) NULL COMMENT '선점 시각';
+
+alter table delivery_status add index INDX_delivery_status_claim_token (claim_token);
@@ -0,0 +1,9 @@
+-- 비워진 지연 큐 버킷을 샤드 색인에서 제거 (버킷/색인은 같은 해시 태그 -> 같은 슬롯)
+-- KEYS[1] = 버킷 ZSET, KEYS[2] = 샤드 버킷 색인 ZSET
+-- ARGV[1] = 버킷(epochMinute)
+-- return 1: 제거함, 0: 아직 멤버가 남아 있음
+if redis.call('ZCARD', KEYS[1]) == 0 then
+    redis.call('ZREM', KEYS[2], ARGV[1])
+    return 1
+end
+return 0
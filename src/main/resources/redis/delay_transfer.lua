@@ -0,0 +1,48 @@
+-- (샤딩 이전) 단일 지연 큐 ZSET -> 발송 대기 스트림 원자적 이관 (배포 전환 시 잔여분 처리용)
+-- KEYS[1] = 지연 큐(ZSET), KEYS[2] = 발송 대기 스트림
+-- ARGV[1] = 기준 시각(epoch ms), ARGV[2] = 1회 최대 이관 건수, ARGV[3] = 스트림 payload 필드명
+-- return {이관 건수, 폐기 건수}
+local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+if #due == 0 then
+    return {0, 0}
+end
+
+local moved = 0
+local dropped = 0
+
+for _, member in ipairs(due) do
+    if string.byte(member, 1) ~= 123 then
+        -- DeliveryPayloadCodec 바이너리: 디코딩 없이 payload 필드 하나로 그대로 이관
+        redis.call('XADD', KEYS[2], '*', ARGV[3], member)
+        moved = moved + 1
+    else
+        -- '{' 로 시작: 코덱 도입 이전 JSON 멤버 (배포 전환 시점 잔여분)
+        local ok, payload = pcall(cjson.decode, member)
+        local fields = {}
+
+        if ok and type(payload) == 'table' then
+            for k, v in pairs(payload) do
+                if v ~= cjson.null then
+                    fields[#fields + 1] = k
+                    fields[#fields + 1] = tostring(v)
+                end
+            end
+        end
+
+        if #fields > 0 then
+            redis.call('XADD', KEYS[2], '*', unpack(fields))
+            moved = moved + 1
+        else
+            dropped = dropped + 1
+        end
+    end
+end
+
+-- 읽은 멤버만 정확히 제거 (ZREMRANGEBYSCORE는 읽은 뒤 추가된 멤버까지 지울 수 있음)
+-- unpack 인자 수는 Lua 스택 한도(LUAI_MAXCSTACK 8000)를 넘을 수 없으므로 batch-size와 무관하게 고정 크기로 나눠 지운다
+local slice = 500
+for i = 1, #due, slice do
+    redis.call('ZREM', KEYS[1], unpack(due, i, math.min(i + slice - 1, #due)))
+end
+
+return {moved, dropped}
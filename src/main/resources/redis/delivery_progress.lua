@@ -0,0 +1,20 @@
+-- 청구월 발송 진행률 카운터 갱신 + 완료 판정 (원자적, 완료 신호는 한 번만)
+-- KEYS[1] = 진행률 해시 (total / terminal / sent / failed / sealed / fired)
+-- ARGV[1] = 키 만료(초), ARGV[2..] = {필드, 증가량} 반복 (없으면 판정만)
+-- return 1: 이번 호출이 완료를 확정함 (호출부가 통계 적재), 0: 그 외
+for i = 2, #ARGV, 2 do
+    redis.call('HINCRBY', KEYS[1], ARGV[i], tonumber(ARGV[i + 1]))
+end
+redis.call('EXPIRE', KEYS[1], tonumber(ARGV[1]))
+
+-- 적재가 끝나기(sealed) 전에는 청크 사이에 잔량이 0이 되어도 완료가 아니다
+if redis.call('HEXISTS', KEYS[1], 'sealed') == 0 then
+    return 0
+end
+
+local total = tonumber(redis.call('HGET', KEYS[1], 'total') or '0')
+local terminal = tonumber(redis.call('HGET', KEYS[1], 'terminal') or '0')
+if total > 0 and terminal >= total then
+    return redis.call('HSETNX', KEYS[1], 'fired', '1')
+end
+return 0
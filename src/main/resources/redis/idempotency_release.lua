@@ -0,0 +1,8 @@
+-- 발송 선점 해제 (send:done:{invoiceId})
+-- KEYS[1] = 멱등성 키
+-- ARGV[1] = 선점 값 (SENDING:{소유자})
+-- return 1: 해제, 0: 이미 만료돼 다른 컨슈머가 선점했거나 SENT (건드리지 않음)
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
@@ -0,0 +1,14 @@
+-- 발송 선점 연장 (send:done:{invoiceId})
+-- KEYS[1] = 멱등성 키
+-- ARGV[1] = 선점 값 (SENDING:{소유자}), ARGV[2] = 유지 시간(ms)
+-- return 1: 선점 유지 (연장 또는 만료됐던 키를 다시 선점), 0: 다른 컨슈머가 선점했거나 이미 SENT
+local current = redis.call('GET', KEYS[1])
+if current == ARGV[1] then
+    redis.call('PEXPIRE', KEYS[1], ARGV[2])
+    return 1
+end
+if not current then
+    redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+    return 1
+end
+return 0
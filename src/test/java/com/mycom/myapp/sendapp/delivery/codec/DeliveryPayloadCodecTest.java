@@ -0,0 +1,182 @@
+package com.mycom.myapp.sendapp.delivery.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycom.myapp.sendapp.delivery.dto.DeliveryPayload;
+import com.mycom.myapp.sendapp.delivery.dto.ProcessResult;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 스트림 페이로드/결과 저널이 왕복해도 같은 값이 되고, 하위 호환 경로와 깨진 입력을 구분하는지 확인한다.
+ */
+class DeliveryPayloadCodecTest {
+
+  private static final LocalDateTime REQUESTED_AT = LocalDateTime.of(2026, 3, 1, 9, 30, 15, 123_000_000);
+
+  private final DeliveryPayloadCodec codec = new DeliveryPayloadCodec(new ObjectMapper());
+
+  private static DeliveryPayload.DeliveryPayloadBuilder full() {
+    return DeliveryPayload.builder()
+        .invoiceId(1_234_567L)
+        .channel("EMAIL")
+        .recipientName("홍길동")
+        .encEmail("enc-email")
+        .endphone("enc-phone")
+        .retryCount(2)
+        .requestedAt(REQUESTED_AT)
+        .targetYyyymm(202603)
+        .totalAmountWon(55_000L)
+        .planAmountWon(45_000L)
+        .addonAmountWon(12_000L)
+        .etcAmountWon(1_000L)
+        .discountAmountWon(3_000L)
+        .paymentDueDate(LocalDate.of(2026, 3, 25));
+  }
+
+  @Test
+  void full_payload_round_trips() {
+    DeliveryPayload decoded = codec.decode(codec.encode(full().build()));
+
+    assertEquals(1_234_567L, decoded.getInvoiceId());
+    assertEquals("EMAIL", decoded.getChannel());
+    assertEquals("홍길동", decoded.getRecipientName());
+    assertEquals("enc-email", decoded.getEncEmail());
+    assertEquals("enc-phone", decoded.getEndphone());
+    assertEquals(2, decoded.getRetryCount());
+    assertEquals(REQUESTED_AT, decoded.getRequestedAt());
+    assertEquals(202603, decoded.getTargetYyyymm());
+    assertEquals(55_000L, decoded.getTotalAmountWon());
+    assertEquals(45_000L, decoded.getPlanAmountWon());
+    assertEquals(12_000L, decoded.getAddonAmountWon());
+    assertEquals(1_000L, decoded.getEtcAmountWon());
+    assertEquals(3_000L, decoded.getDiscountAmountWon());
+    assertEquals(LocalDate.of(2026, 3, 25), decoded.getPaymentDueDate());
+    assertFalse(decoded.isReferenceOnly());
+  }
+
+  @Test
+  void reference_payload_carries_no_contact_fields() {
+    DeliveryPayload decoded = codec.decode(codec.encodeReference(full().channel("SMS").build()));
+
+    assertTrue(decoded.isReferenceOnly());
+    assertEquals(1_234_567L, decoded.getInvoiceId());
+    assertEquals("SMS", decoded.getChannel());
+    assertEquals(2, decoded.getRetryCount());
+    assertEquals(REQUESTED_AT, decoded.getRequestedAt());
+    assertNull(decoded.getEncEmail());
+    assertNull(decoded.getEndphone());
+    assertNull(decoded.getRecipientName());
+  }
+
+  @Test
+  void negative_amounts_survive_zigzag() {
+    DeliveryPayload decoded = codec.decode(codec.encode(full()
+        .totalAmountWon(-12_000L)
+        .discountAmountWon(-3_000L)
+        .etcAmountWon(Long.MIN_VALUE)
+        .build()));
+
+    assertEquals(-12_000L, decoded.getTotalAmountWon());
+    assertEquals(-3_000L, decoded.getDiscountAmountWon());
+    assertEquals(Long.MIN_VALUE, decoded.getEtcAmountWon());
+  }
+
+  @Test
+  void missing_requested_at_stays_null() {
+    DeliveryPayload payload = full().requestedAt(null).build();
+
+    assertNull(codec.decode(codec.encode(payload)).getRequestedAt());
+    assertNull(codec.decode(codec.encodeReference(payload)).getRequestedAt());
+  }
+
+  @Test
+  void result_journal_round_trips() {
+    List<ProcessResult> results = List.of(
+        ProcessResult.attempted(1L, "EMAIL", 1, "SENT", null, REQUESTED_AT, "a***@test.com", 202603),
+        ProcessResult.attempted(2L, "SMS", 3, "FAILED", "타임아웃", null, null, 0),
+        ProcessResult.failed(3L, 202603));
+
+    List<ProcessResult> decoded = codec.decodeResults(codec.encodeResults(results));
+
+    assertEquals(3, decoded.size());
+    assertEquals(1L, decoded.get(0).getInvoiceId());
+    assertEquals("EMAIL", decoded.get(0).getChannel());
+    assertEquals("SENT", decoded.get(0).getStatus());
+    assertEquals(REQUESTED_AT, decoded.get(0).getRequestedAt());
+    assertEquals("a***@test.com", decoded.get(0).getReceiverInfo());
+    assertEquals(202603, decoded.get(0).getBillingYyyymm());
+
+    assertEquals(3, decoded.get(1).getAttemptNo());
+    assertEquals("타임아웃", decoded.get(1).getErrorMessage());
+    assertNull(decoded.get(1).getRequestedAt());
+    assertNull(decoded.get(1).getReceiverInfo());
+
+    assertNull(decoded.get(2).getChannel());
+    assertEquals("FAILED", decoded.get(2).getStatus());
+  }
+
+  @Test
+  void result_record_skips_fields_appended_by_newer_writer() {
+    // v2, 1건, 레코드 7바이트: id 5, SMS, 1회차, 요청시각 없음(flag 16), 알 수 없는 필드 2바이트
+    byte[] bytes = {2, 1, 7, 5, 2, 1, 0, 16, 0x7F, 0x7F};
+
+    List<ProcessResult> decoded = codec.decodeResults(bytes);
+
+    assertEquals(1, decoded.size());
+    assertEquals(5L, decoded.get(0).getInvoiceId());
+    assertEquals("SMS", decoded.get(0).getChannel());
+    assertNull(decoded.get(0).getRequestedAt());
+  }
+
+  @Test
+  void legacy_json_payload_is_still_readable() {
+    byte[] json = ("{\"invoice_id\":\"7\",\"delivery_channel\":\"SMS\",\"phone\":\"enc-phone\","
+        + "\"total_amount\":\"1,200\",\"requested_at\":\"2026-03-01T09:30:15\",\"retry_count\":\"1\"}")
+        .getBytes(StandardCharsets.UTF_8);
+
+    DeliveryPayload decoded = codec.decode(json);
+
+    assertEquals(7L, decoded.getInvoiceId());
+    assertEquals("SMS", decoded.getChannel());
+    assertEquals("enc-phone", decoded.getEndphone());
+    assertEquals(1_200L, decoded.getTotalAmountWon());
+    assertEquals(LocalDateTime.of(2026, 3, 1, 9, 30, 15), decoded.getRequestedAt());
+    assertEquals(1, decoded.getRetryCount());
+  }
+
+  @Test
+  void unknown_version_is_rejected() {
+    byte[] bytes = codec.encode(full().build());
+    bytes[0] = 9;
+
+    assertThrows(IllegalArgumentException.class, () -> codec.decode(bytes));
+    assertThrows(IllegalArgumentException.class, () -> codec.decodeResults(new byte[] {9, 0}));
+  }
+
+  @Test
+  void unknown_channel_is_rejected() {
+    assertThrows(IllegalArgumentException.class, () -> codec.encode(full().channel("FAX").build()));
+
+    byte[] bytes = codec.encodeReference(full().build());
+    bytes[5] = 9; // 버전, flags, invoiceId(varint 3B) 다음이 채널 코드
+    assertThrows(IllegalArgumentException.class, () -> codec.decode(bytes));
+  }
+
+  @Test
+  void truncated_input_is_rejected() {
+    byte[] payload = codec.encode(full().build());
+    byte[] journal = codec.encodeResults(List.of(
+        ProcessResult.attempted(1L, "EMAIL", 1, "SENT", null, REQUESTED_AT, "a***@test.com", 202603)));
+
+    assertThrows(IllegalArgumentException.class, () -> codec.decode(Arrays.copyOf(payload, payload.length - 3)));
+    assertThrows(IllegalArgumentException.class, () -> codec.decodeResults(Arrays.copyOf(journal, journal.length - 3)));
+  }
+}
@@ -0,0 +1,59 @@
+package com.mycom.myapp.sendapp.delivery.retry;
+
+import com.mycom.myapp.sendapp.delivery.config.DeliveryRetryProperties;
+import com.mycom.myapp.sendapp.delivery.entity.enums.DeliveryChannelType;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 대기 시간이 채널별 [base, cap] 안에 있고, 같은 회차라도 건마다 흩어지는지 확인한다.
+ */
+class DecorrelatedJitterBackoffPolicyTest {
+
+  private static final DeliveryRetryProperties PROPERTIES = new DeliveryRetryProperties(500, 0, Map.of(
+      DeliveryChannelType.EMAIL, new DeliveryRetryProperties.Backoff(1_000L, 60_000L),
+      DeliveryChannelType.SMS, new DeliveryRetryProperties.Backoff(5_000L, 20_000L)));
+
+  private final SplittableRandom random = new SplittableRandom(42L);
+  private final DecorrelatedJitterBackoffPolicy policy = new DecorrelatedJitterBackoffPolicy(PROPERTIES, () -> random);
+
+  @Test
+  void first_retry_waits_between_base_and_three_times_base() {
+    for (int i = 0; i < 1_000; i++) {
+      long delay = policy.delayMillis(DeliveryChannelType.EMAIL, 1);
+      assertTrue(delay >= 1_000L && delay <= 3_000L, "delay=" + delay);
+    }
+  }
+
+  @Test
+  void delay_never_exceeds_channel_cap() {
+    for (int retryCount = 1; retryCount <= 10; retryCount++) {
+      for (int i = 0; i < 200; i++) {
+        long delay = policy.delayMillis(DeliveryChannelType.SMS, retryCount);
+        assertTrue(delay >= 5_000L && delay <= 20_000L, "retryCount=" + retryCount + ", delay=" + delay);
+      }
+    }
+  }
+
+  @Test
+  void same_retry_count_is_spread_out() {
+    Set<Long> delays = new HashSet<>();
+    for (int i = 0; i < 100; i++) {
+      delays.add(policy.delayMillis(DeliveryChannelType.EMAIL, 2));
+    }
+    assertTrue(delays.size() > 50, "distinct=" + delays.size());
+  }
+
+  @Test
+  void unconfigured_channel_falls_back_to_one_second() {
+    assertEquals(1_000L, policy.delayMillis(DeliveryChannelType.PUSH, 1));
+    assertEquals(1_000L, policy.delayMillis(null, 3));
+  }
+}
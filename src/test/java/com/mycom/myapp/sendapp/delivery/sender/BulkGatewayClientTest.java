@@ -0,0 +1,86 @@
+package com.mycom.myapp.sendapp.delivery.sender;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycom.myapp.sendapp.delivery.config.DeliveryGatewayProperties;
+import com.mycom.myapp.sendapp.delivery.dto.SendResponse;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 묶음 발송 1회 = HTTP 요청 1회, 결과는 입력 순서대로 건별 매핑되는지 확인한다.
+ */
+class BulkGatewayClientTest {
+
+  private MockDeliveryGateway gateway;
+  private BulkGatewayClient client;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    gateway = new MockDeliveryGateway();
+    client = new BulkGatewayClient(new ObjectMapper(),
+        new DeliveryGatewayProperties(gateway.url(), gateway.url(), 500, 1000, 5000));
+  }
+
+  @AfterEach
+  void tearDown() {
+    gateway.close();
+  }
+
+  @Test
+  void submit_sends_one_request_and_maps_results_per_item() {
+    gateway.rejectIds.add(2L);
+
+    List<SendResponse> responses = client.submit(gateway.url(), "SMS", List.of(
+        new BulkGatewayClient.Message(1L, "01000000001", null, "a"),
+        new BulkGatewayClient.Message(2L, "01000000002", null, "b"),
+        new BulkGatewayClient.Message(3L, "01000000003", null, "c")));
+
+    assertEquals(1, gateway.receivedBatches.size());
+    assertEquals(3, gateway.receivedBatches.get(0).path("messages").size());
+    assertEquals("SENT", responses.get(0).getStatus());
+    assertEquals("FAILED", responses.get(1).getStatus());
+    assertEquals("BLOCKED_RECEIVER", responses.get(1).getErrorMessage());
+    assertEquals("SENT", responses.get(2).getStatus());
+  }
+
+  @Test
+  void streamed_body_is_escaped_and_failed_writer_is_left_out() {
+    String html = "<p class=\"bill\">홍길동 님\n\t\\ 청구서</p>\u0001";
+
+    List<SendResponse> responses = client.submit(gateway.url(), "EMAIL", List.of(
+        BulkGatewayClient.Message.streamed(1L, "a@test.com", "s", out -> out.write(html.getBytes(StandardCharsets.UTF_8))),
+        BulkGatewayClient.Message.streamed(2L, "b@test.com", "s", out -> {
+          out.write("partial".getBytes(StandardCharsets.UTF_8));
+          throw new IllegalStateException("render failed");
+        }),
+        new BulkGatewayClient.Message(3L, "c@test.com", "s", "<html/>")));
+
+    JsonNode messages = gateway.receivedBatches.get(0).path("messages");
+    assertEquals(2, messages.size());
+    assertEquals(html, messages.get(0).path("body").asText());
+    assertEquals(3L, messages.get(1).path("id").asLong());
+    assertEquals("SENT", responses.get(0).getStatus());
+    assertEquals("RENDER_ERROR", responses.get(1).getErrorMessage());
+    assertEquals("SENT", responses.get(2).getStatus());
+  }
+
+  @Test
+  void submit_fails_whole_batch_on_http_error() {
+    gateway.statusOverride.set(503);
+
+    List<SendResponse> responses = client.submit(gateway.url(), "EMAIL", List.of(
+        new BulkGatewayClient.Message(1L, "a@test.com", "s", "<html/>"),
+        new BulkGatewayClient.Message(2L, "b@test.com", "s", "<html/>")));
+
+    assertEquals(2, responses.size());
+    assertTrue(responses.stream().allMatch(r -> "GATEWAY_HTTP_503".equals(r.getErrorMessage())));
+  }
+}
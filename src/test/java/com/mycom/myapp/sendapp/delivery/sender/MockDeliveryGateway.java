@@ -0,0 +1,75 @@
+package com.mycom.myapp.sendapp.delivery.sender;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 테스트용 로컬 대량 발송 게이트웨이 (BulkGatewayClient 프로토콜).
+ *
+ * - POST /send 로 받은 묶음을 기록하고 건별 결과를 돌려준다.
+ * - rejectIds에 넣은 id는 REJECTED, statusOverride를 지정하면 그 HTTP 상태로 응답한다.
+ */
+class MockDeliveryGateway implements AutoCloseable {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final HttpServer server;
+
+  final List<JsonNode> receivedBatches = new CopyOnWriteArrayList<>();
+  final Set<Long> rejectIds = ConcurrentHashMap.newKeySet();
+  final AtomicInteger statusOverride = new AtomicInteger(0);
+
+  MockDeliveryGateway() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/send", exchange -> {
+      try (exchange) {
+        JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+        receivedBatches.add(request);
+
+        if (statusOverride.get() != 0) {
+          exchange.sendResponseHeaders(statusOverride.get(), -1);
+          return;
+        }
+
+        ObjectNode response = objectMapper.createObjectNode();
+        ArrayNode results = response.putArray("results");
+        for (JsonNode message : request.path("messages")) {
+          long id = message.path("id").asLong();
+          boolean rejected = rejectIds.contains(id);
+          results.addObject()
+              .put("id", id)
+              .put("status", rejected ? "REJECTED" : "SENT")
+              .put("error", rejected ? "BLOCKED_RECEIVER" : null);
+        }
+
+        byte[] body = objectMapper.writeValueAsBytes(response);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+          out.write(body);
+        }
+      }
+    });
+    server.start();
+  }
+
+  String url() {
+    return "http://127.0.0.1:" + server.getAddress().getPort() + "/send";
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+}
@@ -0,0 +1,98 @@
+package com.mycom.myapp.sendapp.delivery.service;
+
+import com.mycom.myapp.sendapp.delivery.config.DeliveryCalendarProperties;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 금지 시간대(21시 ~ 09시)와 휴일에 걸린 건이 다음 개시 시각의 ramp 구간 안으로 밀리고, 다시 계산해도 같은 시각이 나오는지 확인한다.
+ */
+class DeliveryCalendarTest {
+
+  private static final LocalDateTime MONDAY_NIGHT = LocalDateTime.of(2026, 3, 2, 22, 0);
+
+  private static DeliveryCalendar calendar(int quietStart, int quietEnd, List<String> holidays, int rampMinutes) {
+    return new DeliveryCalendar(new DeliveryCalendarProperties(quietStart, quietEnd, holidays, rampMinutes));
+  }
+
+  private final DeliveryCalendar calendar = calendar(21, 9, List.of(), 30);
+
+  @Test
+  void quiet_window_spans_midnight() {
+    assertTrue(calendar.isSendable(LocalDateTime.of(2026, 3, 2, 20, 59)));
+    assertFalse(calendar.isSendable(LocalDateTime.of(2026, 3, 2, 21, 0)));
+    assertFalse(calendar.isSendable(LocalDateTime.of(2026, 3, 3, 0, 0)));
+    assertFalse(calendar.isSendable(LocalDateTime.of(2026, 3, 3, 8, 59)));
+    assertTrue(calendar.isSendable(LocalDateTime.of(2026, 3, 3, 9, 0)));
+  }
+
+  @Test
+  void night_request_moves_to_next_morning_ramp() {
+    LocalDateTime opening = LocalDateTime.of(2026, 3, 3, 9, 0);
+
+    for (long key = 0; key < 1_000; key++) {
+      LocalDateTime beforeMidnight = calendar.releaseAt(MONDAY_NIGHT, key);
+      LocalDateTime afterMidnight = calendar.releaseAt(LocalDateTime.of(2026, 3, 3, 3, 0), key);
+
+      assertEquals(beforeMidnight, afterMidnight);
+      assertFalse(beforeMidnight.isBefore(opening));
+      assertTrue(beforeMidnight.isBefore(opening.plusMinutes(30)));
+    }
+  }
+
+  @Test
+  void sendable_request_is_kept() {
+    LocalDateTime noon = LocalDateTime.of(2026, 3, 2, 12, 0);
+
+    assertEquals(noon, calendar.releaseAt(noon, 42L));
+  }
+
+  @Test
+  void consecutive_holidays_are_skipped() {
+    DeliveryCalendar holidayCalendar = calendar(21, 9, List.of("2026-03-03", " 2026-03-04 ", ""), 0);
+
+    assertEquals(LocalDateTime.of(2026, 3, 5, 9, 0), holidayCalendar.releaseAt(MONDAY_NIGHT, 1L));
+    assertEquals(LocalDateTime.of(2026, 3, 5, 9, 0), holidayCalendar.releaseAt(LocalDateTime.of(2026, 3, 3, 12, 0), 1L));
+    assertFalse(holidayCalendar.isSendable(LocalDateTime.of(2026, 3, 4, 12, 0)));
+  }
+
+  @Test
+  void ramp_is_clamped_to_open_window() {
+    // 개시 09시 ~ 금지 10시: 1시간 구간에 ramp 120분을 줘도 밀린 건이 다시 금지 시간대로 넘어가지 않는다
+    DeliveryCalendar narrow = calendar(10, 9, List.of(), 120);
+
+    for (long key = 0; key < 10_000; key++) {
+      LocalDateTime releaseAt = narrow.releaseAt(MONDAY_NIGHT, key);
+      assertTrue(narrow.isSendable(releaseAt), "key " + key + " -> " + releaseAt);
+    }
+  }
+
+  @Test
+  void zero_ramp_releases_at_opening() {
+    DeliveryCalendar noRamp = calendar(21, 9, List.of(), 0);
+
+    assertEquals(LocalDateTime.of(2026, 3, 3, 9, 0), noRamp.releaseAt(MONDAY_NIGHT, 123_456L));
+  }
+
+  @Test
+  void re_evaluation_is_stable() {
+    ZoneId zone = ZoneId.systemDefault();
+    long requestedMillis = MONDAY_NIGHT.atZone(zone).toInstant().toEpochMilli();
+
+    for (long key = 0; key < 1_000; key++) {
+      LocalDateTime first = calendar.releaseAt(MONDAY_NIGHT, key);
+      long firstMillis = calendar.releaseAtMillis(requestedMillis, key);
+
+      assertEquals(first, calendar.releaseAt(MONDAY_NIGHT, key));
+      assertEquals(first, calendar.releaseAt(first, key));
+      assertEquals(first.atZone(zone).toInstant().toEpochMilli(), firstMillis);
+      assertEquals(firstMillis, calendar.releaseAtMillis(firstMillis, key));
+    }
+  }
+}